@@ -1,14 +1,19 @@
 package com.amigoscode.Exception;
 
+import com.amigoscode.jfr.ErrorMappingEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @ControllerAdvice
 public class DefaultExceptionHandler {
@@ -24,7 +29,7 @@ public class DefaultExceptionHandler {
         response.getStatus(),
         LocalDateTime.now()
     );
-    return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND));
   }
 
   @ExceptionHandler(InsufficientAuthenticationException.class)
@@ -37,7 +42,7 @@ public class DefaultExceptionHandler {
         HttpStatus.FORBIDDEN.value(),
         LocalDateTime.now()
     );
-    return new ResponseEntity<>(apiError, HttpStatus.FORBIDDEN);
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.FORBIDDEN));
   }
 
   @ExceptionHandler(BadCredentialsException.class)
@@ -50,7 +55,80 @@ public class DefaultExceptionHandler {
         HttpStatus.UNAUTHORIZED.value(),
         LocalDateTime.now()
     );
-    return new ResponseEntity<>(apiError, HttpStatus.UNAUTHORIZED);
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.UNAUTHORIZED));
+  }
+
+  @ExceptionHandler({
+      RequestValidationException.class,
+      MethodArgumentTypeMismatchException.class,
+      MissingServletRequestParameterException.class
+  })
+  public ResponseEntity<ApiError> handleBadRequest(
+      Exception e,
+      HttpServletRequest request) {
+    ApiError apiError = new ApiError(
+        request.getRequestURI(),
+        e.getMessage(),
+        HttpStatus.BAD_REQUEST.value(),
+        LocalDateTime.now()
+    );
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST));
+  }
+
+  @ExceptionHandler(DuplicateResourceException.class)
+  public ResponseEntity<ApiError> handleException(
+      DuplicateResourceException e,
+      HttpServletRequest request) {
+    ApiError apiError = new ApiError(
+        request.getRequestURI(),
+        e.getMessage(),
+        HttpStatus.CONFLICT.value(),
+        LocalDateTime.now()
+    );
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.CONFLICT));
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<ApiError> handleException(
+      PreconditionFailedException e,
+      HttpServletRequest request) {
+    ApiError apiError = new ApiError(
+        request.getRequestURI(),
+        e.getMessage(),
+        HttpStatus.PRECONDITION_FAILED.value(),
+        LocalDateTime.now()
+    );
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.PRECONDITION_FAILED));
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ApiError> handleException(
+      ServiceUnavailableException e,
+      HttpServletRequest request) {
+    ApiError apiError = new ApiError(
+        request.getRequestURI(),
+        e.getMessage(),
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        LocalDateTime.now()
+    );
+    // Retry-After takes whole seconds; round up so clients never come back early
+    long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+    return recorded(e, request, ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .body(apiError));
+  }
+
+  @ExceptionHandler(QueryTimeoutException.class)
+  public ResponseEntity<ApiError> handleException(
+      QueryTimeoutException e,
+      HttpServletRequest request) {
+    ApiError apiError = new ApiError(
+        request.getRequestURI(),
+        "Request exceeded its latency budget",
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        LocalDateTime.now()
+    );
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.SERVICE_UNAVAILABLE));
   }
 
   @ExceptionHandler(Exception.class)
@@ -63,6 +141,19 @@ public class DefaultExceptionHandler {
         HttpStatus.INTERNAL_SERVER_ERROR.value(),
         LocalDateTime.now()
     );
-    return new ResponseEntity<>(apiError, HttpStatus.INTERNAL_SERVER_ERROR);
+    return recorded(e, request, new ResponseEntity<>(apiError, HttpStatus.INTERNAL_SERVER_ERROR));
+  }
+
+  // Flight recordings show which errors were mapped, and when, next to GC and lock events
+  private static ResponseEntity<ApiError> recorded(Exception e, HttpServletRequest request,
+      ResponseEntity<ApiError> response) {
+    ErrorMappingEvent event = new ErrorMappingEvent();
+    if (event.shouldCommit()) {
+      event.exception = e.getClass();
+      event.status = response.getStatusCode().value();
+      event.path = request.getRequestURI();
+      event.commit();
+    }
+    return response;
   }
 }
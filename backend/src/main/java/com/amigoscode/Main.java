@@ -1,19 +1,22 @@
 package com.amigoscode;
 
 import com.amigoscode.customer.Customer;
-import com.amigoscode.customer.CustomerRepository;
+import com.amigoscode.customer.CustomerDao;
 import com.amigoscode.customer.Gender;
 import com.github.javafaker.Faker;
 import com.github.javafaker.Name;
 import java.util.Random;
 import java.util.UUID;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @SpringBootApplication
+@EnableScheduling
 public class Main {
 
   public static void main(String[] args) {
@@ -22,7 +25,7 @@ public class Main {
 
   @Bean
   CommandLineRunner runner(
-      CustomerRepository customerRepository,
+      @Qualifier("jpa") CustomerDao customerDao,
       PasswordEncoder passwordEncoder
   ) {
     return args -> {
@@ -40,7 +43,7 @@ public class Main {
           age,
           gender
       );
-      customerRepository.save(customer);
+      customerDao.insertCustomer(customer);
     };
   }
 }
@@ -1,12 +1,13 @@
 package com.amigoscode;
 
+import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class PingPongController {
 
-  private static int COUNTER = 0;
+  private static final AtomicLong COUNTER = new AtomicLong();
 
   record PingPong(String result) {
 
@@ -14,6 +15,6 @@ public class PingPongController {
 
   @GetMapping("/ping")
   public PingPong getPingPong() {
-    return new PingPong("Pong test " + ++COUNTER);
+    return new PingPong("Pong test " + COUNTER.incrementAndGet());
   }
 }
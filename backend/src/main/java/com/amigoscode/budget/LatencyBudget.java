@@ -0,0 +1,59 @@
+package com.amigoscode.budget;
+
+import java.time.Duration;
+
+/**
+ * Deadline for the work done on behalf of the current request. The servlet filter opens one per
+ * request and the data source turns what is left of it into the timeout of every statement the
+ * thread creates, so a slow query is cancelled by Postgres instead of holding its connection.
+ */
+public final class LatencyBudget implements AutoCloseable {
+
+  private static final ThreadLocal<LatencyBudget> CURRENT = new ThreadLocal<>();
+
+  private final Duration budget;
+  private final long deadlineNanos;
+  private final LatencyBudget previous;
+  private boolean exceeded;
+
+  private LatencyBudget(Duration budget, LatencyBudget previous) {
+    this.budget = budget;
+    this.deadlineNanos = System.nanoTime() + budget.toNanos();
+    this.previous = previous;
+  }
+
+  public static LatencyBudget start(Duration budget) {
+    LatencyBudget latencyBudget = new LatencyBudget(budget, CURRENT.get());
+    CURRENT.set(latencyBudget);
+    return latencyBudget;
+  }
+
+  public static LatencyBudget current() {
+    return CURRENT.get();
+  }
+
+  public Duration getBudget() {
+    return budget;
+  }
+
+  public long remainingNanos() {
+    return deadlineNanos - System.nanoTime();
+  }
+
+  public boolean isExceeded() {
+    return exceeded;
+  }
+
+  void markExceeded() {
+    exceeded = true;
+  }
+
+  @Override
+  public void close() {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
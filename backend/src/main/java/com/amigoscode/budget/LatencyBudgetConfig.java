@@ -0,0 +1,37 @@
+package com.amigoscode.budget;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@ConditionalOnProperty(
+    name = "customer.latency-budget.enabled", havingValue = "true", matchIfMissing = true
+)
+public class LatencyBudgetConfig {
+
+  // Ahead of the concurrency limiter, so shed requests open a budget too; it closes as soon
+  // as their rejection is written
+  @Bean
+  public FilterRegistrationBean<LatencyBudgetFilter> latencyBudgetFilter(
+      Environment environment, MeterRegistry meterRegistry,
+      @Value("${customer.latency-budget.default:PT2S}") Duration defaultBudget) {
+    Map<String, Duration> budgets = Binder.get(environment)
+        .bind("customer.latency-budget.endpoints", Bindable.mapOf(String.class, Duration.class))
+        .orElse(Map.of());
+    FilterRegistrationBean<LatencyBudgetFilter> registration = new FilterRegistrationBean<>(
+        new LatencyBudgetFilter(budgets, defaultBudget, meterRegistry)
+    );
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+    return registration;
+  }
+}
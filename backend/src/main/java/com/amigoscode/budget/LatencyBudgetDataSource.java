@@ -0,0 +1,94 @@
+package com.amigoscode.budget;
+
+import com.amigoscode.jdbc.JdbcProxies;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.postgresql.jdbc.PgStatement;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Applies the current {@link LatencyBudget} to every statement handed out, whether JdbcTemplate
+ * or Hibernate created it. A statement created after the budget ran out fails without reaching
+ * the database. Cancellations surface as {@link SQLTimeoutException}, which both Spring and
+ * Hibernate translate to a query timeout rather than a generic resource failure.
+ */
+public class LatencyBudgetDataSource extends DelegatingDataSource {
+
+  static final String QUERY_CANCELED = "57014";
+
+  public LatencyBudgetDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return budgeted(obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return budgeted(obtainTargetDataSource().getConnection(username, password));
+  }
+
+  static Connection budgeted(Connection connection) {
+    return JdbcProxies.proxy(Connection.class, (proxy, method, args) -> {
+      Object result = JdbcProxies.invoke(proxy, connection, method, args);
+      if (result instanceof Statement statement
+          && Statement.class.isAssignableFrom(method.getReturnType())) {
+        applyBudget(statement);
+        return budgeted(statement, method.getReturnType());
+      }
+      return result;
+    });
+  }
+
+  private static Object budgeted(Statement statement, Class<?> type) {
+    return JdbcProxies.proxy(type, (proxy, method, args) -> {
+      try {
+        return JdbcProxies.invoke(proxy, statement, method, args);
+      } catch (SQLException e) {
+        throw translate(e);
+      }
+    });
+  }
+
+  static void applyBudget(Statement statement) throws SQLException {
+    LatencyBudget budget = LatencyBudget.current();
+    if (budget == null) {
+      return;
+    }
+    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(budget.remainingNanos());
+    if (remainingMillis <= 0) {
+      budget.markExceeded();
+      statement.close();
+      throw new SQLTimeoutException(
+          "Latency budget of %s exhausted before the statement ran".formatted(budget.getBudget()),
+          QUERY_CANCELED
+      );
+    }
+    // pgjdbc takes milliseconds; the JDBC API only whole seconds
+    if (statement.isWrapperFor(PgStatement.class)) {
+      statement.unwrap(PgStatement.class).setQueryTimeoutMs(remainingMillis);
+    } else {
+      statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(
+          remainingMillis + 999
+      )));
+    }
+  }
+
+  // Both our per-request timeout and the statement_timeout backstop report 57014
+  static SQLException translate(SQLException e) {
+    if (!QUERY_CANCELED.equals(e.getSQLState()) || e instanceof SQLTimeoutException) {
+      return e;
+    }
+    LatencyBudget budget = LatencyBudget.current();
+    if (budget != null) {
+      budget.markExceeded();
+    }
+    return new SQLTimeoutException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+  }
+}
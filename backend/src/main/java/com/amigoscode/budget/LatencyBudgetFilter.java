@@ -0,0 +1,96 @@
+package com.amigoscode.budget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Opens a {@link LatencyBudget} for each request. Budgets are keyed by {@code "METHOD /path"}
+ * with Spring path patterns, e.g. {@code "GET /api/v1/customers/{customerId}"}; the most
+ * specific match wins and unmatched requests get the default budget.
+ */
+public class LatencyBudgetFilter extends OncePerRequestFilter {
+
+  static final String DEFAULT_ENDPOINT = "default";
+
+  private final List<Endpoint> endpoints;
+  private final Endpoint defaultEndpoint;
+
+  public LatencyBudgetFilter(Map<String, Duration> budgets, Duration defaultBudget,
+      MeterRegistry meterRegistry) {
+    List<Endpoint> endpoints = new ArrayList<>();
+    budgets.forEach((key, budget) -> {
+      String[] parts = key.trim().split("\\s+", 2);
+      if (parts.length != 2) {
+        throw new IllegalArgumentException(
+            "Latency budget key [%s] must look like \"GET /path\"".formatted(key)
+        );
+      }
+      endpoints.add(new Endpoint(
+          key,
+          parts[0].toUpperCase(),
+          PathPatternParser.defaultInstance.parse(parts[1]),
+          budget,
+          exceededCounter(meterRegistry, key)
+      ));
+    });
+    endpoints.sort(Comparator.comparing(Endpoint::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+    this.endpoints = List.copyOf(endpoints);
+    this.defaultEndpoint = new Endpoint(
+        DEFAULT_ENDPOINT, null, null, defaultBudget,
+        exceededCounter(meterRegistry, DEFAULT_ENDPOINT)
+    );
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    Endpoint endpoint = endpointFor(request);
+    try (LatencyBudget budget = LatencyBudget.start(endpoint.budget())) {
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        if (budget.isExceeded()) {
+          endpoint.exceeded().increment();
+        }
+      }
+    }
+  }
+
+  Endpoint endpointFor(HttpServletRequest request) {
+    PathContainer path = PathContainer.parsePath(
+        request.getRequestURI().substring(request.getContextPath().length())
+    );
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.method().equals(request.getMethod()) && endpoint.pattern().matches(path)) {
+        return endpoint;
+      }
+    }
+    return defaultEndpoint;
+  }
+
+  private static Counter exceededCounter(MeterRegistry meterRegistry, String endpoint) {
+    return Counter.builder("latency.budget.exceeded")
+        .description("Requests whose database work was cancelled for running over budget")
+        .tag("endpoint", endpoint)
+        .register(meterRegistry);
+  }
+
+  record Endpoint(String key, String method, PathPattern pattern, Duration budget,
+                  Counter exceeded) {
+
+  }
+}
@@ -0,0 +1,17 @@
+package com.amigoscode.codec;
+
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class CodecConfig implements WebMvcConfigurer {
+
+  // Appended last: with Accept */* Spring picks the first producible type, which
+  // must stay JSON. CBOR and Smile are registered by Spring once they are on the classpath.
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(new CustomerProtobufHttpMessageConverter());
+  }
+}
@@ -0,0 +1,220 @@
+package com.amigoscode.codec;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.Gender;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Field numbers follow src/main/resources/proto/customer.proto
+final class CustomerProtobufCodec {
+
+  private static final int CUSTOMER_ID = 1;
+  private static final int CUSTOMER_NAME = 2;
+  private static final int CUSTOMER_EMAIL = 3;
+  private static final int CUSTOMER_GENDER = 4;
+  private static final int CUSTOMER_AGE = 5;
+  private static final int CUSTOMER_ROLES = 6;
+  private static final int CUSTOMER_USERNAME = 7;
+  private static final int GENDER_MALE = 1;
+  private static final int GENDER_FEMALE = 2;
+  private static final int CUSTOMER_LIST_CUSTOMERS = 1;
+  private static final int AUTHENTICATION_REQUEST_USERNAME = 1;
+  private static final int AUTHENTICATION_REQUEST_PASSWORD = 2;
+  private static final int AUTHENTICATION_RESPONSE_TOKEN = 1;
+  private static final int AUTHENTICATION_RESPONSE_CUSTOMER = 2;
+
+  private CustomerProtobufCodec() {
+  }
+
+  static void writeCustomer(CodedOutputStream out, CustomerDTO customer) throws IOException {
+    if (customer.id() != null) {
+      out.writeInt32(CUSTOMER_ID, customer.id());
+    }
+    if (customer.name() != null) {
+      out.writeString(CUSTOMER_NAME, customer.name());
+    }
+    if (customer.email() != null) {
+      out.writeString(CUSTOMER_EMAIL, customer.email());
+    }
+    if (customer.gender() != null) {
+      out.writeEnum(CUSTOMER_GENDER, genderValue(customer.gender()));
+    }
+    if (customer.age() != null) {
+      out.writeInt32(CUSTOMER_AGE, customer.age());
+    }
+    if (customer.roles() != null) {
+      for (String role : customer.roles()) {
+        out.writeString(CUSTOMER_ROLES, role);
+      }
+    }
+    if (customer.username() != null) {
+      out.writeString(CUSTOMER_USERNAME, customer.username());
+    }
+  }
+
+  static void writeCustomerList(CodedOutputStream out, List<?> customers)
+      throws IOException {
+    for (Object customer : customers) {
+      writeNestedCustomer(out, CUSTOMER_LIST_CUSTOMERS, (CustomerDTO) customer);
+    }
+  }
+
+  static void writeAuthenticationRequest(CodedOutputStream out, AuthenticationRequest request)
+      throws IOException {
+    if (request.username() != null) {
+      out.writeString(AUTHENTICATION_REQUEST_USERNAME, request.username());
+    }
+    if (request.password() != null) {
+      out.writeString(AUTHENTICATION_REQUEST_PASSWORD, request.password());
+    }
+  }
+
+  static void writeAuthenticationResponse(CodedOutputStream out,
+      AuthenticationResponse response) throws IOException {
+    if (response.token() != null) {
+      out.writeString(AUTHENTICATION_RESPONSE_TOKEN, response.token());
+    }
+    if (response.customerDTO() != null) {
+      writeNestedCustomer(out, AUTHENTICATION_RESPONSE_CUSTOMER, response.customerDTO());
+    }
+  }
+
+  static CustomerDTO readCustomer(CodedInputStream in) throws IOException {
+    Integer id = null;
+    String name = null;
+    String email = null;
+    Gender gender = null;
+    Integer age = null;
+    List<String> roles = null;
+    String username = null;
+    int tag;
+    while ((tag = in.readTag()) != 0) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case CUSTOMER_ID -> id = in.readInt32();
+        case CUSTOMER_NAME -> name = in.readString();
+        case CUSTOMER_EMAIL -> email = in.readString();
+        case CUSTOMER_GENDER -> gender = readGender(in.readEnum());
+        case CUSTOMER_AGE -> age = in.readInt32();
+        case CUSTOMER_ROLES -> {
+          if (roles == null) {
+            roles = new ArrayList<>();
+          }
+          roles.add(in.readString());
+        }
+        case CUSTOMER_USERNAME -> username = in.readString();
+        default -> in.skipField(tag);
+      }
+    }
+    return new CustomerDTO(id, name, email, gender, age, roles, username);
+  }
+
+  static List<CustomerDTO> readCustomerList(CodedInputStream in) throws IOException {
+    List<CustomerDTO> customers = new ArrayList<>();
+    int tag;
+    while ((tag = in.readTag()) != 0) {
+      if (WireFormat.getTagFieldNumber(tag) == CUSTOMER_LIST_CUSTOMERS) {
+        customers.add(readNestedCustomer(in));
+      } else {
+        in.skipField(tag);
+      }
+    }
+    return customers;
+  }
+
+  static AuthenticationRequest readAuthenticationRequest(CodedInputStream in)
+      throws IOException {
+    String username = null;
+    String password = null;
+    int tag;
+    while ((tag = in.readTag()) != 0) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case AUTHENTICATION_REQUEST_USERNAME -> username = in.readString();
+        case AUTHENTICATION_REQUEST_PASSWORD -> password = in.readString();
+        default -> in.skipField(tag);
+      }
+    }
+    return new AuthenticationRequest(username, password);
+  }
+
+  static AuthenticationResponse readAuthenticationResponse(CodedInputStream in)
+      throws IOException {
+    String token = null;
+    CustomerDTO customer = null;
+    int tag;
+    while ((tag = in.readTag()) != 0) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case AUTHENTICATION_RESPONSE_TOKEN -> token = in.readString();
+        case AUTHENTICATION_RESPONSE_CUSTOMER -> customer = readNestedCustomer(in);
+        default -> in.skipField(tag);
+      }
+    }
+    return new AuthenticationResponse(token, customer);
+  }
+
+  // Embedded messages are length-delimited, so the size has to be known before writing
+  private static void writeNestedCustomer(CodedOutputStream out, int fieldNumber,
+      CustomerDTO customer) throws IOException {
+    out.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    out.writeUInt32NoTag(customerSize(customer));
+    writeCustomer(out, customer);
+  }
+
+  private static CustomerDTO readNestedCustomer(CodedInputStream in) throws IOException {
+    int limit = in.pushLimit(in.readRawVarint32());
+    CustomerDTO customer = readCustomer(in);
+    in.popLimit(limit);
+    return customer;
+  }
+
+  private static int customerSize(CustomerDTO customer) {
+    int size = 0;
+    if (customer.id() != null) {
+      size += CodedOutputStream.computeInt32Size(CUSTOMER_ID, customer.id());
+    }
+    if (customer.name() != null) {
+      size += CodedOutputStream.computeStringSize(CUSTOMER_NAME, customer.name());
+    }
+    if (customer.email() != null) {
+      size += CodedOutputStream.computeStringSize(CUSTOMER_EMAIL, customer.email());
+    }
+    if (customer.gender() != null) {
+      size += CodedOutputStream.computeEnumSize(
+          CUSTOMER_GENDER, genderValue(customer.gender())
+      );
+    }
+    if (customer.age() != null) {
+      size += CodedOutputStream.computeInt32Size(CUSTOMER_AGE, customer.age());
+    }
+    if (customer.roles() != null) {
+      for (String role : customer.roles()) {
+        size += CodedOutputStream.computeStringSize(CUSTOMER_ROLES, role);
+      }
+    }
+    if (customer.username() != null) {
+      size += CodedOutputStream.computeStringSize(CUSTOMER_USERNAME, customer.username());
+    }
+    return size;
+  }
+
+  // Spelled out so reordering or extending the Java enum cannot change the wire format
+  private static int genderValue(Gender gender) {
+    return switch (gender) {
+      case MALE -> GENDER_MALE;
+      case FEMALE -> GENDER_FEMALE;
+    };
+  }
+
+  private static Gender readGender(int value) {
+    return switch (value) {
+      case GENDER_MALE -> Gender.MALE;
+      case GENDER_FEMALE -> Gender.FEMALE;
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,112 @@
+package com.amigoscode.codec;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.customer.CustomerDTO;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+public class CustomerProtobufHttpMessageConverter
+    extends AbstractGenericHttpMessageConverter<Object> {
+
+  public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+  public static final MediaType APPLICATION_PROTOBUF =
+      MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+
+  private static final Set<Class<?>> MESSAGE_TYPES = Set.of(
+      CustomerDTO.class,
+      AuthenticationRequest.class,
+      AuthenticationResponse.class
+  );
+
+  public CustomerProtobufHttpMessageConverter() {
+    super(APPLICATION_PROTOBUF);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return MESSAGE_TYPES.contains(clazz);
+  }
+
+  @Override
+  public boolean canRead(Type type, @Nullable Class<?> contextClass,
+      @Nullable MediaType mediaType) {
+    return isMessageType(type) && canRead(mediaType);
+  }
+
+  @Override
+  public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+    return isMessageType(type != null ? type : clazz) && canWrite(mediaType);
+  }
+
+  @Override
+  protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage)
+      throws IOException {
+    CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody());
+    if (body instanceof CustomerDTO customer) {
+      CustomerProtobufCodec.writeCustomer(out, customer);
+    } else if (body instanceof List<?> customers) {
+      CustomerProtobufCodec.writeCustomerList(out, customers);
+    } else if (body instanceof AuthenticationRequest request) {
+      CustomerProtobufCodec.writeAuthenticationRequest(out, request);
+    } else if (body instanceof AuthenticationResponse response) {
+      CustomerProtobufCodec.writeAuthenticationResponse(out, response);
+    } else {
+      throw new HttpMessageNotWritableException(
+          "Cannot write %s as %s".formatted(body.getClass(), APPLICATION_PROTOBUF_VALUE)
+      );
+    }
+    out.flush();
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+      throws IOException {
+    return read(clazz, null, inputMessage);
+  }
+
+  @Override
+  public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+      throws IOException {
+    CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+    if (type == CustomerDTO.class) {
+      return CustomerProtobufCodec.readCustomer(in);
+    }
+    if (type == AuthenticationRequest.class) {
+      return CustomerProtobufCodec.readAuthenticationRequest(in);
+    }
+    if (type == AuthenticationResponse.class) {
+      return CustomerProtobufCodec.readAuthenticationResponse(in);
+    }
+    if (isMessageType(type)) {
+      return CustomerProtobufCodec.readCustomerList(in);
+    }
+    throw new HttpMessageNotReadableException(
+        "Cannot read %s as %s".formatted(type, APPLICATION_PROTOBUF_VALUE), inputMessage
+    );
+  }
+
+  private static boolean isMessageType(Type type) {
+    if (type instanceof Class<?> clazz) {
+      return MESSAGE_TYPES.contains(clazz);
+    }
+    return type instanceof ParameterizedType parameterizedType
+        && parameterizedType.getRawType() instanceof Class<?> rawType
+        && Collection.class.isAssignableFrom(rawType)
+        && rawType.isAssignableFrom(List.class)
+        && parameterizedType.getActualTypeArguments()[0] == CustomerDTO.class;
+  }
+}
@@ -0,0 +1,251 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.Exception.ServiceUnavailableException;
+import com.amigoscode.budget.LatencyBudget;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Group commit for {@link #insertCustomer(Customer)}: callers are queued and a single flusher
+ * writes everything that arrived within {@code maxDelay}, up to {@code maxBatchSize} rows, with
+ * one {@link CustomerDao#insertCustomers(List)} call. Each caller blocks until its own row is
+ * committed and then sees its id, or a {@link DuplicateKeyException} if the email was taken.
+ * Queueing and waiting together take at most {@link #AWAIT_TIMEOUT}, or what is left of the
+ * caller's {@link LatencyBudget}, after which the caller gets a
+ * {@link ServiceUnavailableException}.
+ */
+public class BatchingCustomerDao extends ForwardingCustomerDao implements SmartLifecycle {
+
+  // Postgres binds at most 32767 parameters per statement, five per customer row
+  static final int MAX_BATCH_SIZE = 6_000;
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+  // Well past a batch plus its one-by-one retries; only a wedged flusher should reach it
+  static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(60);
+
+  private static final Logger log = LoggerFactory.getLogger(BatchingCustomerDao.class);
+
+  private final int maxBatchSize;
+  private final Duration maxDelay;
+  private final BlockingQueue<PendingInsert> queue;
+  private final DistributionSummary batchSizes;
+  private volatile boolean running;
+  private Thread thread;
+
+  public BatchingCustomerDao(CustomerDao delegate, int maxBatchSize, Duration maxDelay,
+      int queueCapacity, MeterRegistry meterRegistry) {
+    super(delegate);
+    if (maxBatchSize < 1 || maxBatchSize > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          "maxBatchSize must be between 1 and %s".formatted(MAX_BATCH_SIZE)
+      );
+    }
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelay = maxDelay;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batchSizes = DistributionSummary.builder("customer.insert.batch.size")
+        .description("Rows written per group-committed customer insert")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void insertCustomer(Customer customer) {
+    if (!running) {
+      delegate.insertCustomer(customer);
+      return;
+    }
+    long deadline = System.nanoTime() + waitNanos();
+    PendingInsert pending = new PendingInsert(customer, new CompletableFuture<>());
+    try {
+      if (!queue.offer(pending, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        throw new ServiceUnavailableException(
+            "Too many customer inserts queued, retry later", maxDelay
+        );
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while queueing customer insert", e);
+    }
+    // stop() may have drained the queue for the last time between the check and the offer
+    if (!running && queue.remove(pending)) {
+      delegate.insertCustomer(customer);
+      return;
+    }
+    await(pending, deadline);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    thread = new Thread(this::flushLoop, "customer-insert-batcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  // Lets the flusher write out what is already queued before the datasource goes away
+  @Override
+  public synchronized void stop() {
+    running = false;
+    if (thread != null) {
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  // Anything a flush throws fails that batch's callers and the loop carries on; a dead
+  // flusher would leave every later caller queued behind it
+  private void flushLoop() {
+    while (running) {
+      List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+      try {
+        PendingInsert first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          collect(first, batch);
+          flush(batch);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail(batch, e);
+        break;
+      } catch (Throwable e) {
+        log.error("Flushing {} customer inserts failed", batch.size(), e);
+        fail(batch, e);
+      }
+    }
+    List<PendingInsert> remaining = new ArrayList<>();
+    while (queue.drainTo(remaining, maxBatchSize) > 0) {
+      try {
+        flush(remaining);
+      } catch (Throwable e) {
+        log.error("Flushing {} customer inserts failed", remaining.size(), e);
+        fail(remaining, e);
+      }
+      remaining = new ArrayList<>();
+    }
+  }
+
+  // The window opens with the first queued insert, so an idle system adds no delay beyond it
+  private void collect(PendingInsert first, List<PendingInsert> batch)
+      throws InterruptedException {
+    batch.add(first);
+    long deadline = System.nanoTime() + maxDelay.toNanos();
+    while (batch.size() < maxBatchSize) {
+      queue.drainTo(batch, maxBatchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= maxBatchSize || remaining <= 0) {
+        break;
+      }
+      PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+    }
+  }
+
+  void flush(List<PendingInsert> batch) {
+    batchSizes.record(batch.size());
+    List<Customer> customers = batch.stream().map(PendingInsert::customer).toList();
+    Set<Customer> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+    try {
+      inserted.addAll(delegate.insertCustomers(customers));
+    } catch (RuntimeException e) {
+      // One bad row must not fail its neighbours: retry them one at a time
+      log.warn("Batched insert of {} customers failed, retrying individually", batch.size(), e);
+      batch.forEach(this::retryAlone);
+      return;
+    }
+    for (PendingInsert pending : batch) {
+      if (inserted.contains(pending.customer())) {
+        pending.result().complete(null);
+      } else {
+        pending.result().completeExceptionally(new DuplicateKeyException(
+            "Email %s already taken".formatted(pending.customer().getEmail())
+        ));
+      }
+    }
+  }
+
+  // The default insertCustomers commits row by row, so a failed batch may have written some
+  // rows already. An id only proves that if the row exists: the JDBC batch assigns ids
+  // before its transaction can still roll back.
+  private void retryAlone(PendingInsert pending) {
+    Customer customer = pending.customer();
+    try {
+      if (customer.getId() != null) {
+        if (delegate.existsPersonWithId(customer.getId())) {
+          pending.result().complete(null);
+          return;
+        }
+        customer.setId(null);
+        customer.setVersion(null);
+      }
+      delegate.insertCustomer(customer);
+      pending.result().complete(null);
+    } catch (RuntimeException e) {
+      pending.result().completeExceptionally(e);
+    }
+  }
+
+  private static void fail(List<PendingInsert> batch, Throwable cause) {
+    batch.forEach(pending -> pending.result().completeExceptionally(cause));
+  }
+
+  // The request's own budget wins when it is shorter than the flusher's backstop
+  private static long waitNanos() {
+    LatencyBudget budget = LatencyBudget.current();
+    long nanos = AWAIT_TIMEOUT.toNanos();
+    return budget == null ? nanos : Math.max(0, Math.min(nanos, budget.remainingNanos()));
+  }
+
+  private void await(PendingInsert pending, long deadline) {
+    try {
+      pending.result().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Customer insert failed", e.getCause());
+    } catch (TimeoutException e) {
+      // Still queued means never written; once taken by the flusher it may yet commit
+      queue.remove(pending);
+      throw new ServiceUnavailableException(
+          "Customer insert did not complete before its deadline", maxDelay
+      );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while awaiting customer insert", e);
+    }
+  }
+
+  record PendingInsert(Customer customer, CompletableFuture<Void> result) {
+
+  }
+}
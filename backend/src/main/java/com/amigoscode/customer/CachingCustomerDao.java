@@ -0,0 +1,187 @@
+package com.amigoscode.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache in front of any {@link CustomerDao}. Id lookups, email lookups and the
+ * existence checks derived from them are served from memory; everything else, including the
+ * versions behind ETags, goes straight to the delegate. A version read evicts a cached row that
+ * no longer matches it, so a body is never served under a newer row's ETag.
+ */
+public class CachingCustomerDao extends ForwardingCustomerDao
+    implements CustomerInvalidationHandler {
+
+  private final Cache<Integer, Optional<Customer>> customersById;
+  // Email only resolves to an id; the row itself lives once, under its id. A mapping left
+  // behind by an email change is detected on read because the row no longer matches it.
+  private final Cache<String, Optional<Integer>> customerIdsByEmail;
+
+  public CachingCustomerDao(CustomerDao delegate, long maximumSize,
+      Duration expireAfterWrite) {
+    super(delegate);
+    this.customersById = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    this.customerIdsByEmail = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+  }
+
+  Cache<Integer, Optional<Customer>> customersById() {
+    return customersById;
+  }
+
+  Cache<String, Optional<Integer>> customerIdsByEmail() {
+    return customerIdsByEmail;
+  }
+
+  // Concurrent misses for one id wait on a single load instead of each querying the delegate.
+  // Callers get copies because the service mutates what it reads before writing it back.
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id) {
+    return customersById.get(id, delegate::selectCustomerById)
+        .map(CachingCustomerDao::copy);
+  }
+
+  // Only full rows are cached; a projection keeps its narrowed SELECT
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id, Set<CustomerField> fields) {
+    return fields.containsAll(CustomerField.ALL)
+        ? selectCustomerById(id)
+        : delegate.selectCustomerById(id, fields);
+  }
+
+  @Override
+  public void insertCustomer(Customer customer) {
+    delegate.insertCustomer(customer);
+    invalidate(customer.getId(), customer.getEmail());
+  }
+
+  @Override
+  public List<Customer> insertCustomers(List<Customer> customers) {
+    List<Customer> inserted = delegate.insertCustomers(customers);
+    // Skipped customers lost to an existing email; that email may be cached as missing
+    customers.forEach(customer -> invalidate(customer.getId(), customer.getEmail()));
+    return inserted;
+  }
+
+  @Override
+  public boolean existsPersonWithEmail(String email) {
+    return selectUserByEmail(email).isPresent();
+  }
+
+  @Override
+  public boolean existsPersonWithId(Integer id) {
+    return selectCustomerById(id).isPresent();
+  }
+
+  @Override
+  public void deleteCustomerById(Integer id) {
+    String email = cachedEmail(id);
+    delegate.deleteCustomerById(id);
+    invalidate(id, email);
+  }
+
+  @Override
+  public void updateCustomer(Customer customer) {
+    String previousEmail = cachedEmail(customer.getId());
+    // Also on failure: a write rejected by @Version means the cached copy is stale
+    try {
+      delegate.updateCustomer(customer);
+    } finally {
+      invalidate(customer.getId(), previousEmail);
+      invalidate(customer.getId(), customer.getEmail());
+    }
+  }
+
+  @Override
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    String previousEmail = cachedEmail(update.getId());
+    Optional<Customer> updated = delegate.updateCustomer(update, expectedVersion);
+    updated.ifPresent(customer -> {
+      invalidate(customer.getId(), previousEmail);
+      invalidate(customer.getId(), customer.getEmail());
+    });
+    return updated;
+  }
+
+  // Writes on other nodes only reach this cache through NOTIFY, which may not have arrived yet
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    Optional<Long> version = delegate.selectCustomerVersion(id);
+    Optional<Customer> cached = customersById.getIfPresent(id);
+    if (cached != null && !cached.map(Customer::getVersion).equals(version)) {
+      customersById.invalidate(id);
+    }
+    return version;
+  }
+
+  @Override
+  public Optional<Customer> selectUserByEmail(String email) {
+    for (int attempt = 0; attempt < 2; attempt++) {
+      Optional<Integer> id = customerIdsByEmail.get(
+          email, key -> delegate.selectUserByEmail(key).map(Customer::getId)
+      );
+      if (id.isEmpty()) {
+        return Optional.empty();
+      }
+      Optional<Customer> customer = selectCustomerById(id.get());
+      if (customer.isPresent() && email.equals(customer.get().getEmail())) {
+        return customer;
+      }
+      customerIdsByEmail.invalidate(email);
+    }
+    // Still inconsistent after a reload: the email is changing hands right now
+    return delegate.selectUserByEmail(email);
+  }
+
+  @Override
+  public void invalidate(Collection<CustomerInvalidation> invalidations) {
+    invalidations.forEach(invalidation ->
+        invalidate(invalidation.customerId(), invalidation.email())
+    );
+  }
+
+  @Override
+  public void invalidateAll() {
+    customersById.invalidateAll();
+    customerIdsByEmail.invalidateAll();
+  }
+
+  private String cachedEmail(Integer id) {
+    Optional<Customer> cached = id == null ? null : customersById.getIfPresent(id);
+    return cached == null ? null : cached.map(Customer::getEmail).orElse(null);
+  }
+
+  private void invalidate(Integer id, String email) {
+    if (id != null) {
+      customersById.invalidate(id);
+    }
+    if (email != null) {
+      customerIdsByEmail.invalidate(email);
+    }
+  }
+
+  private static Customer copy(Customer customer) {
+    Customer copy = new Customer(
+        customer.getId(),
+        customer.getName(),
+        customer.getEmail(),
+        customer.getPassword(),
+        customer.getAge(),
+        customer.getGender()
+    );
+    copy.setVersion(customer.getVersion());
+    return copy;
+  }
+}
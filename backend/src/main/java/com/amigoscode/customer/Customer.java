@@ -10,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -64,6 +65,12 @@ public class Customer implements UserDetails {
   )
   private String password;
 
+  @Version
+  @Column(
+      nullable = false
+  )
+  private Long version;
+
   public Customer() {
   }
 
@@ -129,6 +136,14 @@ public class Customer implements UserDetails {
     this.password = password;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   @Override
   public String toString() {
     return "Customer{" +
@@ -0,0 +1,12 @@
+package com.amigoscode.customer;
+
+import java.time.Instant;
+
+public record CustomerChange(
+    long seq,
+    Integer customerId,
+    CustomerChangeType type,
+    Instant changedAt
+) {
+
+}
@@ -0,0 +1,309 @@
+package com.amigoscode.customer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans the persisted customer change log out to Server-Sent Event subscribers. A single
+ * scheduled poller reads each batch once, encodes every event once and queues it for all
+ * subscribers, so the database load does not grow with the number of open dashboards. Writes
+ * happen on sender threads; a subscriber whose queue overflows is dropped and can resume
+ * from its last event id.
+ */
+@Component
+public class CustomerChangeFeed {
+
+  static final String CHANGE_EVENT = "change";
+  static final String RESET_EVENT = "reset";
+  static final int BATCH_SIZE = 500;
+
+  private final CustomerDao customerDao;
+  private final CustomerDTOMapper customerDTOMapper;
+  private final ObjectMapper objectMapper;
+  private final long emitterTimeoutMillis;
+  private final Duration heartbeatInterval;
+  private final Duration retention;
+  private final int maxPendingEvents;
+  private final Executor sender;
+  private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+  private Instant lastHeartbeat = Instant.now();
+
+  // A write to a client that stopped reading blocks until the connection times out; each
+  // subscriber drains on its own pooled thread, so that only stalls the one subscriber.
+  @Autowired
+  public CustomerChangeFeed(@Qualifier("jdbc") CustomerDao customerDao,
+      CustomerDTOMapper customerDTOMapper, ObjectMapper objectMapper,
+      @Value("${customer.changes.emitter-timeout:PT30M}") Duration emitterTimeout,
+      @Value("${customer.changes.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+      @Value("${customer.changes.retention:P7D}") Duration retention,
+      @Value("${customer.changes.max-pending-events:1000}") int maxPendingEvents) {
+    this(customerDao, customerDTOMapper, objectMapper, emitterTimeout, heartbeatInterval,
+        retention, maxPendingEvents, Executors.newCachedThreadPool(runnable -> {
+          Thread thread = new Thread(runnable, "customer-change-sender");
+          thread.setDaemon(true);
+          return thread;
+        }));
+  }
+
+  CustomerChangeFeed(CustomerDao customerDao, CustomerDTOMapper customerDTOMapper,
+      ObjectMapper objectMapper, Duration emitterTimeout, Duration heartbeatInterval,
+      Duration retention, int maxPendingEvents, Executor sender) {
+    this.customerDao = customerDao;
+    this.customerDTOMapper = customerDTOMapper;
+    this.objectMapper = objectMapper;
+    this.emitterTimeoutMillis = emitterTimeout.toMillis();
+    this.heartbeatInterval = heartbeatInterval;
+    this.retention = retention;
+    this.maxPendingEvents = maxPendingEvents;
+    this.sender = sender;
+  }
+
+  // Without a cursor the subscriber starts at the current head; with one, the poller
+  // replays everything after it before the subscriber joins the live stream.
+  public SseEmitter subscribe(Long since) {
+    return subscribe(new SseEmitter(emitterTimeoutMillis), since);
+  }
+
+  SseEmitter subscribe(SseEmitter emitter, Long since) {
+    Subscriber subscriber = new Subscriber(
+        emitter, since != null ? since : customerDao.selectCollectionVersion().seq()
+    );
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  @PreDestroy
+  public void close() {
+    if (sender instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  // Each round serves the subscribers at the lowest cursor, so one client catching up
+  // from an old cursor does not hold back live subscribers for more than a batch.
+  @Scheduled(fixedDelayString = "${customer.changes.poll-interval:PT0.5S}")
+  public void poll() {
+    // Numbered even without subscribers, so the unsequenced backlog stays small
+    customerDao.sequenceChanges();
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    resetExpiredCursors();
+    Set<Subscriber> pending = new HashSet<>(subscribers);
+    while (!pending.isEmpty()) {
+      long from = pending.stream().mapToLong(Subscriber::cursor).min().orElseThrow();
+      List<CustomerChange> changes = customerDao.selectChangesSince(from, BATCH_SIZE);
+      if (changes.isEmpty()) {
+        break;
+      }
+      long last = changes.get(changes.size() - 1).seq();
+      List<Event> events = toEvents(changes);
+      for (Subscriber subscriber : List.copyOf(pending)) {
+        if (subscriber.cursor() >= last) {
+          continue;
+        }
+        pending.remove(subscriber);
+        for (Event event : events) {
+          if (event.seq() > subscriber.cursor() && !subscriber.send(event)) {
+            subscribers.remove(subscriber);
+            break;
+          }
+        }
+      }
+    }
+    heartbeat();
+  }
+
+  @Scheduled(fixedDelayString = "${customer.changes.prune-interval:PT1H}")
+  public void prune() {
+    customerDao.deleteChangesBefore(Instant.now().minus(retention));
+  }
+
+  // A cursor older than the retained log cannot be replayed; the client has to refetch
+  private void resetExpiredCursors() {
+    Optional<Long> oldest = customerDao.selectOldestChangeSeq();
+    long head = customerDao.selectCollectionVersion().seq();
+    for (Subscriber subscriber : subscribers) {
+      boolean expired = subscriber.cursor() > head
+          || oldest.map(seq -> subscriber.cursor() < seq - 1).orElse(subscriber.cursor() < head);
+      if (expired && !subscriber.reset(head)) {
+        subscribers.remove(subscriber);
+      }
+    }
+  }
+
+  private List<Event> toEvents(List<CustomerChange> changes) {
+    Set<Integer> ids = changes.stream()
+        .filter(change -> change.type() != CustomerChangeType.DELETED)
+        .map(CustomerChange::customerId)
+        .collect(Collectors.toSet());
+    Map<Integer, CustomerDTO> customers = ids.isEmpty()
+        ? Map.of()
+        : customerDao.selectCustomersByIds(ids)
+            .stream()
+            .map(customerDTOMapper)
+            .collect(Collectors.toMap(CustomerDTO::id, Function.identity()));
+    return changes.stream()
+        .map(change -> new Event(change.seq(), encode(new CustomerChangeEvent(
+            change.seq(),
+            change.type(),
+            change.customerId(),
+            change.changedAt(),
+            change.type() == CustomerChangeType.DELETED
+                ? null
+                : customers.get(change.customerId())
+        ))))
+        .toList();
+  }
+
+  private void heartbeat() {
+    Instant now = Instant.now();
+    if (now.isBefore(lastHeartbeat.plus(heartbeatInterval))) {
+      return;
+    }
+    lastHeartbeat = now;
+    for (Subscriber subscriber : subscribers) {
+      if (!subscriber.heartbeat()) {
+        subscribers.remove(subscriber);
+      }
+    }
+  }
+
+  private String encode(CustomerChangeEvent event) {
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize customer change", e);
+    }
+  }
+
+  // The customer is the state at delivery time, which may already include later changes;
+  // deltas are upserts keyed by id, so applying them in seq order still converges.
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record CustomerChangeEvent(
+      long seq,
+      CustomerChangeType type,
+      Integer customerId,
+      Instant changedAt,
+      CustomerDTO customer
+  ) {
+
+  }
+
+  private record Event(long seq, String json) {
+
+  }
+
+  // The cursor advances when an event is queued, so the poller never queues it twice; the
+  // client's Last-Event-ID still only reflects what was actually written.
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile long cursor;
+    private volatile boolean closed;
+
+    Subscriber(SseEmitter emitter, long cursor) {
+      this.emitter = emitter;
+      this.cursor = cursor;
+    }
+
+    long cursor() {
+      return cursor;
+    }
+
+    boolean send(Event event) {
+      return send(SseEmitter.event()
+          .id(String.valueOf(event.seq()))
+          .name(CHANGE_EVENT)
+          .data(event.json()), event.seq());
+    }
+
+    boolean reset(long head) {
+      return send(SseEmitter.event()
+          .id(String.valueOf(head))
+          .name(RESET_EVENT)
+          .data(String.valueOf(head)), head);
+    }
+
+    // Only needed when nothing else is on its way
+    boolean heartbeat() {
+      return closed || queued.get() > 0 || send(SseEmitter.event().comment("heartbeat"), cursor);
+    }
+
+    private boolean send(SseEmitter.SseEventBuilder event, long nextCursor) {
+      if (closed) {
+        return false;
+      }
+      if (queued.incrementAndGet() > maxPendingEvents) {
+        // Completing takes the emitter's lock, which a blocked write may be holding
+        close();
+        sender.execute(emitter::complete);
+        return false;
+      }
+      outbox.add(event);
+      cursor = nextCursor;
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+      return true;
+    }
+
+    private void drain() {
+      do {
+        SseEmitter.SseEventBuilder event;
+        while (!closed && (event = outbox.poll()) != null) {
+          queued.decrementAndGet();
+          try {
+            emitter.send(event);
+          } catch (IOException | IllegalStateException e) {
+            close();
+            emitter.completeWithError(e);
+          }
+        }
+        draining.set(false);
+      } while (!closed && !outbox.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void close() {
+      closed = true;
+      outbox.clear();
+      subscribers.remove(this);
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package com.amigoscode.customer;
+
+public enum CustomerChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
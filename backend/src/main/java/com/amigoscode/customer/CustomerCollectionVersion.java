@@ -0,0 +1,10 @@
+package com.amigoscode.customer;
+
+/**
+ * Version of the customer collection: the newest sequenced change and the number of committed
+ * changes still waiting for a seq. Seqs are handed out in one transaction at a time and waiting
+ * changes only accumulate until the next one, so every commit changes the pair.
+ */
+public record CustomerCollectionVersion(long seq, long pending) {
+
+}
@@ -1,8 +1,19 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.Exception.PreconditionFailedException;
+import com.amigoscode.Exception.RequestValidationException;
+import com.amigoscode.customer.CustomerResponseCache.CachedResponse;
 import com.amigoscode.jwt.JWTUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,29 +21,153 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("api/v1/customers")
 public class CustomerController {
 
+  static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+  private static final Pattern CUSTOMER_ETAG =
+      Pattern.compile("\"(\\d+)-(\\d{1,18})(-[a-z.]+)?(\\+[a-z-]+)?\"");
+
   private final CustomerService customerService;
+  private final CustomerResponseCache customerResponseCache;
+  private final CustomerChangeFeed customerChangeFeed;
   private final JWTUtil jwtUtil;
 
-  public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+  public CustomerController(CustomerService customerService,
+      CustomerResponseCache customerResponseCache, CustomerChangeFeed customerChangeFeed,
+      JWTUtil jwtUtil) {
     this.customerService = customerService;
+    this.customerResponseCache = customerResponseCache;
+    this.customerChangeFeed = customerChangeFeed;
     this.jwtUtil = jwtUtil;
   }
 
   @GetMapping
-  public List<CustomerDTO> getCustomers() {
-    return customerService.getAllCustomers();
+  public ResponseEntity<List<CustomerDTO>> getCustomers(
+      @RequestParam(name = "gender", required = false) Gender gender,
+      @RequestParam(name = "minAge", required = false) Integer minAge,
+      @RequestParam(name = "maxAge", required = false) Integer maxAge,
+      @RequestParam(name = "name", required = false) String namePrefix,
+      @RequestParam(name = "email", required = false) String emailPrefix,
+      @RequestParam(name = "sort", defaultValue = "id") String sort,
+      @RequestParam(name = "direction", defaultValue = "ASC") String direction,
+      @RequestParam(name = "fields", required = false) String fields,
+      ServletWebRequest webRequest) throws IOException {
+    CustomerFilter filter = new CustomerFilter(
+        gender,
+        minAge,
+        maxAge,
+        namePrefix,
+        emailPrefix,
+        CustomerSortKey.fromParameter(sort),
+        Sort.Direction.fromOptionalString(direction)
+            .orElseThrow(() -> new RequestValidationException(
+                "direction must be one of ASC, DESC"
+            ))
+    );
+    Set<CustomerField> customerFields = CustomerField.parse(fields);
+    MediaType mediaType = negotiatedMediaType(webRequest);
+    String eTag = representationETag(
+        collectionETag(customerService.getCollectionVersion()), mediaType
+    );
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    if (!MediaType.APPLICATION_JSON.equals(mediaType)) {
+      List<CustomerDTO> customers = customerService.getCustomers(filter, customerFields);
+      return ResponseEntity.ok()
+          .eTag(eTag)
+          .varyBy(HttpHeaders.ACCEPT)
+          .header(TOTAL_COUNT_HEADER, String.valueOf(customers.size()))
+          .body(customers);
+    }
+    CachedResponse customers = customerResponseCache.customerList(
+        filter,
+        customerFields,
+        eTag,
+        () -> customerService.getCustomers(filter, customerFields)
+    );
+    HttpServletResponse response = webRequest.getResponse();
+    response.setHeader(TOTAL_COUNT_HEADER, String.valueOf(customers.count()));
+    customerResponseCache.write(customers, webRequest.getRequest(), response);
+    return null;
+  }
+
+  @GetMapping(params = "ids")
+  public List<CustomerLookupResult> getCustomersByIds(
+      @RequestParam("ids") List<Integer> ids,
+      @RequestParam(name = "fields", required = false) String fields) {
+    return customerService.getCustomersByIds(ids, CustomerField.parse(fields));
+  }
+
+  @GetMapping("search")
+  public List<CustomerDTO> searchCustomers(
+      @RequestParam("q") String query,
+      @RequestParam(name = "page", defaultValue = "0") int page,
+      @RequestParam(name = "size", defaultValue = "20") int size) {
+    return customerService.searchCustomers(query, page, size);
+  }
+
+  @GetMapping("suggest")
+  public List<CustomerDTO> suggestCustomers(
+      @RequestParam("prefix") String prefix,
+      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+    return customerService.suggestCustomers(prefix, limit);
+  }
+
+  @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(
+      @RequestParam(name = "since", required = false) Long since,
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+    // A reconnect repeats the original URL, so the resume header wins over ?since=
+    Long cursor = lastEventId != null ? lastEventId : since;
+    if (cursor != null && cursor < 0) {
+      throw new RequestValidationException("since must not be negative");
+    }
+    return customerChangeFeed.subscribe(cursor);
+  }
+
+  @GetMapping("statistics")
+  public CustomerStatistics getCustomerStatistics() {
+    return customerService.getCustomerStatistics();
   }
 
   @GetMapping("{customerId}")
-  public CustomerDTO getCustomer(@PathVariable("customerId") Integer customerId) {
-    return customerService.getCustomer(customerId);
+  public ResponseEntity<CustomerDTO> getCustomer(
+      @PathVariable("customerId") Integer customerId,
+      @RequestParam(name = "fields", required = false) String fields,
+      ServletWebRequest webRequest) throws IOException {
+    Set<CustomerField> customerFields = CustomerField.parse(fields);
+    MediaType mediaType = negotiatedMediaType(webRequest);
+    String eTag = representationETag(
+        customerETag(customerId, customerService.getCustomerVersion(customerId), customerFields),
+        mediaType
+    );
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+    if (!MediaType.APPLICATION_JSON.equals(mediaType)) {
+      return ResponseEntity.ok()
+          .eTag(eTag)
+          .varyBy(HttpHeaders.ACCEPT)
+          .body(customerService.getCustomer(customerId, customerFields));
+    }
+    CachedResponse customer = customerResponseCache.customer(
+        customerId,
+        customerFields,
+        eTag,
+        () -> customerService.getCustomer(customerId, customerFields)
+    );
+    customerResponseCache.write(customer, webRequest.getRequest(), webRequest.getResponse());
+    return null;
   }
 
   @PostMapping
@@ -48,9 +183,66 @@ public class CustomerController {
   }
 
   @PutMapping("{customerId}")
-  public void updateCustomer(
+  public ResponseEntity<Void> updateCustomer(
       @PathVariable("customerId") Integer customerId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
       @RequestBody CustomerUpdateRequest updateRequest) {
-    customerService.updateCustomer(customerId, updateRequest);
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      customerService.updateCustomer(customerId, updateRequest);
+      return ResponseEntity.ok().build();
+    }
+    long version = customerService.updateCustomer(
+        customerId, updateRequest, expectedVersion(customerId, ifMatch)
+    );
+    return ResponseEntity.ok()
+        .eTag(customerETag(customerId, version, CustomerField.ALL))
+        .build();
+  }
+
+  // The version is read before the body, so a concurrent write can only make the
+  // body newer than its ETag; the next conditional request then misses and refetches.
+  static String customerETag(Integer id, long version, Set<CustomerField> fields) {
+    if (fields.containsAll(CustomerField.ALL)) {
+      return "\"%d-%d\"".formatted(id, version);
+    }
+    return "\"%d-%d-%s\"".formatted(id, version, fields.stream()
+        .map(CustomerField::property)
+        .collect(Collectors.joining(".")));
+  }
+
+  // Accepts any strong tag issued for this id, sparse or not and in any representation,
+  // since they all carry the row version. Weak or foreign tags can never match.
+  static long expectedVersion(Integer id, String ifMatch) {
+    Matcher matcher = CUSTOMER_ETAG.matcher(ifMatch.trim());
+    if (!matcher.matches() || !matcher.group(1).equals(String.valueOf(id))) {
+      throw new PreconditionFailedException(
+          "If-Match %s does not match customer with id [%s]".formatted(ifMatch, id)
+      );
+    }
+    return Long.parseLong(matcher.group(2));
+  }
+
+  // Set before the precondition check so 304 responses carry it too
+  private static MediaType negotiatedMediaType(ServletWebRequest webRequest) {
+    webRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    return CustomerResponseCache.negotiatedMediaType(webRequest.getRequest());
+  }
+
+  // Strong validators must differ per encoding; JSON keeps the bare tag that PUT
+  // responses return, the binary encodings get their subtype appended.
+  static String representationETag(String eTag, MediaType mediaType) {
+    if (MediaType.APPLICATION_JSON.equals(mediaType)) {
+      return eTag;
+    }
+    String subtype = mediaType.getSubtype();
+    return "%s+%s\"".formatted(
+        eTag.substring(0, eTag.length() - 1),
+        subtype.startsWith("x-") ? subtype.substring(2) : subtype
+    );
+  }
+
+  // ETags are scoped to the URL, so the query string needs no part in the tag
+  static String collectionETag(CustomerCollectionVersion version) {
+    return "\"c%d-%d\"".formatted(version.seq(), version.pending());
   }
 }
@@ -1,7 +1,9 @@
 package com.amigoscode.customer;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record CustomerDTO(
     Integer id,
     String name,
@@ -1,8 +1,10 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.metrics.ServerTiming;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -11,17 +13,29 @@ public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
 
   @Override
   public CustomerDTO apply(Customer customer) {
+    return apply(customer, CustomerField.ALL);
+  }
+
+  public CustomerDTO apply(Customer customer, Set<CustomerField> fields) {
+    try (ServerTiming.Phase ignored = ServerTiming.phase("mapper")) {
+      return map(customer, fields);
+    }
+  }
+
+  private static CustomerDTO map(Customer customer, Set<CustomerField> fields) {
     return new CustomerDTO(
-        customer.getId(),
-        customer.getName(),
-        customer.getEmail(),
-        customer.getGender(),
-        customer.getAge(),
-        customer.getAuthorities()
+        fields.contains(CustomerField.ID) ? customer.getId() : null,
+        fields.contains(CustomerField.NAME) ? customer.getName() : null,
+        fields.contains(CustomerField.EMAIL) ? customer.getEmail() : null,
+        fields.contains(CustomerField.GENDER) ? customer.getGender() : null,
+        fields.contains(CustomerField.AGE) ? customer.getAge() : null,
+        fields.contains(CustomerField.ROLES)
+            ? customer.getAuthorities()
             .stream()
             .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.toList()),
-        customer.getUsername()
+            .collect(Collectors.toList())
+            : null,
+        fields.contains(CustomerField.USERNAME) ? customer.getUsername() : null
     );
   }
 }
\ No newline at end of file
@@ -1,16 +1,58 @@
 package com.amigoscode.customer;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface CustomerDao {
 
   List<Customer> selectAllCustomers();
 
+  void streamAllCustomers(Consumer<Customer> consumer);
+
+  List<Customer> selectCustomers(CustomerFilter filter);
+
+  default List<Customer> selectCustomers(CustomerFilter filter, Set<CustomerField> fields) {
+    return selectCustomers(filter);
+  }
+
+  // Only this many matches are ranked, so a common term never sorts a large share of the table
+  int MAX_SEARCH_CANDIDATES = 1_000;
+
+  List<Customer> searchCustomers(String query, int limit, int offset);
+
   Optional<Customer> selectCustomerById(Integer id);
 
+  default Optional<Customer> selectCustomerById(Integer id, Set<CustomerField> fields) {
+    return selectCustomerById(id);
+  }
+
+  List<Customer> selectCustomersByIds(Collection<Integer> ids);
+
+  default List<Customer> selectCustomersByIds(Collection<Integer> ids,
+      Set<CustomerField> fields) {
+    return selectCustomersByIds(ids);
+  }
+
   void insertCustomer(Customer customer);
 
+  // Customers whose email is already taken are skipped and keep a null id. Implementations
+  // that can should insert the whole list with one statement in one transaction.
+  default List<Customer> insertCustomers(List<Customer> customers) {
+    List<Customer> inserted = new ArrayList<>(customers.size());
+    for (Customer customer : customers) {
+      if (!existsPersonWithEmail(customer.getEmail())) {
+        insertCustomer(customer);
+        inserted.add(customer);
+      }
+    }
+    return inserted;
+  }
+
   boolean existsPersonWithEmail(String email);
 
   boolean existsPersonWithId(Integer id);
@@ -19,5 +61,22 @@ public interface CustomerDao {
 
   void updateCustomer(Customer customer);
 
+  Optional<Customer> updateCustomer(Customer update, long expectedVersion);
+
   Optional<Customer> selectUserByEmail(String email);
+
+  CustomerStatistics selectCustomerStatistics();
+
+  Optional<Long> selectCustomerVersion(Integer id);
+
+  CustomerCollectionVersion selectCollectionVersion();
+
+  // Gives committed changes their seqs; returns how many were numbered
+  int sequenceChanges();
+
+  List<CustomerChange> selectChangesSince(long seq, int limit);
+
+  Optional<Long> selectOldestChangeSeq();
+
+  int deleteChangesBefore(Instant cutoff);
 }
@@ -0,0 +1,109 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.metrics.DataAccessLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Exposes the {@link CustomerDao} the application reads through as {@code customerDao}:
+ * the jdbc, jpa or list implementation chosen by {@code customer.dao.delegate}, optionally
+ * behind {@link BatchingCustomerDao} ({@code customer.dao.insert-batching.enabled}) and
+ * wrapped in {@link CachingCustomerDao} unless {@code customer.dao.cache.enabled} is false.
+ * The implementation itself is timed by {@link InstrumentedCustomerDao} unless
+ * {@code customer.dao.metrics.enabled} is false.
+ */
+@Configuration
+public class CustomerDaoConfig {
+
+  private final BeanFactory beanFactory;
+  private final MeterRegistry meterRegistry;
+  private final boolean metricsEnabled;
+  private final DataAccessLog dataAccessLog;
+
+  public CustomerDaoConfig(BeanFactory beanFactory, MeterRegistry meterRegistry,
+      Environment environment,
+      @Value("${customer.dao.metrics.enabled:true}") boolean metricsEnabled,
+      @Value("${customer.dao.logging.slow-threshold:PT0.25S}") Duration slowThreshold,
+      @Value("${customer.dao.logging.sample-rate:0.0}") double sampleRate) {
+    this.beanFactory = beanFactory;
+    this.meterRegistry = meterRegistry;
+    this.metricsEnabled = metricsEnabled;
+    this.dataAccessLog = new DataAccessLog(
+        slowThreshold.toNanos(),
+        sampleRate,
+        Binder.get(environment)
+            .bind("customer.dao.logging.sample-rates", Bindable.mapOf(String.class, Double.class))
+            .orElse(Map.of())
+    );
+  }
+
+  @Bean("customerDao")
+  @ConditionalOnProperty(
+      name = "customer.dao.cache.enabled", havingValue = "true", matchIfMissing = true
+  )
+  public CachingCustomerDao cachingCustomerDao(
+      ObjectProvider<BatchingCustomerDao> batchingCustomerDao,
+      @Value("${customer.dao.delegate:jdbc}") String delegate,
+      @Value("${customer.dao.cache.maximum-size:10000}") long maximumSize,
+      @Value("${customer.dao.cache.expire-after-write:PT5M}") Duration expireAfterWrite) {
+    CachingCustomerDao customerDao = new CachingCustomerDao(
+        target(batchingCustomerDao, delegate), maximumSize, expireAfterWrite
+    );
+    CaffeineCacheMetrics.monitor(
+        meterRegistry, customerDao.customersById(), "customer.by-id", "delegate", delegate
+    );
+    CaffeineCacheMetrics.monitor(
+        meterRegistry, customerDao.customerIdsByEmail(), "customer.by-email",
+        "delegate", delegate
+    );
+    return customerDao;
+  }
+
+  @Bean("customerDao")
+  @ConditionalOnProperty(name = "customer.dao.cache.enabled", havingValue = "false")
+  public CustomerDao uncachedCustomerDao(ObjectProvider<BatchingCustomerDao> batchingCustomerDao,
+      @Value("${customer.dao.delegate:jdbc}") String delegate) {
+    return target(batchingCustomerDao, delegate);
+  }
+
+  // A bean of its own so the context starts and stops its flusher thread
+  @Bean
+  @ConditionalOnProperty(name = "customer.dao.insert-batching.enabled", havingValue = "true")
+  public BatchingCustomerDao batchingCustomerDao(
+      @Value("${customer.dao.delegate:jdbc}") String delegate,
+      @Value("${customer.dao.insert-batching.max-batch-size:100}") int maxBatchSize,
+      @Value("${customer.dao.insert-batching.max-delay:PT0.005S}") Duration maxDelay,
+      @Value("${customer.dao.insert-batching.queue-capacity:10000}") int queueCapacity) {
+    return new BatchingCustomerDao(
+        implementation(delegate),
+        maxBatchSize,
+        maxDelay,
+        queueCapacity,
+        meterRegistry
+    );
+  }
+
+  private CustomerDao target(ObjectProvider<BatchingCustomerDao> batchingCustomerDao,
+      String delegate) {
+    BatchingCustomerDao batching = batchingCustomerDao.getIfAvailable();
+    return batching != null ? batching : implementation(delegate);
+  }
+
+  private CustomerDao implementation(String delegate) {
+    CustomerDao customerDao = beanFactory.getBean(delegate, CustomerDao.class);
+    return metricsEnabled
+        ? new InstrumentedCustomerDao(customerDao, delegate, meterRegistry, dataAccessLog)
+        : customerDao;
+  }
+}
@@ -0,0 +1,71 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.Exception.RequestValidationException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum CustomerField {
+  ID("id", "id"),
+  NAME("name", "name"),
+  EMAIL("email", "email"),
+  GENDER("gender", "gender"),
+  AGE("age", "age"),
+  ROLES("roles", null),
+  USERNAME("username", "email");
+
+  public static final Set<CustomerField> ALL =
+      Collections.unmodifiableSet(EnumSet.allOf(CustomerField.class));
+
+  private final String property;
+  private final String column;
+
+  CustomerField(String property, String column) {
+    this.property = property;
+    this.column = column;
+  }
+
+  public String property() {
+    return property;
+  }
+
+  public Optional<String> column() {
+    return Optional.ofNullable(column);
+  }
+
+  public static Set<CustomerField> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return ALL;
+    }
+    Set<CustomerField> parsed = EnumSet.noneOf(CustomerField.class);
+    for (String property : fields.split(",")) {
+      parsed.add(Arrays.stream(values())
+          .filter(field -> field.property.equalsIgnoreCase(property.trim()))
+          .findFirst()
+          .orElseThrow(() -> new RequestValidationException(
+              "fields must be a comma separated list of %s".formatted(
+                  Arrays.stream(values())
+                      .map(CustomerField::property)
+                      .collect(Collectors.joining(", "))
+              )
+          )));
+    }
+    return Collections.unmodifiableSet(parsed);
+  }
+
+  /**
+   * Columns needed to render the given fields. {@code id} and {@code version} are always selected
+   * so rows can still be matched to the request and validated.
+   */
+  public static Set<String> columns(Set<CustomerField> fields) {
+    Set<String> columns = new LinkedHashSet<>();
+    columns.add(ID.column);
+    columns.add("version");
+    fields.forEach(field -> field.column().ifPresent(columns::add));
+    return columns;
+  }
+}
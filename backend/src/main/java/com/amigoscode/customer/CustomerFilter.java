@@ -0,0 +1,49 @@
+package com.amigoscode.customer;
+
+import java.util.Comparator;
+import org.springframework.data.domain.Sort;
+
+public record CustomerFilter(
+    Gender gender,
+    Integer minAge,
+    Integer maxAge,
+    String namePrefix,
+    String emailPrefix,
+    CustomerSortKey sortKey,
+    Sort.Direction direction
+) {
+
+  public static final CustomerFilter NONE = new CustomerFilter(
+      null, null, null, null, null, null, null
+  );
+
+  public CustomerFilter {
+    if (namePrefix != null && namePrefix.isBlank()) {
+      namePrefix = null;
+    }
+    if (emailPrefix != null && emailPrefix.isBlank()) {
+      emailPrefix = null;
+    }
+    if (sortKey == null) {
+      sortKey = CustomerSortKey.ID;
+    }
+    if (direction == null) {
+      direction = Sort.Direction.ASC;
+    }
+  }
+
+  public Sort sort() {
+    Sort sort = Sort.by(direction, sortKey.column());
+    return sortKey == CustomerSortKey.ID
+        ? sort
+        : sort.and(Sort.by(direction, CustomerSortKey.ID.column()));
+  }
+
+  public Comparator<Customer> comparator() {
+    Comparator<Customer> comparator = sortKey.comparator();
+    if (sortKey != CustomerSortKey.ID) {
+      comparator = comparator.thenComparing(CustomerSortKey.ID.comparator());
+    }
+    return direction.isDescending() ? comparator.reversed() : comparator;
+  }
+}
@@ -0,0 +1,28 @@
+package com.amigoscode.customer;
+
+/**
+ * Cache invalidation message published with {@code pg_notify} when a customer write
+ * commits. The payload is {@code <id>,<email>}; the id never contains a comma, so the
+ * email is everything after the first one.
+ */
+public record CustomerInvalidation(
+    Integer customerId,
+    String email
+) {
+
+  public String toPayload() {
+    return customerId + "," + (email == null ? "" : email);
+  }
+
+  public static CustomerInvalidation fromPayload(String payload) {
+    int comma = payload.indexOf(',');
+    if (comma < 0) {
+      return new CustomerInvalidation(Integer.valueOf(payload), null);
+    }
+    String email = payload.substring(comma + 1);
+    return new CustomerInvalidation(
+        Integer.valueOf(payload.substring(0, comma)),
+        email.isEmpty() ? null : email
+    );
+  }
+}
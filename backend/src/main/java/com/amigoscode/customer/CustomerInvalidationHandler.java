@@ -0,0 +1,15 @@
+package com.amigoscode.customer;
+
+import java.util.Collection;
+
+/**
+ * Implemented by node-local caches of customers or principals. Called from the invalidation
+ * listener thread with de-duplicated batches; {@link #invalidateAll()} follows a reconnect,
+ * when notifications may have been missed.
+ */
+public interface CustomerInvalidationHandler {
+
+  void invalidate(Collection<CustomerInvalidation> invalidations);
+
+  void invalidateAll();
+}
@@ -0,0 +1,200 @@
+package com.amigoscode.customer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one dedicated connection outside the pool that LISTENs for customer invalidations
+ * published by any node, and evicts the matching entries from this node's caches.
+ */
+@Component
+public class CustomerInvalidationListener implements SmartLifecycle {
+
+  static final String CHANNEL = "customer_invalidation";
+  static final int MAX_BATCH = 1_000;
+  private static final int POLL_TIMEOUT_MILLIS = 1_000;
+
+  private static final Logger log = LoggerFactory.getLogger(CustomerInvalidationListener.class);
+
+  private final String url;
+  private final String username;
+  private final String password;
+  private final List<CustomerInvalidationHandler> handlers;
+  private final boolean enabled;
+  private final Duration batchWindow;
+  private final Duration reconnectDelay;
+  private final Duration keepAliveInterval;
+  private volatile boolean running;
+  private volatile Connection connection;
+  private Thread thread;
+
+  public CustomerInvalidationListener(
+      @Value("${spring.datasource.url}") String url,
+      @Value("${spring.datasource.username}") String username,
+      @Value("${spring.datasource.password}") String password,
+      List<CustomerInvalidationHandler> handlers,
+      @Value("${customer.invalidation.enabled:true}") boolean enabled,
+      @Value("${customer.invalidation.batch-window:PT0.05S}") Duration batchWindow,
+      @Value("${customer.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay,
+      @Value("${customer.invalidation.keep-alive-interval:PT30S}") Duration keepAliveInterval) {
+    this.url = url;
+    this.username = username;
+    this.password = password;
+    this.handlers = handlers;
+    this.enabled = enabled;
+    this.batchWindow = batchWindow;
+    this.reconnectDelay = reconnectDelay;
+    this.keepAliveInterval = keepAliveInterval;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!enabled || running) {
+      return;
+    }
+    running = true;
+    thread = new Thread(this::listen, "customer-invalidation-listener");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    if (thread != null) {
+      thread.interrupt();
+      closeQuietly(connection);
+      thread = null;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    boolean reconnect = false;
+    while (running) {
+      try (Connection listening = DriverManager.getConnection(url, username, password)) {
+        connection = listening;
+        try (Statement statement = listening.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        if (reconnect) {
+          log.info("Customer invalidation listener reconnected, flushing local caches");
+          dispatchAll();
+        }
+        reconnect = true;
+        receive(listening);
+      } catch (SQLException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("Customer invalidation listener lost its connection, retrying in {}",
+            reconnectDelay, e);
+        if (!sleep(reconnectDelay)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void receive(Connection listening) throws SQLException {
+    PGConnection pgConnection = listening.unwrap(PGConnection.class);
+    long idleSince = System.nanoTime();
+    while (running) {
+      PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+      if (notifications == null || notifications.length == 0) {
+        if (System.nanoTime() - idleSince > keepAliveInterval.toNanos()) {
+          // getNotifications cannot tell a quiet channel from a silently dropped socket
+          try (Statement statement = listening.createStatement()) {
+            statement.execute("SELECT 1");
+          }
+          idleSince = System.nanoTime();
+        }
+        continue;
+      }
+      // Absorb the rest of a burst so handlers see one batch instead of one call per write
+      Set<CustomerInvalidation> batch = new LinkedHashSet<>();
+      add(batch, notifications);
+      long deadline = System.nanoTime() + batchWindow.toNanos();
+      long remaining;
+      while (batch.size() < MAX_BATCH && (remaining = deadline - System.nanoTime()) > 0) {
+        add(batch, pgConnection.getNotifications(
+            (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining))
+        ));
+      }
+      dispatch(batch);
+      idleSince = System.nanoTime();
+    }
+  }
+
+  private static void add(Set<CustomerInvalidation> batch, PGNotification[] notifications) {
+    if (notifications == null) {
+      return;
+    }
+    for (PGNotification notification : notifications) {
+      try {
+        batch.add(CustomerInvalidation.fromPayload(notification.getParameter()));
+      } catch (NumberFormatException e) {
+        log.warn("Ignoring malformed customer invalidation [{}]", notification.getParameter());
+      }
+    }
+  }
+
+  private void dispatch(Set<CustomerInvalidation> batch) {
+    for (CustomerInvalidationHandler handler : handlers) {
+      try {
+        handler.invalidate(batch);
+      } catch (RuntimeException e) {
+        log.warn("{} failed to apply customer invalidations", handler.getClass().getName(), e);
+      }
+    }
+  }
+
+  private void dispatchAll() {
+    for (CustomerInvalidationHandler handler : handlers) {
+      try {
+        handler.invalidateAll();
+      } catch (RuntimeException e) {
+        log.warn("{} failed to flush", handler.getClass().getName(), e);
+      }
+    }
+  }
+
+  private boolean sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+      return running;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException ignored) {
+      // the listener thread is exiting anyway
+    }
+  }
+}
@@ -1,26 +1,49 @@
 package com.amigoscode.customer;
 
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDao {
 
+  private static final Logger log =
+      LoggerFactory.getLogger(CustomerJDBCDataAccessService.class);
+
+  private static final int STREAM_FETCH_SIZE = 1_000;
+
   private final JdbcTemplate jdbcTemplate;
   private final CustomerRowMapper customerRowMapper;
+  private final CustomerSummaryDataAccessService customerSummaryDataAccessService;
 
   public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate,
-      CustomerRowMapper customerRowMapper) {
+      CustomerRowMapper customerRowMapper,
+      CustomerSummaryDataAccessService customerSummaryDataAccessService) {
     this.jdbcTemplate = jdbcTemplate;
     this.customerRowMapper = customerRowMapper;
+    this.customerSummaryDataAccessService = customerSummaryDataAccessService;
   }
 
   @Override
   public List<Customer> selectAllCustomers() {
     var sql = """
-        SELECT id, name, email, password, age, gender
+        SELECT id, name, email, password, age, gender, version
         FROM customer
         ORDER BY id
         """;
@@ -28,33 +51,231 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     return query;
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAllCustomers(Consumer<Customer> consumer) {
+    var sql = """
+        SELECT id, name, email, password, age, gender, version
+        FROM customer
+        """;
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(sql);
+          statement.setFetchSize(STREAM_FETCH_SIZE);
+          return statement;
+        },
+        (RowCallbackHandler) rs -> consumer.accept(customerRowMapper.mapRow(rs, rs.getRow()))
+    );
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter) {
+    return selectCustomers(filter, CustomerField.ALL);
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter, Set<CustomerField> fields) {
+    List<String> conditions = new ArrayList<>();
+    List<Object> parameters = new ArrayList<>();
+    if (filter.gender() != null) {
+      conditions.add("gender = ?");
+      parameters.add(filter.gender().name());
+    }
+    if (filter.minAge() != null) {
+      conditions.add("age >= ?");
+      parameters.add(filter.minAge());
+    }
+    if (filter.maxAge() != null) {
+      conditions.add("age <= ?");
+      parameters.add(filter.maxAge());
+    }
+    if (filter.namePrefix() != null) {
+      conditions.add("lower(name) LIKE ? ESCAPE '\\'");
+      parameters.add(CustomerSpecifications.likePrefix(filter.namePrefix()));
+    }
+    if (filter.emailPrefix() != null) {
+      conditions.add("lower(email) LIKE ? ESCAPE '\\'");
+      parameters.add(CustomerSpecifications.likePrefix(filter.emailPrefix()));
+    }
+
+    // column names come from CustomerSortKey, never from the request
+    String direction = filter.direction().name();
+    String orderBy = filter.sortKey() == CustomerSortKey.ID
+        ? "id " + direction
+        : "%s %s, id %s".formatted(filter.sortKey().column(), direction, direction);
+    var sql = """
+        SELECT %s
+        FROM customer
+        %s
+        ORDER BY %s
+        """.formatted(
+        selectList(fields),
+        conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions),
+        orderBy
+    );
+    return jdbcTemplate.query(
+        sql,
+        customerRowMapper.forFields(fields),
+        parameters.toArray()
+    );
+  }
+
+  @Override
+  public List<Customer> searchCustomers(String query, int limit, int offset) {
+    var sql = """
+        SELECT id, name, email, password, age, gender, version
+        FROM (
+            SELECT id, name, email, password, age, gender, version
+            FROM customer
+            WHERE name % ?
+               OR email % ?
+               OR name ILIKE ? ESCAPE '\\'
+               OR email ILIKE ? ESCAPE '\\'
+            LIMIT ?
+        ) AS candidates
+        ORDER BY greatest(similarity(name, ?), similarity(email, ?)) DESC, id
+        LIMIT ? OFFSET ?
+        """;
+    String pattern = CustomerSpecifications.likeContains(query);
+    return jdbcTemplate.query(
+        sql,
+        customerRowMapper,
+        query, query, pattern, pattern, MAX_SEARCH_CANDIDATES, query, query, limit, offset
+    );
+  }
+
   @Override
   public Optional<Customer> selectCustomerById(Integer id) {
+    return selectCustomerById(id, CustomerField.ALL);
+  }
+
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id, Set<CustomerField> fields) {
     var sql = """
-        SELECT id, name, email, password, age, gender
+        SELECT %s
         FROM customer
         WHERE id = ?
-        """;
-    return jdbcTemplate.query(sql, customerRowMapper, id)
+        """.formatted(selectList(fields));
+    return jdbcTemplate.query(sql, customerRowMapper.forFields(fields), id)
         .stream()
         .findFirst();
   }
 
   @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+    return selectCustomersByIds(ids, CustomerField.ALL);
+  }
+
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids,
+      Set<CustomerField> fields) {
+    var sql = """
+        SELECT %s
+        FROM customer
+        WHERE id = ANY(?)
+        """.formatted(selectList(fields));
+    return jdbcTemplate.query(
+        sql,
+        statement -> statement.setArray(
+            1, statement.getConnection().createArrayOf("integer", ids.toArray())
+        ),
+        customerRowMapper.forFields(fields)
+    );
+  }
+
+  @Override
+  @Transactional
   public void insertCustomer(Customer customer) {
     var sql = """
         INSERT INTO customer (name, email, password, age, gender)
         VALUES (?, ?, ?, ?, ?)
+        RETURNING id
         """;
-    int result = jdbcTemplate.update(
+    Integer id = jdbcTemplate.queryForObject(
         sql,
+        Integer.class,
         customer.getName(),
         customer.getEmail(),
         customer.getPassword(),
         customer.getAge(),
         customer.getGender().name()
     );
-    System.out.println("jdbcTemplate.update = " + result);
+    log.debug("Inserted customer {}", id);
+    customer.setId(id);
+    customer.setVersion(0L);
+    customerSummaryDataAccessService.adjustStatistics(
+        customer.getGender(), customer.getAge(), 1
+    );
+    customerSummaryDataAccessService.recordChange(id, CustomerChangeType.CREATED);
+    customerSummaryDataAccessService.notifyInvalidation(id, customer.getEmail());
+  }
+
+  // Rows go in email order so concurrent batches from other nodes take the unique index
+  // locks in the same order and cannot deadlock each other.
+  @Override
+  @Transactional
+  public List<Customer> insertCustomers(List<Customer> customers) {
+    if (customers.isEmpty()) {
+      return List.of();
+    }
+    List<Customer> ordered = customers.stream()
+        .sorted(Comparator.comparing(Customer::getEmail))
+        .toList();
+    String rows = String.join(", ", Collections.nCopies(ordered.size(), "(?, ?, ?, ?, ?)"));
+    var sql = """
+        INSERT INTO customer (name, email, password, age, gender)
+        VALUES %s
+        ON CONFLICT (email) DO NOTHING
+        RETURNING id, email
+        """.formatted(rows);
+    Map<String, Integer> ids = new HashMap<>();
+    jdbcTemplate.query(
+        sql,
+        statement -> {
+          int index = 1;
+          for (Customer customer : ordered) {
+            statement.setString(index++, customer.getName());
+            statement.setString(index++, customer.getEmail());
+            statement.setString(index++, customer.getPassword());
+            statement.setInt(index++, customer.getAge());
+            statement.setString(index++, customer.getGender().name());
+          }
+        },
+        (RowCallbackHandler) rs -> ids.put(rs.getString("email"), rs.getInt("id"))
+    );
+    // Within the batch the first row for an email wins; later duplicates stay without an id
+    List<Customer> inserted = new ArrayList<>(ids.size());
+    for (Customer customer : ordered) {
+      Integer id = ids.remove(customer.getEmail());
+      if (id != null) {
+        customer.setId(id);
+        customer.setVersion(0L);
+        inserted.add(customer);
+      }
+    }
+    if (inserted.isEmpty()) {
+      return inserted;
+    }
+    record Bucket(Gender gender, int age) {
+
+    }
+    inserted.stream()
+        .collect(Collectors.groupingBy(
+            customer -> new Bucket(customer.getGender(), customer.getAge()),
+            Collectors.counting()
+        ))
+        .forEach((bucket, count) -> customerSummaryDataAccessService.adjustStatistics(
+            bucket.gender(), bucket.age(), count
+        ));
+    customerSummaryDataAccessService.recordChanges(
+        inserted.stream().map(Customer::getId).toList(), CustomerChangeType.CREATED
+    );
+    customerSummaryDataAccessService.notifyInvalidations(
+        inserted.stream()
+            .map(customer -> new CustomerInvalidation(customer.getId(), customer.getEmail()))
+            .toList()
+    );
+    return inserted;
   }
 
   @Override
@@ -80,92 +301,147 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
   }
 
   @Override
+  @Transactional
   public void deleteCustomerById(Integer id) {
     var sql = """
         DELETE FROM customer
         WHERE id = ?
+        RETURNING gender, age, email
         """;
-    int result = jdbcTemplate.update(sql, id);
-    System.out.println("deleteCustomerById result = " + result);
+    record DeletedRow(Gender gender, int age, String email) {
+
+    }
+    List<DeletedRow> deleted = jdbcTemplate.query(
+        sql,
+        (rs, rowNum) -> new DeletedRow(
+            Gender.valueOf(rs.getString("gender")), rs.getInt("age"), rs.getString("email")
+        ),
+        id
+    );
+    log.debug("Deleted {} customer(s) with id {}", deleted.size(), id);
+    deleted.forEach(row -> {
+      customerSummaryDataAccessService.adjustStatistics(row.gender(), row.age(), -1);
+      customerSummaryDataAccessService.recordChange(id, CustomerChangeType.DELETED);
+      customerSummaryDataAccessService.notifyInvalidation(id, row.email());
+    });
   }
 
   @Override
+  @Transactional
   public void updateCustomer(Customer update) {
+    update(update, null);
+  }
+
+  @Override
+  @Transactional
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    return update(update, expectedVersion);
+  }
+
+  private Optional<Customer> update(Customer update, Long expectedVersion) {
+    List<String> assignments = new ArrayList<>();
+    List<Object> parameters = new ArrayList<>();
     if (update.getName() != null) {
-      var sql = """
-          UPDATE customer
-          SET name = ?
-          WHERE id = ?
-          """;
-      int result = jdbcTemplate.update(
-          sql,
-          update.getName(),
-          update.getId()
-      );
-      System.out.println("update customer name result = " + result);
+      assignments.add("name = ?");
+      parameters.add(update.getName());
     }
-
     if (update.getAge() != null) {
-      var sql = """
-          UPDATE customer
-          SET age = ?
-          WHERE id = ?
-          """;
-      int result = jdbcTemplate.update(
-          sql,
-          update.getAge(),
-          update.getId()
-      );
-      System.out.println("update customer age result = " + result);
+      assignments.add("age = ?");
+      parameters.add(update.getAge());
     }
-
     if (update.getEmail() != null) {
-      var sql = """
-          UPDATE customer
-          SET email = ?
-          WHERE id = ?
-          """;
-      int result = jdbcTemplate.update(
-          sql,
-          update.getEmail(),
-          update.getId()
-      );
-      System.out.println("update customer email result = " + result);
+      assignments.add("email = ?");
+      parameters.add(update.getEmail());
     }
-
     if (update.getPassword() != null) {
-      var sql = """
-          UPDATE customer
-          SET password = ?
-          WHERE id = ?
-          """;
-      int result = jdbcTemplate.update(
-          sql,
-          update.getPassword(),
-          update.getId()
-      );
-      System.out.println("update customer email result = " + result);
+      assignments.add("password = ?");
+      parameters.add(update.getPassword());
     }
-
     if (update.getGender() != null) {
-      var sql = """
-          UPDATE customer
-          SET gender = ?
-          WHERE id = ?
-          """;
-      int result = jdbcTemplate.update(
-          sql,
-          update.getGender().toString(),
-          update.getId()
+      assignments.add("gender = ?");
+      parameters.add(update.getGender().name());
+    }
+    if (assignments.isEmpty()) {
+      return Optional.empty();
+    }
+    assignments.add("version = version + 1");
+    parameters.add(update.getId());
+    if (expectedVersion != null) {
+      parameters.add(expectedVersion);
+    }
+
+    // previous locks the row and exposes its old gender and age, which RETURNING cannot.
+    // With an expected version a stale client matches no row, so no prior read is needed.
+    var sql = """
+        UPDATE customer
+        SET %s
+        FROM (
+            SELECT id, gender, age, email
+            FROM customer
+            WHERE id = ?%s
+            FOR UPDATE
+        ) AS previous
+        WHERE customer.id = previous.id
+        RETURNING previous.gender AS previous_gender,
+                  previous.age AS previous_age,
+                  previous.email AS previous_email,
+                  customer.id,
+                  customer.name,
+                  customer.email,
+                  customer.password,
+                  customer.age,
+                  customer.gender,
+                  customer.version
+        """.formatted(
+        String.join(", ", assignments),
+        expectedVersion == null ? "" : " AND version = ?"
+    );
+    record UpdatedRow(Gender previousGender, int previousAge, String previousEmail,
+                      Customer customer) {
+
+    }
+    List<UpdatedRow> updated = jdbcTemplate.query(
+        sql,
+        (rs, rowNum) -> new UpdatedRow(
+            Gender.valueOf(rs.getString("previous_gender")),
+            rs.getInt("previous_age"),
+            rs.getString("previous_email"),
+            customerRowMapper.mapRow(rs, rowNum)
+        ),
+        parameters.toArray()
+    );
+    log.debug("Updated {} customer(s) with id {}", updated.size(), update.getId());
+    for (UpdatedRow row : updated) {
+      Customer customer = row.customer();
+      if (customer.getGender() != row.previousGender()
+          || customer.getAge() != row.previousAge()) {
+        customerSummaryDataAccessService.adjustStatistics(
+            row.previousGender(), row.previousAge(), -1
+        );
+        customerSummaryDataAccessService.adjustStatistics(
+            customer.getGender(), customer.getAge(), 1
+        );
+      }
+      customerSummaryDataAccessService.recordChange(
+          customer.getId(), CustomerChangeType.UPDATED
+      );
+      customerSummaryDataAccessService.notifyInvalidation(
+          customer.getId(), row.previousEmail()
       );
-      System.out.println("update customer gender result = " + result);
+      if (!customer.getEmail().equals(row.previousEmail())) {
+        customerSummaryDataAccessService.notifyInvalidation(
+            customer.getId(), customer.getEmail()
+        );
+      }
+      update.setVersion(customer.getVersion());
     }
+    return updated.stream().map(UpdatedRow::customer).findFirst();
   }
 
   @Override
   public Optional<Customer> selectUserByEmail(String email) {
     var sql = """
-        SELECT id, name, email, password, age, gender
+        SELECT id, name, email, password, age, gender, version
         FROM customer
         WHERE email = ?
         """;
@@ -173,4 +449,55 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         .stream()
         .findFirst();
   }
+
+  @Override
+  public CustomerStatistics selectCustomerStatistics() {
+    return CustomerStatistics.fromCounts(
+        customerSummaryDataAccessService.selectStatisticsCounts()
+    );
+  }
+
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    var sql = """
+        SELECT version
+        FROM customer
+        WHERE id = ?
+        """;
+    return jdbcTemplate.queryForList(sql, Long.class, id)
+        .stream()
+        .findFirst();
+  }
+
+  @Override
+  public CustomerCollectionVersion selectCollectionVersion() {
+    return customerSummaryDataAccessService.selectCollectionVersion();
+  }
+
+  @Override
+  public int sequenceChanges() {
+    return customerSummaryDataAccessService.sequenceChanges();
+  }
+
+  private static String selectList(Set<CustomerField> fields) {
+    return fields.containsAll(CustomerField.ALL)
+        ? "id, name, email, password, age, gender, version"
+        : String.join(", ", CustomerField.columns(fields));
+  }
+
+  @Override
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    return customerSummaryDataAccessService.selectChangesSince(seq, limit);
+  }
+
+  @Override
+  public Optional<Long> selectOldestChangeSeq() {
+    return customerSummaryDataAccessService.selectOldestChangeSeq();
+  }
+
+  @Override
+  @Transactional
+  public int deleteChangesBefore(Instant cutoff) {
+    return customerSummaryDataAccessService.deleteChangesBefore(cutoff);
+  }
 }
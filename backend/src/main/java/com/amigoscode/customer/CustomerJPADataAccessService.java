@@ -1,16 +1,24 @@
 package com.amigoscode.customer;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDao {
 
   private final CustomerRepository customerRepository;
+  private final CustomerSummaryDataAccessService customerSummaryDataAccessService;
 
-  public CustomerJPADataAccessService(CustomerRepository customerRepository) {
+  public CustomerJPADataAccessService(CustomerRepository customerRepository,
+      CustomerSummaryDataAccessService customerSummaryDataAccessService) {
     this.customerRepository = customerRepository;
+    this.customerSummaryDataAccessService = customerSummaryDataAccessService;
   }
 
   @Override
@@ -18,14 +26,54 @@ public class CustomerJPADataAccessService implements CustomerDao {
     return customerRepository.findAll();
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAllCustomers(Consumer<Customer> consumer) {
+    try (Stream<Customer> customers = customerRepository.streamAll()) {
+      customers.forEach(consumer);
+    }
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter) {
+    return customerRepository.findAll(
+        CustomerSpecifications.matching(filter),
+        filter.sort()
+    );
+  }
+
+  @Override
+  public List<Customer> searchCustomers(String query, int limit, int offset) {
+    return customerRepository.searchCustomers(
+        query,
+        CustomerSpecifications.likeContains(query),
+        MAX_SEARCH_CANDIDATES,
+        limit,
+        offset
+    );
+  }
+
   @Override
   public Optional<Customer> selectCustomerById(Integer id) {
     return customerRepository.findById(id);
   }
 
   @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+    return customerRepository.findAllById(ids);
+  }
+
+  @Override
+  @Transactional
   public void insertCustomer(Customer customer) {
     customerRepository.save(customer);
+    customerSummaryDataAccessService.adjustStatistics(
+        customer.getGender(), customer.getAge(), 1
+    );
+    customerSummaryDataAccessService.recordChange(
+        customer.getId(), CustomerChangeType.CREATED
+    );
+    customerSummaryDataAccessService.notifyInvalidation(customer.getId(), customer.getEmail());
   }
 
   @Override
@@ -34,8 +82,16 @@ public class CustomerJPADataAccessService implements CustomerDao {
   }
 
   @Override
+  @Transactional
   public void deleteCustomerById(Integer id) {
-    customerRepository.deleteById(id);
+    customerRepository.findById(id).ifPresent(customer -> {
+      customerRepository.deleteById(id);
+      customerSummaryDataAccessService.adjustStatistics(
+          customer.getGender(), customer.getAge(), -1
+      );
+      customerSummaryDataAccessService.recordChange(id, CustomerChangeType.DELETED);
+      customerSummaryDataAccessService.notifyInvalidation(id, customer.getEmail());
+    });
   }
 
   @Override
@@ -44,12 +100,120 @@ public class CustomerJPADataAccessService implements CustomerDao {
   }
 
   @Override
+  @Transactional
   public void updateCustomer(Customer update) {
+    // save merges into the managed instance, so capture the old values before it runs
+    record Previous(Gender gender, Integer age, String email) {
+
+    }
+    Optional<Previous> before = customerRepository.findById(update.getId())
+        .map(customer -> new Previous(
+            customer.getGender(), customer.getAge(), customer.getEmail()
+        ));
     customerRepository.save(update);
+    before.ifPresent(old -> {
+      if (update.getGender() != old.gender() || !update.getAge().equals(old.age())) {
+        customerSummaryDataAccessService.adjustStatistics(old.gender(), old.age(), -1);
+        customerSummaryDataAccessService.adjustStatistics(
+            update.getGender(), update.getAge(), 1
+        );
+      }
+      customerSummaryDataAccessService.recordChange(
+          update.getId(), CustomerChangeType.UPDATED
+      );
+      notifyInvalidation(update.getId(), old.email(), update.getEmail());
+    });
+  }
+
+  // The version comparison spares a write for clients that are already stale; a writer
+  // that slips in after the read still loses, because @Version guards the flushed UPDATE.
+  @Override
+  @Transactional
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    Optional<Customer> current = customerRepository.findById(update.getId())
+        .filter(customer -> customer.getVersion() == expectedVersion);
+    current.ifPresent(customer -> {
+      Gender previousGender = customer.getGender();
+      Integer previousAge = customer.getAge();
+      String previousEmail = customer.getEmail();
+      if (update.getName() != null) {
+        customer.setName(update.getName());
+      }
+      if (update.getAge() != null) {
+        customer.setAge(update.getAge());
+      }
+      if (update.getEmail() != null) {
+        customer.setEmail(update.getEmail());
+      }
+      if (update.getPassword() != null) {
+        customer.setPassword(update.getPassword());
+      }
+      if (update.getGender() != null) {
+        customer.setGender(update.getGender());
+      }
+      customerRepository.saveAndFlush(customer);
+      if (customer.getGender() != previousGender || !customer.getAge().equals(previousAge)) {
+        customerSummaryDataAccessService.adjustStatistics(previousGender, previousAge, -1);
+        customerSummaryDataAccessService.adjustStatistics(
+            customer.getGender(), customer.getAge(), 1
+        );
+      }
+      customerSummaryDataAccessService.recordChange(
+          customer.getId(), CustomerChangeType.UPDATED
+      );
+      notifyInvalidation(customer.getId(), previousEmail, customer.getEmail());
+      update.setVersion(customer.getVersion());
+    });
+    return current;
   }
 
   @Override
   public Optional<Customer> selectUserByEmail(String email) {
     return customerRepository.findCustomerByEmail(email);
   }
+
+  @Override
+  public CustomerStatistics selectCustomerStatistics() {
+    return CustomerStatistics.fromCounts(
+        customerSummaryDataAccessService.selectStatisticsCounts()
+    );
+  }
+
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    return customerRepository.findVersionById(id);
+  }
+
+  @Override
+  public CustomerCollectionVersion selectCollectionVersion() {
+    return customerSummaryDataAccessService.selectCollectionVersion();
+  }
+
+  @Override
+  public int sequenceChanges() {
+    return customerSummaryDataAccessService.sequenceChanges();
+  }
+
+  private void notifyInvalidation(Integer id, String previousEmail, String email) {
+    customerSummaryDataAccessService.notifyInvalidation(id, previousEmail);
+    if (!previousEmail.equals(email)) {
+      customerSummaryDataAccessService.notifyInvalidation(id, email);
+    }
+  }
+
+  @Override
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    return customerSummaryDataAccessService.selectChangesSince(seq, limit);
+  }
+
+  @Override
+  public Optional<Long> selectOldestChangeSeq() {
+    return customerSummaryDataAccessService.selectOldestChangeSeq();
+  }
+
+  @Override
+  @Transactional
+  public int deleteChangesBefore(Instant cutoff) {
+    return customerSummaryDataAccessService.deleteChangesBefore(cutoff);
+  }
 }
@@ -1,8 +1,13 @@
 package com.amigoscode.customer;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Repository;
 
 @Repository("list")
@@ -10,6 +15,8 @@ public class CustomerListDataAccessService implements CustomerDao {
 
   // db
   private static List<Customer> customers;
+  private static final AtomicLong collectionVersion = new AtomicLong();
+  private static final List<CustomerChange> changes = new ArrayList<>();
 
   static {
     customers = new ArrayList<>();
@@ -38,6 +45,39 @@ public class CustomerListDataAccessService implements CustomerDao {
     return customers;
   }
 
+  @Override
+  public void streamAllCustomers(Consumer<Customer> consumer) {
+    customers.forEach(consumer);
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter) {
+    return customers.stream()
+        .filter(customer -> filter.gender() == null
+            || filter.gender() == customer.getGender())
+        .filter(customer -> filter.minAge() == null
+            || customer.getAge() >= filter.minAge())
+        .filter(customer -> filter.maxAge() == null
+            || customer.getAge() <= filter.maxAge())
+        .filter(customer -> filter.namePrefix() == null
+            || customer.getName().toLowerCase().startsWith(filter.namePrefix().toLowerCase()))
+        .filter(customer -> filter.emailPrefix() == null
+            || customer.getEmail().toLowerCase().startsWith(filter.emailPrefix().toLowerCase()))
+        .sorted(filter.comparator())
+        .toList();
+  }
+
+  @Override
+  public List<Customer> searchCustomers(String query, int limit, int offset) {
+    String fragment = query.toLowerCase();
+    return customers.stream()
+        .filter(customer -> customer.getName().toLowerCase().contains(fragment)
+            || customer.getEmail().toLowerCase().contains(fragment))
+        .skip(offset)
+        .limit(limit)
+        .toList();
+  }
+
   @Override
   public Optional<Customer> selectCustomerById(Integer id) {
     return customers.stream()
@@ -45,9 +85,23 @@ public class CustomerListDataAccessService implements CustomerDao {
         .findFirst();
   }
 
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+    return customers.stream()
+        .filter(customer -> ids.contains(customer.getId()))
+        .toList();
+  }
+
   @Override
   public void insertCustomer(Customer customer) {
+    if (customer.getId() == null) {
+      customer.setId(customers.stream()
+          .mapToInt(Customer::getId)
+          .max()
+          .orElse(0) + 1);
+    }
     customers.add(customer);
+    recordChange(customer.getId(), CustomerChangeType.CREATED);
   }
 
   @Override
@@ -61,7 +115,10 @@ public class CustomerListDataAccessService implements CustomerDao {
     customers.stream()
         .filter(customer -> customer.getId().equals(id))
         .findFirst()
-        .ifPresent(customers::remove);
+        .ifPresent(customer -> {
+          customers.remove(customer);
+          recordChange(id, CustomerChangeType.DELETED);
+        });
   }
 
   @Override
@@ -73,6 +130,37 @@ public class CustomerListDataAccessService implements CustomerDao {
   @Override
   public void updateCustomer(Customer customer) {
     customers.add(customer);
+    recordChange(customer.getId(), CustomerChangeType.UPDATED);
+  }
+
+  @Override
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    Optional<Customer> current = customers.stream()
+        .filter(customer -> customer.getId().equals(update.getId()))
+        .filter(customer -> Objects.requireNonNullElse(customer.getVersion(), 0L)
+            == expectedVersion)
+        .findFirst();
+    current.ifPresent(customer -> {
+      if (update.getName() != null) {
+        customer.setName(update.getName());
+      }
+      if (update.getAge() != null) {
+        customer.setAge(update.getAge());
+      }
+      if (update.getEmail() != null) {
+        customer.setEmail(update.getEmail());
+      }
+      if (update.getPassword() != null) {
+        customer.setPassword(update.getPassword());
+      }
+      if (update.getGender() != null) {
+        customer.setGender(update.getGender());
+      }
+      customer.setVersion(expectedVersion + 1);
+      update.setVersion(customer.getVersion());
+      recordChange(customer.getId(), CustomerChangeType.UPDATED);
+    });
+    return current;
   }
 
   @Override
@@ -81,4 +169,66 @@ public class CustomerListDataAccessService implements CustomerDao {
         .filter(customer -> customer.getUsername().equals(email))
         .findFirst();
   }
+
+  @Override
+  public CustomerStatistics selectCustomerStatistics() {
+    return CustomerStatistics.fromCounts(
+        customers.stream()
+            .map(customer -> new CustomerStatistics.Count(
+                customer.getGender(), customer.getAge(), 1
+            ))
+            .toList()
+    );
+  }
+
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    return selectCustomerById(id)
+        .map(customer -> customer.getVersion() == null ? 0L : customer.getVersion());
+  }
+
+  @Override
+  public CustomerCollectionVersion selectCollectionVersion() {
+    return new CustomerCollectionVersion(collectionVersion.get(), 0);
+  }
+
+  // Changes get their seq as they are recorded
+  @Override
+  public int sequenceChanges() {
+    return 0;
+  }
+
+  @Override
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    synchronized (changes) {
+      return changes.stream()
+          .filter(change -> change.seq() > seq)
+          .limit(limit)
+          .toList();
+    }
+  }
+
+  @Override
+  public Optional<Long> selectOldestChangeSeq() {
+    synchronized (changes) {
+      return changes.stream().findFirst().map(CustomerChange::seq);
+    }
+  }
+
+  @Override
+  public int deleteChangesBefore(Instant cutoff) {
+    synchronized (changes) {
+      int before = changes.size();
+      changes.removeIf(change -> change.changedAt().isBefore(cutoff));
+      return before - changes.size();
+    }
+  }
+
+  private static void recordChange(Integer id, CustomerChangeType type) {
+    synchronized (changes) {
+      changes.add(new CustomerChange(
+          collectionVersion.incrementAndGet(), id, type, Instant.now()
+      ));
+    }
+  }
 }
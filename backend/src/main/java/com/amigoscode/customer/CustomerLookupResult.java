@@ -0,0 +1,9 @@
+package com.amigoscode.customer;
+
+public record CustomerLookupResult(
+    Integer id,
+    boolean found,
+    CustomerDTO customer
+) {
+
+}
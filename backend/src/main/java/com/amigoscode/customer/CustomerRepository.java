@@ -1,14 +1,52 @@
 package com.amigoscode.customer;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository
-    extends JpaRepository<Customer, Integer> {
+    extends JpaRepository<Customer, Integer>, JpaSpecificationExecutor<Customer> {
 
   boolean existsCustomerByEmail(String email);
 
   boolean existsCustomerById(Integer id);
 
   Optional<Customer> findCustomerByEmail(String email);
+
+  @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+  Optional<Long> findVersionById(@Param("id") Integer id);
+
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT c FROM Customer c")
+  Stream<Customer> streamAll();
+
+  @Query(
+      value = """
+          SELECT *
+          FROM (
+              SELECT *
+              FROM customer
+              WHERE name % :query
+                 OR email % :query
+                 OR name ILIKE :pattern ESCAPE '\\'
+                 OR email ILIKE :pattern ESCAPE '\\'
+              LIMIT :candidates
+          ) AS candidates
+          ORDER BY greatest(similarity(name, :query), similarity(email, :query)) DESC, id
+          LIMIT :limit OFFSET :offset
+          """,
+      nativeQuery = true
+  )
+  List<Customer> searchCustomers(@Param("query") String query,
+      @Param("pattern") String pattern,
+      @Param("candidates") int candidates,
+      @Param("limit") int limit,
+      @Param("offset") int offset);
 }
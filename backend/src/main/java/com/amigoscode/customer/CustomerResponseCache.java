@@ -0,0 +1,262 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.codec.CustomerProtobufHttpMessageConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+public class CustomerResponseCache implements CustomerInvalidationHandler {
+
+  private static final List<MediaType> ENCODED_MEDIA_TYPES = List.of(
+      MediaType.APPLICATION_CBOR,
+      MediaType.valueOf("application/x-jackson-smile"),
+      CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF
+  );
+
+  private final ObjectWriter customerWriter;
+  private final ObjectWriter customerListWriter;
+  private final int gzipMinBytes;
+  private final Cache<CustomerKey, CachedResponse> customers;
+  private final Cache<ListKey, CachedResponse> customerLists;
+  // Field projections cached per id, so invalidating one customer does not scan every key
+  private final Map<Integer, Set<Set<CustomerField>>> projectionsById =
+      new ConcurrentHashMap<>();
+
+  // Bounded by encoded bytes rather than entries: a list entry holds every matching row
+  public CustomerResponseCache(ObjectMapper objectMapper,
+      @Value("${customer.response-cache.max-size:64MB}") DataSize maxSize,
+      @Value("${customer.response-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+    this.customerWriter = objectMapper.writerFor(CustomerDTO.class);
+    this.customerListWriter = objectMapper.writerFor(new TypeReference<List<CustomerDTO>>() {
+    });
+    this.gzipMinBytes = gzipMinBytes;
+    this.customers = Caffeine.newBuilder()
+        .maximumWeight(maxSize.toBytes() / 2)
+        .<CustomerKey, CachedResponse>weigher((key, response) -> response.weight())
+        .evictionListener((key, response, cause) -> unindex(key))
+        .build();
+    this.customerLists = Caffeine.newBuilder()
+        .maximumWeight(maxSize.toBytes() / 2)
+        .<ListKey, CachedResponse>weigher((key, response) -> response.weight())
+        .build();
+  }
+
+  // Entries remember the ETag they were encoded under, so a hit also proves the bytes
+  // belong to the version the caller just read; invalidation only reclaims memory early.
+  public CachedResponse customer(Integer id, Set<CustomerField> fields, String eTag,
+      Supplier<CustomerDTO> loader) {
+    CustomerKey key = new CustomerKey(id, fields);
+    CachedResponse cached = customers.getIfPresent(key);
+    if (cached != null && cached.eTag().equals(eTag)) {
+      return cached;
+    }
+    CachedResponse response = response(eTag, encode(customerWriter, loader.get()), 1);
+    projectionsById.compute(id, (ignored, projections) -> {
+      Set<Set<CustomerField>> indexed =
+          projections == null ? ConcurrentHashMap.newKeySet() : projections;
+      indexed.add(fields);
+      return indexed;
+    });
+    customers.put(key, response);
+    return response;
+  }
+
+  // Keyed on the parsed filter, so unknown or reordered query parameters share one entry
+  public CachedResponse customerList(CustomerFilter filter, Set<CustomerField> fields,
+      String eTag, Supplier<List<CustomerDTO>> loader) {
+    ListKey key = new ListKey(filter, fields);
+    CachedResponse cached = customerLists.getIfPresent(key);
+    if (cached != null && cached.eTag().equals(eTag)) {
+      return cached;
+    }
+    List<CustomerDTO> page = loader.get();
+    CachedResponse response = response(eTag, encode(customerListWriter, page), page.size());
+    customerLists.put(key, response);
+    return response;
+  }
+
+  public void invalidate(Integer id) {
+    Optional.ofNullable(projectionsById.remove(id)).ifPresent(projections ->
+        projections.forEach(fields -> customers.invalidate(new CustomerKey(id, fields)))
+    );
+    customerLists.invalidateAll();
+  }
+
+  @Override
+  public void invalidate(Collection<CustomerInvalidation> invalidations) {
+    invalidations.forEach(invalidation -> invalidate(invalidation.customerId()));
+  }
+
+  @Override
+  public void invalidateAll() {
+    customers.invalidateAll();
+    customerLists.invalidateAll();
+    projectionsById.clear();
+  }
+
+  public long size() {
+    return customers.estimatedSize() + customerLists.estimatedSize();
+  }
+
+  public void write(CachedResponse cached, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    byte[] body = cached.json();
+    if (cached.gzip() != null) {
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      if (acceptsGzip(request)) {
+        body = cached.gzip();
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+    }
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setHeader(HttpHeaders.ETAG, cached.eTag());
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  private void unindex(CustomerKey key) {
+    projectionsById.computeIfPresent(key.id(), (id, projections) -> {
+      projections.remove(key.fields());
+      return projections.isEmpty() ? null : projections;
+    });
+  }
+
+  // Compressed up front so the weigher can count both encodings
+  private CachedResponse response(String eTag, byte[] json, int count) {
+    return new CachedResponse(eTag, json, count, json.length >= gzipMinBytes ? gzip(json) : null);
+  }
+
+  private static byte[] gzip(byte[] json) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 32);
+    try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+      gzipOut.write(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] encode(ObjectWriter writer, Object value) {
+    try {
+      return writer.writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize customer response", e);
+    }
+  }
+
+  // The representation a request will be served in, so ETags can differ per encoding. The
+  // cache only holds JSON; other encodings go through the message converters instead.
+  // Unknown or absent Accept values keep the JSON default.
+  public static MediaType negotiatedMediaType(HttpServletRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept == null || accept.isBlank()) {
+      return MediaType.APPLICATION_JSON;
+    }
+    List<MediaType> mediaTypes;
+    try {
+      mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+    } catch (InvalidMediaTypeException e) {
+      return MediaType.APPLICATION_JSON;
+    }
+    mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+    for (MediaType mediaType : mediaTypes) {
+      if (mediaType.getQualityValue() == 0) {
+        continue;
+      }
+      if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+        return MediaType.APPLICATION_JSON;
+      }
+      Optional<MediaType> encoded = ENCODED_MEDIA_TYPES.stream()
+          .filter(mediaType::includes)
+          .findFirst();
+      if (encoded.isPresent()) {
+        return encoded.get();
+      }
+    }
+    return MediaType.APPLICATION_JSON;
+  }
+
+  static boolean acceptsGzip(HttpServletRequest request) {
+    Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+    while (values != null && values.hasMoreElements()) {
+      for (String coding : values.nextElement().split(",")) {
+        String[] parts = coding.trim().split(";");
+        if (parts[0].trim().equalsIgnoreCase("gzip")) {
+          return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+      }
+    }
+    return false;
+  }
+
+  private record CustomerKey(Integer id, Set<CustomerField> fields) {
+
+  }
+
+  private record ListKey(CustomerFilter filter, Set<CustomerField> fields) {
+
+  }
+
+  public static final class CachedResponse {
+
+    private final String eTag;
+    private final byte[] json;
+    private final int count;
+    private final byte[] gzip;
+
+    CachedResponse(String eTag, byte[] json, int count, byte[] gzip) {
+      this.eTag = eTag;
+      this.json = json;
+      this.count = count;
+      this.gzip = gzip;
+    }
+
+    public String eTag() {
+      return eTag;
+    }
+
+    public byte[] json() {
+      return json;
+    }
+
+    public int count() {
+      return count;
+    }
+
+    // Only present for bodies of at least gzip-min-bytes
+    public byte[] gzip() {
+      return gzip;
+    }
+
+    int weight() {
+      return json.length + (gzip == null ? 0 : gzip.length);
+    }
+  }
+}
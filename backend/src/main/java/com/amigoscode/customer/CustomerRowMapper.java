@@ -2,6 +2,7 @@ package com.amigoscode.customer;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
@@ -10,7 +11,7 @@ public class CustomerRowMapper implements RowMapper<Customer> {
 
   @Override
   public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-    return new Customer(
+    Customer customer = new Customer(
         rs.getInt("id"),
         rs.getString("name"),
         rs.getString("email"),
@@ -18,5 +19,32 @@ public class CustomerRowMapper implements RowMapper<Customer> {
         rs.getInt("age"),
         Gender.valueOf(rs.getString("gender"))
     );
+    customer.setVersion(rs.getLong("version"));
+    return customer;
+  }
+
+  public RowMapper<Customer> forFields(Set<CustomerField> fields) {
+    if (fields.containsAll(CustomerField.ALL)) {
+      return this;
+    }
+    Set<String> columns = CustomerField.columns(fields);
+    return (rs, rowNum) -> {
+      Customer customer = new Customer();
+      customer.setId(rs.getInt("id"));
+      customer.setVersion(rs.getLong("version"));
+      if (columns.contains("name")) {
+        customer.setName(rs.getString("name"));
+      }
+      if (columns.contains("email")) {
+        customer.setEmail(rs.getString("email"));
+      }
+      if (columns.contains("age")) {
+        customer.setAge(rs.getInt("age"));
+      }
+      if (columns.contains("gender")) {
+        customer.setGender(Gender.valueOf(rs.getString("gender")));
+      }
+      return customer;
+    };
   }
 }
@@ -1,26 +1,77 @@
 package com.amigoscode.customer;
 
 import com.amigoscode.Exception.DuplicateResourceException;
+import com.amigoscode.Exception.PreconditionFailedException;
 import com.amigoscode.Exception.RequestValidationException;
 import com.amigoscode.Exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomerService {
+public class CustomerService implements CustomerInvalidationHandler {
+
+  static final int MIN_SEARCH_QUERY_LENGTH = 3;
+  static final int MAX_SEARCH_PAGE_SIZE = 100;
+  static final int MAX_SUGGESTION_LIMIT = 50;
+  static final int MAX_BATCH_IDS = 500;
 
   private final CustomerDao customerDao;
   private final CustomerDTOMapper customerDTOMapper;
   private final PasswordEncoder passwordEncoder;
+  private final CustomerSuggestionIndex customerSuggestionIndex;
+  private final CustomerResponseCache customerResponseCache;
+  private final SingleFlight<CustomerLookup, CustomerDTO> customerLookups;
 
-  public CustomerService(@Qualifier("jdbc") CustomerDao customerDao,
-      CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder) {
+  public CustomerService(@Qualifier("customerDao") CustomerDao customerDao,
+      CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder,
+      CustomerSuggestionIndex customerSuggestionIndex,
+      CustomerResponseCache customerResponseCache, MeterRegistry meterRegistry) {
     this.customerDao = customerDao;
     this.customerDTOMapper = customerDTOMapper;
     this.passwordEncoder = passwordEncoder;
+    this.customerSuggestionIndex = customerSuggestionIndex;
+    this.customerResponseCache = customerResponseCache;
+    this.customerLookups = new SingleFlight<>(meterRegistry, "customer");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildSuggestionIndex() {
+    customerSuggestionIndex.rebuild(customerDao::streamAllCustomers);
+  }
+
+  // Writes on other nodes reach the suggestion index here: customers still present are
+  // re-read and re-indexed, the rest were deleted.
+  @Override
+  public void invalidate(Collection<CustomerInvalidation> invalidations) {
+    Set<Integer> ids = invalidations.stream()
+        .map(CustomerInvalidation::customerId)
+        .collect(Collectors.toSet());
+    Set<Integer> missing = new LinkedHashSet<>(ids);
+    for (Customer customer : customerDao.selectCustomersByIds(ids)) {
+      missing.remove(customer.getId());
+      customerSuggestionIndex.index(customer);
+    }
+    missing.forEach(customerSuggestionIndex::remove);
+    ids.forEach(this::forgetLookups);
+  }
+
+  @Override
+  public void invalidateAll() {
+    customerLookups.forget(lookup -> true);
+    buildSuggestionIndex();
   }
 
   public List<CustomerDTO> getAllCustomers() {
@@ -30,14 +81,121 @@ public class CustomerService {
         .collect(Collectors.toList());
   }
 
-  public CustomerDTO getCustomer(Integer id) {
-    return customerDao.selectCustomerById(id)
+  public List<CustomerDTO> getCustomers(CustomerFilter filter) {
+    return getCustomers(filter, CustomerField.ALL);
+  }
+
+  public List<CustomerDTO> getCustomers(CustomerFilter filter, Set<CustomerField> fields) {
+    if (filter.minAge() != null && filter.maxAge() != null
+        && filter.minAge() > filter.maxAge()) {
+      throw new RequestValidationException("minAge must not be greater than maxAge");
+    }
+    return customerDao.selectCustomers(filter, fields)
+        .stream()
+        .map(customer -> customerDTOMapper.apply(customer, fields))
+        .collect(Collectors.toList());
+  }
+
+  public List<CustomerDTO> searchCustomers(String query, int page, int size) {
+    if (query == null || query.isBlank()) {
+      throw new RequestValidationException("q must not be blank");
+    }
+    // Shorter fragments have no trigram to look up and scan the whole table
+    if (query.trim().length() < MIN_SEARCH_QUERY_LENGTH) {
+      throw new RequestValidationException(
+          "q must be at least %s characters".formatted(MIN_SEARCH_QUERY_LENGTH)
+      );
+    }
+    if (page < 0) {
+      throw new RequestValidationException("page must not be negative");
+    }
+    if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+      throw new RequestValidationException(
+          "size must be between 1 and %s".formatted(MAX_SEARCH_PAGE_SIZE)
+      );
+    }
+    // Pages past the ranked candidates would always come back empty
+    if ((long) page * size + size > CustomerDao.MAX_SEARCH_CANDIDATES) {
+      throw new RequestValidationException("page is too large");
+    }
+    return customerDao.searchCustomers(query.trim(), size, page * size)
+        .stream()
         .map(customerDTOMapper)
+        .collect(Collectors.toList());
+  }
+
+  public List<CustomerDTO> suggestCustomers(String prefix, int limit) {
+    if (prefix == null || prefix.isBlank()) {
+      throw new RequestValidationException("prefix must not be blank");
+    }
+    if (limit < 1 || limit > MAX_SUGGESTION_LIMIT) {
+      throw new RequestValidationException(
+          "limit must be between 1 and %s".formatted(MAX_SUGGESTION_LIMIT)
+      );
+    }
+    return customerSuggestionIndex.suggest(prefix.trim(), limit);
+  }
+
+  public long getCustomerVersion(Integer id) {
+    return customerDao.selectCustomerVersion(id)
         .orElseThrow(() -> new ResourceNotFoundException(
             "Customer with id [%s] not found".formatted(id)
         ));
   }
 
+  public CustomerCollectionVersion getCollectionVersion() {
+    return customerDao.selectCollectionVersion();
+  }
+
+  public CustomerStatistics getCustomerStatistics() {
+    return customerDao.selectCustomerStatistics();
+  }
+
+  public CustomerDTO getCustomer(Integer id) {
+    return getCustomer(id, CustomerField.ALL);
+  }
+
+  // Concurrent reads of the same customer share one DAO call; DTOs are immutable, so every
+  // waiter can safely receive the same instance.
+  public CustomerDTO getCustomer(Integer id, Set<CustomerField> fields) {
+    return customerLookups.execute(new CustomerLookup(id, fields), () ->
+        customerDao.selectCustomerById(id, fields)
+            .map(customer -> customerDTOMapper.apply(customer, fields))
+            .orElseThrow(() -> new ResourceNotFoundException(
+                "Customer with id [%s] not found".formatted(id)
+            ))
+    );
+  }
+
+  public List<CustomerLookupResult> getCustomersByIds(List<Integer> ids) {
+    return getCustomersByIds(ids, CustomerField.ALL);
+  }
+
+  public List<CustomerLookupResult> getCustomersByIds(List<Integer> ids,
+      Set<CustomerField> fields) {
+    if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS) {
+      throw new RequestValidationException(
+          "ids must contain between 1 and %s ids".formatted(MAX_BATCH_IDS)
+      );
+    }
+    if (ids.stream().anyMatch(Objects::isNull)) {
+      throw new RequestValidationException("ids must not contain blank values");
+    }
+    Map<Integer, CustomerDTO> customers = customerDao.selectCustomersByIds(
+            new LinkedHashSet<>(ids), fields
+        )
+        .stream()
+        .collect(Collectors.toMap(
+            Customer::getId,
+            customer -> customerDTOMapper.apply(customer, fields)
+        ));
+    return ids.stream()
+        .map(id -> new CustomerLookupResult(
+            id, customers.containsKey(id), customers.get(id)
+        ))
+        .collect(Collectors.toList());
+  }
+
   public void addCustomer(
       CustomerRegistrationRequest customerRegistrationRequest) {
     // Check if email exist
@@ -56,7 +214,15 @@ public class CustomerService {
         customerRegistrationRequest.age(),
         customerRegistrationRequest.gender()
     );
-    customerDao.insertCustomer(customer);
+    try {
+      customerDao.insertCustomer(customer);
+    } catch (DataIntegrityViolationException e) {
+      // lost a race with a concurrent registration after the existence check; JDBC reports
+      // the unique email index as DuplicateKeyException, Hibernate as its parent type
+      throw new DuplicateResourceException("Email already taken");
+    }
+    customerSuggestionIndex.index(customer);
+    customerResponseCache.invalidate(customer.getId());
   }
 
   public void deleteCustomer(Integer customerId) {
@@ -66,6 +232,9 @@ public class CustomerService {
       );
     }
     customerDao.deleteCustomerById(customerId);
+    customerSuggestionIndex.remove(customerId);
+    customerResponseCache.invalidate(customerId);
+    forgetLookups(customerId);
   }
 
   public void updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
@@ -106,6 +275,64 @@ public class CustomerService {
       throw new RequestValidationException("no data changes found");
     }
 
-    customerDao.updateCustomer(customer);
+    try {
+      customerDao.updateCustomer(customer);
+    } catch (DataIntegrityViolationException e) {
+      throw new DuplicateResourceException("email already taken");
+    } catch (OptimisticLockingFailureException e) {
+      // JPA's @Version rejects the write when another one committed after our read
+      throw new DuplicateResourceException(
+          "Customer with id [%s] was changed concurrently".formatted(customerId)
+      );
+    }
+    customerSuggestionIndex.index(customer);
+    customerResponseCache.invalidate(customerId);
+    forgetLookups(customerId);
+  }
+
+  public long updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest,
+      long expectedVersion) {
+    if (updateRequest.name() == null && updateRequest.email() == null
+        && updateRequest.age() == null && updateRequest.gender() == null) {
+      throw new RequestValidationException("no data changes found");
+    }
+    Customer update = new Customer();
+    update.setId(customerId);
+    update.setName(updateRequest.name());
+    update.setEmail(updateRequest.email());
+    update.setAge(updateRequest.age());
+    update.setGender(updateRequest.gender());
+
+    // No prior read: the version in the WHERE clause decides, and the unique
+    // index on email reports duplicates instead of an existsPersonWithEmail probe.
+    Customer customer;
+    try {
+      customer = customerDao.updateCustomer(update, expectedVersion)
+          .orElseThrow(() -> new PreconditionFailedException(
+              "Customer with id [%s] does not exist or has changed since version %s"
+                  .formatted(customerId, expectedVersion)
+          ));
+    } catch (DataIntegrityViolationException e) {
+      throw new DuplicateResourceException("email already taken");
+    } catch (OptimisticLockingFailureException e) {
+      throw new PreconditionFailedException(
+          "Customer with id [%s] has changed since version %s"
+              .formatted(customerId, expectedVersion)
+      );
+    }
+    customerSuggestionIndex.index(customer);
+    customerResponseCache.invalidate(customerId);
+    forgetLookups(customerId);
+    return customer.getVersion();
+  }
+
+  // A lookup that started before a write may still return the old row; later readers must
+  // not join it, or a client could miss its own update after the write returned.
+  private void forgetLookups(Integer customerId) {
+    customerLookups.forget(lookup -> lookup.id().equals(customerId));
+  }
+
+  private record CustomerLookup(Integer id, Set<CustomerField> fields) {
+
   }
 }
@@ -0,0 +1,42 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.Exception.RequestValidationException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public enum CustomerSortKey {
+  ID("id", Customer::getId),
+  NAME("name", Customer::getName),
+  EMAIL("email", Customer::getEmail),
+  AGE("age", Customer::getAge);
+
+  private final String column;
+  private final Comparator<Customer> comparator;
+
+  <T extends Comparable<? super T>> CustomerSortKey(String column,
+      Function<Customer, T> property) {
+    this.column = column;
+    this.comparator = Comparator.comparing(property);
+  }
+
+  public String column() {
+    return column;
+  }
+
+  public Comparator<Customer> comparator() {
+    return comparator;
+  }
+
+  public static CustomerSortKey fromParameter(String parameter) {
+    return Arrays.stream(values())
+        .filter(key -> key.column.equalsIgnoreCase(parameter))
+        .findFirst()
+        .orElseThrow(() -> new RequestValidationException(
+            "sort must be one of %s".formatted(Arrays.stream(values())
+                .map(CustomerSortKey::column)
+                .collect(Collectors.joining(", ")))
+        ));
+  }
+}
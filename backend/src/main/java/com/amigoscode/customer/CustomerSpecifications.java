@@ -0,0 +1,59 @@
+package com.amigoscode.customer;
+
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class CustomerSpecifications {
+
+  static final char LIKE_ESCAPE = '\\';
+
+  private CustomerSpecifications() {
+  }
+
+  public static Specification<Customer> matching(CustomerFilter filter) {
+    return (root, query, criteriaBuilder) -> {
+      List<Predicate> predicates = new ArrayList<>();
+      if (filter.gender() != null) {
+        predicates.add(criteriaBuilder.equal(root.get("gender"), filter.gender()));
+      }
+      if (filter.minAge() != null) {
+        predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("age"), filter.minAge()));
+      }
+      if (filter.maxAge() != null) {
+        predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("age"), filter.maxAge()));
+      }
+      if (filter.namePrefix() != null) {
+        predicates.add(criteriaBuilder.like(
+            criteriaBuilder.lower(root.get("name")),
+            likePrefix(filter.namePrefix()),
+            LIKE_ESCAPE
+        ));
+      }
+      if (filter.emailPrefix() != null) {
+        predicates.add(criteriaBuilder.like(
+            criteriaBuilder.lower(root.get("email")),
+            likePrefix(filter.emailPrefix()),
+            LIKE_ESCAPE
+        ));
+      }
+      return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+    };
+  }
+
+  static String likePrefix(String prefix) {
+    return escapeLike(prefix.toLowerCase()) + "%";
+  }
+
+  static String likeContains(String fragment) {
+    return "%" + escapeLike(fragment) + "%";
+  }
+
+  private static String escapeLike(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+  }
+}
@@ -0,0 +1,62 @@
+package com.amigoscode.customer;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public record CustomerStatistics(
+    long total,
+    Map<Gender, Long> genderCounts,
+    Map<String, Long> ageHistogram,
+    Integer minAge,
+    Integer maxAge,
+    Double meanAge
+) {
+
+  static final int AGE_BUCKET_WIDTH = 10;
+
+  record Count(Gender gender, int age, long total) {
+
+  }
+
+  static CustomerStatistics fromCounts(Collection<Count> counts) {
+    long total = 0;
+    long ageSum = 0;
+    Integer minAge = null;
+    Integer maxAge = null;
+    Map<Gender, Long> genderCounts = new EnumMap<>(Gender.class);
+    for (Gender gender : Gender.values()) {
+      genderCounts.put(gender, 0L);
+    }
+    TreeMap<Integer, Long> buckets = new TreeMap<>();
+
+    for (Count count : counts) {
+      if (count.total() <= 0) {
+        continue;
+      }
+      total += count.total();
+      ageSum += (long) count.age() * count.total();
+      genderCounts.merge(count.gender(), count.total(), Long::sum);
+      buckets.merge(Math.floorDiv(count.age(), AGE_BUCKET_WIDTH), count.total(), Long::sum);
+      minAge = minAge == null ? count.age() : Math.min(minAge, count.age());
+      maxAge = maxAge == null ? count.age() : Math.max(maxAge, count.age());
+    }
+
+    Map<String, Long> ageHistogram = new LinkedHashMap<>();
+    buckets.forEach((bucket, bucketTotal) -> {
+      int from = bucket * AGE_BUCKET_WIDTH;
+      ageHistogram.put("%d-%d".formatted(from, from + AGE_BUCKET_WIDTH - 1), bucketTotal);
+    });
+
+    return new CustomerStatistics(
+        total,
+        genderCounts,
+        ageHistogram,
+        minAge,
+        maxAge,
+        total == 0 ? null : (double) ageSum / total
+    );
+  }
+}
@@ -0,0 +1,144 @@
+package com.amigoscode.customer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory prefix index over lower-cased name tokens and emails. Keys are kept sorted in a
+ * skip list so a prefix lookup is a range scan; reads never lock, writes are serialized.
+ * Rebuilds fill a fresh index and swap it in, so readers keep the old one until then.
+ */
+@Component
+public class CustomerSuggestionIndex {
+
+  private static final char ID_SEPARATOR = '\u0000';
+
+  private final CustomerDTOMapper customerDTOMapper;
+  private final Object rebuildLock = new Object();
+  private volatile Entries current = new Entries();
+  // Writes made while a rebuild streams, replayed over its result; a null value is a removal
+  private Map<Integer, Customer> writesDuringRebuild;
+
+  public CustomerSuggestionIndex(CustomerDTOMapper customerDTOMapper) {
+    this.customerDTOMapper = customerDTOMapper;
+  }
+
+  public synchronized void index(Customer customer) {
+    if (customer.getId() == null) {
+      return;
+    }
+    current.index(customer);
+    if (writesDuringRebuild != null) {
+      writesDuringRebuild.put(customer.getId(), customer);
+    }
+  }
+
+  public synchronized void remove(Integer id) {
+    current.remove(id);
+    if (writesDuringRebuild != null) {
+      writesDuringRebuild.put(id, null);
+    }
+  }
+
+  // The source may stream rows read before a concurrent write; replaying the writes made
+  // meanwhile keeps such rows from overwriting newer entries or bringing deleted ones back.
+  public void rebuild(Consumer<Consumer<Customer>> source) {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        writesDuringRebuild = new HashMap<>();
+      }
+      Entries fresh = new Entries();
+      try {
+        source.accept(customer -> {
+          if (customer.getId() != null) {
+            fresh.index(customer);
+          }
+        });
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          writesDuringRebuild = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        writesDuringRebuild.forEach((id, customer) -> {
+          if (customer == null) {
+            fresh.remove(id);
+          } else {
+            fresh.index(customer);
+          }
+        });
+        writesDuringRebuild = null;
+        current = fresh;
+      }
+    }
+  }
+
+  public List<CustomerDTO> suggest(String prefix, int limit) {
+    String from = prefix.toLowerCase();
+    Map<Integer, CustomerDTO> matches = new LinkedHashMap<>();
+    Map<String, CustomerDTO> range = current.entries.subMap(from, from + Character.MAX_VALUE);
+    for (CustomerDTO stub : range.values()) {
+      matches.putIfAbsent(stub.id(), stub);
+      if (matches.size() >= limit) {
+        break;
+      }
+    }
+    return List.copyOf(matches.values());
+  }
+
+  public int size() {
+    return current.keysById.size();
+  }
+
+  private static List<String> tokens(Customer customer) {
+    List<String> tokens = new ArrayList<>();
+    if (customer.getName() != null) {
+      for (String token : customer.getName().toLowerCase().split("\\s+")) {
+        if (!token.isEmpty() && !tokens.contains(token)) {
+          tokens.add(token);
+        }
+      }
+    }
+    if (customer.getEmail() != null) {
+      String email = customer.getEmail().toLowerCase();
+      if (!tokens.contains(email)) {
+        tokens.add(email);
+      }
+    }
+    return tokens;
+  }
+
+  private final class Entries {
+
+    private final ConcurrentSkipListMap<String, CustomerDTO> entries =
+        new ConcurrentSkipListMap<>();
+    private final Map<Integer, List<String>> keysById = new ConcurrentHashMap<>();
+
+    void index(Customer customer) {
+      remove(customer.getId());
+      CustomerDTO stub = customerDTOMapper.apply(customer);
+      List<String> keys = new ArrayList<>();
+      for (String token : tokens(customer)) {
+        String key = token + ID_SEPARATOR + customer.getId();
+        entries.put(key, stub);
+        keys.add(key);
+      }
+      keysById.put(customer.getId(), keys);
+    }
+
+    void remove(Integer id) {
+      List<String> keys = keysById.remove(id);
+      if (keys != null) {
+        keys.forEach(entries::remove);
+      }
+    }
+  }
+}
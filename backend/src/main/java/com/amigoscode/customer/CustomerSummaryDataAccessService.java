@@ -0,0 +1,181 @@
+package com.amigoscode.customer;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the summary tables derived from {@code customer}. Callers must invoke it from the
+ * same transaction as the customer write so the counters never drift from the table.
+ */
+@Repository
+public class CustomerSummaryDataAccessService {
+
+  // Key of the transaction-scoped advisory lock that serializes sequenceChanges
+  static final long SEQUENCER_LOCK = 0x637573746f6d6572L;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public CustomerSummaryDataAccessService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void adjustStatistics(Gender gender, int age, long delta) {
+    var sql = """
+        INSERT INTO customer_statistics (gender, age, total)
+        VALUES (?, ?, ?)
+        ON CONFLICT (gender, age)
+        DO UPDATE SET total = customer_statistics.total + EXCLUDED.total
+        """;
+    jdbcTemplate.update(sql, gender.name(), age, delta);
+  }
+
+  public List<CustomerStatistics.Count> selectStatisticsCounts() {
+    var sql = """
+        SELECT gender, age, total
+        FROM customer_statistics
+        WHERE total > 0
+        """;
+    return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerStatistics.Count(
+        Gender.valueOf(rs.getString("gender")),
+        rs.getInt("age"),
+        rs.getLong("total")
+    ));
+  }
+
+  // The seq is handed out after commit by sequenceChanges, so writers share no row lock
+  public void recordChange(Integer customerId, CustomerChangeType type) {
+    var sql = """
+        INSERT INTO customer_change (customer_id, type)
+        VALUES (?, ?)
+        """;
+    jdbcTemplate.update(sql, customerId, type.name());
+  }
+
+  public void recordChanges(List<Integer> customerIds, CustomerChangeType type) {
+    var sql = """
+        INSERT INTO customer_change (customer_id, type)
+        SELECT changed.id, ?
+        FROM unnest(?) WITH ORDINALITY AS changed(id, ordinality)
+        ORDER BY changed.ordinality
+        """;
+    jdbcTemplate.update(sql, statement -> {
+      statement.setString(1, type.name());
+      statement.setArray(
+          2, statement.getConnection().createArrayOf("integer", customerIds.toArray())
+      );
+    });
+  }
+
+  // One node at a time numbers every committed change still without a seq. A change that
+  // commits later can only get a higher seq, so cursors never skip one.
+  @Transactional
+  public int sequenceChanges() {
+    var sql = """
+        SELECT pg_try_advisory_xact_lock(?)
+        """;
+    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, SEQUENCER_LOCK))) {
+      return 0;
+    }
+    // Materialized so the join cannot draw nextval more than once per change
+    var update = """
+        WITH pending AS MATERIALIZED (
+            SELECT id, nextval('customer_change_seq') AS seq
+            FROM (
+                SELECT id
+                FROM customer_change
+                WHERE seq IS NULL
+                ORDER BY id
+            ) unsequenced
+        )
+        UPDATE customer_change
+        SET seq = pending.seq
+        FROM pending
+        WHERE customer_change.id = pending.id
+        """;
+    return jdbcTemplate.update(update);
+  }
+
+  public CustomerCollectionVersion selectCollectionVersion() {
+    var sql = """
+        SELECT (SELECT coalesce(max(seq), 0) FROM customer_change) AS seq,
+               (SELECT count(*) FROM customer_change WHERE seq IS NULL) AS pending
+        """;
+    return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new CustomerCollectionVersion(
+        rs.getLong("seq"), rs.getLong("pending")
+    ));
+  }
+
+  // Postgres delivers the notification only when the surrounding transaction commits
+  public void notifyInvalidation(Integer customerId, String email) {
+    var sql = """
+        SELECT pg_notify(?, ?)
+        """;
+    jdbcTemplate.query(
+        sql,
+        (RowCallbackHandler) rs -> {
+        },
+        CustomerInvalidationListener.CHANNEL,
+        new CustomerInvalidation(customerId, email).toPayload()
+    );
+  }
+
+  public void notifyInvalidations(Collection<CustomerInvalidation> invalidations) {
+    var sql = """
+        SELECT pg_notify(?, payload)
+        FROM unnest(?) AS payload
+        """;
+    String[] payloads = invalidations.stream()
+        .map(CustomerInvalidation::toPayload)
+        .toArray(String[]::new);
+    jdbcTemplate.query(
+        sql,
+        statement -> {
+          statement.setString(1, CustomerInvalidationListener.CHANNEL);
+          statement.setArray(2, statement.getConnection().createArrayOf("text", payloads));
+        },
+        (RowCallbackHandler) rs -> {
+        }
+    );
+  }
+
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    var sql = """
+        SELECT seq, customer_id, type, changed_at
+        FROM customer_change
+        WHERE seq > ?
+        ORDER BY seq
+        LIMIT ?
+        """;
+    return jdbcTemplate.query(sql, (rs, rowNum) -> new CustomerChange(
+        rs.getLong("seq"),
+        rs.getInt("customer_id"),
+        CustomerChangeType.valueOf(rs.getString("type")),
+        rs.getTimestamp("changed_at").toInstant()
+    ), seq, limit);
+  }
+
+  public Optional<Long> selectOldestChangeSeq() {
+    var sql = """
+        SELECT min(seq)
+        FROM customer_change
+        """;
+    return Optional.ofNullable(jdbcTemplate.queryForObject(sql, Long.class));
+  }
+
+  // The newest sequenced change is kept, since it carries the collection version
+  public int deleteChangesBefore(Instant cutoff) {
+    var sql = """
+        DELETE FROM customer_change
+        WHERE changed_at < ?
+          AND seq < (SELECT max(seq) FROM customer_change)
+        """;
+    return jdbcTemplate.update(sql, Timestamp.from(cutoff));
+  }
+}
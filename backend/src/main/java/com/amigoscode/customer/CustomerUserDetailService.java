@@ -1,5 +1,8 @@
 package com.amigoscode.customer;
 
+import com.amigoscode.metrics.ServerTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,16 +13,23 @@ import org.springframework.stereotype.Service;
 public class CustomerUserDetailService implements UserDetailsService {
 
   private final CustomerDao customerDao;
+  private final SingleFlight<String, Optional<Customer>> principalLookups;
 
-  public CustomerUserDetailService(@Qualifier("jpa") CustomerDao customerDao) {
+  public CustomerUserDetailService(@Qualifier("customerDao") CustomerDao customerDao,
+      MeterRegistry meterRegistry) {
     this.customerDao = customerDao;
+    this.principalLookups = new SingleFlight<>(meterRegistry, "principal");
   }
 
+  // Parallel requests carrying the same token share one lookup. Security never mutates the
+  // loaded principal, so every waiter receives the same instance.
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    return customerDao.selectUserByEmail(username)
-        .orElseThrow(
-            () -> new UsernameNotFoundException("Username " + username + " not found")
-        );
+    try (ServerTiming.Phase ignored = ServerTiming.phase("principal")) {
+      return principalLookups.execute(username, () -> customerDao.selectUserByEmail(username))
+          .orElseThrow(
+              () -> new UsernameNotFoundException("Username " + username + " not found")
+          );
+    }
   }
 }
@@ -0,0 +1,142 @@
+package com.amigoscode.customer;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Base for {@link CustomerDao} decorators: forwards every call to the delegate so subclasses
+ * only override what they change.
+ */
+public abstract class ForwardingCustomerDao implements CustomerDao {
+
+  protected final CustomerDao delegate;
+
+  protected ForwardingCustomerDao(CustomerDao delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public List<Customer> selectAllCustomers() {
+    return delegate.selectAllCustomers();
+  }
+
+  @Override
+  public void streamAllCustomers(Consumer<Customer> consumer) {
+    delegate.streamAllCustomers(consumer);
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter) {
+    return delegate.selectCustomers(filter);
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter, Set<CustomerField> fields) {
+    return delegate.selectCustomers(filter, fields);
+  }
+
+  @Override
+  public List<Customer> searchCustomers(String query, int limit, int offset) {
+    return delegate.searchCustomers(query, limit, offset);
+  }
+
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id) {
+    return delegate.selectCustomerById(id);
+  }
+
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id, Set<CustomerField> fields) {
+    return delegate.selectCustomerById(id, fields);
+  }
+
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+    return delegate.selectCustomersByIds(ids);
+  }
+
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids,
+      Set<CustomerField> fields) {
+    return delegate.selectCustomersByIds(ids, fields);
+  }
+
+  @Override
+  public void insertCustomer(Customer customer) {
+    delegate.insertCustomer(customer);
+  }
+
+  @Override
+  public List<Customer> insertCustomers(List<Customer> customers) {
+    return delegate.insertCustomers(customers);
+  }
+
+  @Override
+  public boolean existsPersonWithEmail(String email) {
+    return delegate.existsPersonWithEmail(email);
+  }
+
+  @Override
+  public boolean existsPersonWithId(Integer id) {
+    return delegate.existsPersonWithId(id);
+  }
+
+  @Override
+  public void deleteCustomerById(Integer id) {
+    delegate.deleteCustomerById(id);
+  }
+
+  @Override
+  public void updateCustomer(Customer customer) {
+    delegate.updateCustomer(customer);
+  }
+
+  @Override
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    return delegate.updateCustomer(update, expectedVersion);
+  }
+
+  @Override
+  public Optional<Customer> selectUserByEmail(String email) {
+    return delegate.selectUserByEmail(email);
+  }
+
+  @Override
+  public CustomerStatistics selectCustomerStatistics() {
+    return delegate.selectCustomerStatistics();
+  }
+
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    return delegate.selectCustomerVersion(id);
+  }
+
+  @Override
+  public CustomerCollectionVersion selectCollectionVersion() {
+    return delegate.selectCollectionVersion();
+  }
+
+  @Override
+  public int sequenceChanges() {
+    return delegate.sequenceChanges();
+  }
+
+  @Override
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    return delegate.selectChangesSince(seq, limit);
+  }
+
+  @Override
+  public Optional<Long> selectOldestChangeSeq() {
+    return delegate.selectOldestChangeSeq();
+  }
+
+  @Override
+  public int deleteChangesBefore(Instant cutoff) {
+    return delegate.deleteChangesBefore(cutoff);
+  }
+}
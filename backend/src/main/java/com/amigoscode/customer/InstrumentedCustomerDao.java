@@ -0,0 +1,266 @@
+package com.amigoscode.customer;
+
+import com.amigoscode.jfr.CustomerDaoEvent;
+import com.amigoscode.metrics.DataAccessLog;
+import com.amigoscode.metrics.ServerTiming;
+import com.amigoscode.metrics.SqlCapture;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Times every call into a {@link CustomerDao} as {@code customer.dao}, tagged with the method,
+ * the implementation and the exception thrown, if any. Slow and sampled calls go to the
+ * {@link DataAccessLog} together with the SQL they sent. The time also counts towards the request's
+ * {@code db} {@link ServerTiming} phase, and each call is a {@link CustomerDaoEvent} with its
+ * row count in flight recordings.
+ */
+public class InstrumentedCustomerDao extends ForwardingCustomerDao {
+
+  static final String METRIC = "customer.dao";
+  static final String NO_EXCEPTION = "none";
+  static final long NO_ROWS = -1;
+  private static final Object[] NO_ARGS = {};
+
+  private final String implementation;
+  private final MeterRegistry meterRegistry;
+  private final DataAccessLog dataAccessLog;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public InstrumentedCustomerDao(CustomerDao delegate, String implementation,
+      MeterRegistry meterRegistry, DataAccessLog dataAccessLog) {
+    super(delegate);
+    this.implementation = implementation;
+    this.meterRegistry = meterRegistry;
+    this.dataAccessLog = dataAccessLog;
+  }
+
+  @Override
+  public List<Customer> selectAllCustomers() {
+    return timed("selectAllCustomers", NO_ARGS, delegate::selectAllCustomers);
+  }
+
+  // Includes the time the consumer spends on each row
+  @Override
+  public void streamAllCustomers(Consumer<Customer> consumer) {
+    long[] rows = {0};
+    timed("streamAllCustomers", NO_ARGS, () -> {
+      delegate.streamAllCustomers(customer -> {
+        rows[0]++;
+        consumer.accept(customer);
+      });
+      return null;
+    }, ignored -> rows[0]);
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter) {
+    return timed("selectCustomers", new Object[] {filter}, () -> delegate.selectCustomers(filter));
+  }
+
+  @Override
+  public List<Customer> selectCustomers(CustomerFilter filter, Set<CustomerField> fields) {
+    return timed("selectCustomers", new Object[] {filter, fields},
+        () -> delegate.selectCustomers(filter, fields));
+  }
+
+  @Override
+  public List<Customer> searchCustomers(String query, int limit, int offset) {
+    return timed("searchCustomers", new Object[] {query, limit, offset},
+        () -> delegate.searchCustomers(query, limit, offset));
+  }
+
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id) {
+    return timed("selectCustomerById", new Object[] {id}, () -> delegate.selectCustomerById(id));
+  }
+
+  @Override
+  public Optional<Customer> selectCustomerById(Integer id, Set<CustomerField> fields) {
+    return timed("selectCustomerById", new Object[] {id, fields},
+        () -> delegate.selectCustomerById(id, fields));
+  }
+
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids) {
+    return timed("selectCustomersByIds", new Object[] {ids},
+        () -> delegate.selectCustomersByIds(ids));
+  }
+
+  @Override
+  public List<Customer> selectCustomersByIds(Collection<Integer> ids,
+      Set<CustomerField> fields) {
+    return timed("selectCustomersByIds", new Object[] {ids, fields},
+        () -> delegate.selectCustomersByIds(ids, fields));
+  }
+
+  @Override
+  public void insertCustomer(Customer customer) {
+    timed("insertCustomer", new Object[] {customer}, () -> delegate.insertCustomer(customer));
+  }
+
+  @Override
+  public List<Customer> insertCustomers(List<Customer> customers) {
+    return timed("insertCustomers", new Object[] {customers},
+        () -> delegate.insertCustomers(customers));
+  }
+
+  @Override
+  public boolean existsPersonWithEmail(String email) {
+    return timed("existsPersonWithEmail", new Object[] {email},
+        () -> delegate.existsPersonWithEmail(email));
+  }
+
+  @Override
+  public boolean existsPersonWithId(Integer id) {
+    return timed("existsPersonWithId", new Object[] {id}, () -> delegate.existsPersonWithId(id));
+  }
+
+  @Override
+  public void deleteCustomerById(Integer id) {
+    timed("deleteCustomerById", new Object[] {id}, () -> delegate.deleteCustomerById(id));
+  }
+
+  @Override
+  public void updateCustomer(Customer customer) {
+    timed("updateCustomer", new Object[] {customer}, () -> delegate.updateCustomer(customer));
+  }
+
+  @Override
+  public Optional<Customer> updateCustomer(Customer update, long expectedVersion) {
+    return timed("updateCustomer", new Object[] {update, expectedVersion},
+        () -> delegate.updateCustomer(update, expectedVersion));
+  }
+
+  @Override
+  public Optional<Customer> selectUserByEmail(String email) {
+    return timed("selectUserByEmail", new Object[] {email},
+        () -> delegate.selectUserByEmail(email));
+  }
+
+  @Override
+  public CustomerStatistics selectCustomerStatistics() {
+    return timed("selectCustomerStatistics", NO_ARGS, delegate::selectCustomerStatistics);
+  }
+
+  @Override
+  public Optional<Long> selectCustomerVersion(Integer id) {
+    return timed("selectCustomerVersion", new Object[] {id},
+        () -> delegate.selectCustomerVersion(id));
+  }
+
+  @Override
+  public CustomerCollectionVersion selectCollectionVersion() {
+    return timed("selectCollectionVersion", NO_ARGS, delegate::selectCollectionVersion);
+  }
+
+  @Override
+  public int sequenceChanges() {
+    return timed("sequenceChanges", NO_ARGS, delegate::sequenceChanges, Integer::longValue);
+  }
+
+  @Override
+  public List<CustomerChange> selectChangesSince(long seq, int limit) {
+    return timed("selectChangesSince", new Object[] {seq, limit},
+        () -> delegate.selectChangesSince(seq, limit));
+  }
+
+  @Override
+  public Optional<Long> selectOldestChangeSeq() {
+    return timed("selectOldestChangeSeq", NO_ARGS, delegate::selectOldestChangeSeq);
+  }
+
+  @Override
+  public int deleteChangesBefore(Instant cutoff) {
+    return timed("deleteChangesBefore", new Object[] {cutoff},
+        () -> delegate.deleteChangesBefore(cutoff),
+        Integer::longValue);
+  }
+
+  private void timed(String method, Object[] args, Runnable call) {
+    timed(method, args, () -> {
+      call.run();
+      return null;
+    }, ignored -> NO_ROWS);
+  }
+
+  private <T> T timed(String method, Object[] args, Supplier<T> call) {
+    return timed(method, args, call, InstrumentedCustomerDao::rowsOf);
+  }
+
+  private <T> T timed(String method, Object[] args, Supplier<T> call,
+      ToLongFunction<? super T> rows) {
+    String exception = NO_EXCEPTION;
+    T result = null;
+    CustomerDaoEvent event = new CustomerDaoEvent();
+    event.begin();
+    long start = System.nanoTime();
+    try (SqlCapture capture = SqlCapture.start()) {
+      try {
+        result = call.get();
+        return result;
+      } catch (RuntimeException e) {
+        exception = e.getClass().getSimpleName();
+        throw e;
+      } finally {
+        long elapsed = System.nanoTime() - start;
+        event.end();
+        boolean logged = dataAccessLog.shouldLog(method, elapsed);
+        if (logged || event.shouldCommit()) {
+          long rowCount = exception.equals(NO_EXCEPTION) ? rows.applyAsLong(result) : NO_ROWS;
+          if (event.shouldCommit()) {
+            event.method = method;
+            event.implementation = implementation;
+            event.rows = rowCount;
+            event.exception = exception;
+            event.commit();
+          }
+          if (logged) {
+            dataAccessLog.log(implementation, method, elapsed, rowCount, exception, args, capture);
+          }
+        }
+        timer(method, exception).record(elapsed, TimeUnit.NANOSECONDS);
+        ServerTiming.record("db", elapsed);
+      }
+    }
+  }
+
+  private static long rowsOf(Object result) {
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    return NO_ROWS;
+  }
+
+  // Successful calls, the hot path, are looked up without building a meter id each time
+  private Timer timer(String method, String exception) {
+    if (exception.equals(NO_EXCEPTION)) {
+      return timers.computeIfAbsent(method, m -> buildTimer(m, NO_EXCEPTION));
+    }
+    return buildTimer(method, exception);
+  }
+
+  private Timer buildTimer(String method, String exception) {
+    return Timer.builder(METRIC)
+        .description("Calls into the customer data access layer")
+        .tag("method", method)
+        .tag("implementation", implementation)
+        .tag("exception", exception)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
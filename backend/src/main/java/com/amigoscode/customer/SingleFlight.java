@@ -0,0 +1,80 @@
+package com.amigoscode.customer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution whose result, or exception,
+ * is handed to every caller that arrived while it was running. Nothing is kept afterwards:
+ * the next call after completion executes again. A call that started before a write can still
+ * return what it read, so writers {@link #forget} the affected keys to keep later callers
+ * from joining it.
+ */
+final class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+  private final Counter executed;
+  private final Counter coalesced;
+
+  SingleFlight(MeterRegistry meterRegistry, String lookup) {
+    this.executed = Counter.builder("customer.lookup.single-flight")
+        .description("Lookups by whether they ran or joined one already in flight")
+        .tag("lookup", lookup)
+        .tag("result", "executed")
+        .register(meterRegistry);
+    this.coalesced = Counter.builder("customer.lookup.single-flight")
+        .description("Lookups by whether they ran or joined one already in flight")
+        .tag("lookup", lookup)
+        .tag("result", "coalesced")
+        .register(meterRegistry);
+  }
+
+  V execute(K key, Supplier<V> call) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = calls.putIfAbsent(key, flight);
+    if (inFlight != null) {
+      coalesced.increment();
+      return await(inFlight);
+    }
+    executed.increment();
+    try {
+      V value = call.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      calls.remove(key, flight);
+    }
+  }
+
+  // Callers already waiting keep the running call; only later ones start afresh
+  void forget(Predicate<K> keys) {
+    calls.keySet().removeIf(keys);
+  }
+
+  int inFlight() {
+    return calls.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
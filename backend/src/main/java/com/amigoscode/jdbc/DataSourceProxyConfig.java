@@ -0,0 +1,43 @@
+package com.amigoscode.jdbc;
+
+import com.amigoscode.budget.LatencyBudgetDataSource;
+import com.amigoscode.metrics.SqlCaptureDataSource;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+  // Static so the post processor exists before the data source it wraps is created. The
+  // budget wraps the capture, so captured SQL is exactly what reaches the driver and a
+  // statement refused for an exhausted budget is still recorded.
+  @Bean
+  public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+    boolean captureSql = environment.getProperty(
+        "customer.dao.metrics.enabled", Boolean.class, true
+    );
+    boolean latencyBudget = environment.getProperty(
+        "customer.latency-budget.enabled", Boolean.class, true
+    );
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)
+            || bean instanceof SqlCaptureDataSource
+            || bean instanceof LatencyBudgetDataSource) {
+          return bean;
+        }
+        if (captureSql) {
+          dataSource = new SqlCaptureDataSource(dataSource);
+        }
+        if (latencyBudget) {
+          dataSource = new LatencyBudgetDataSource(dataSource);
+        }
+        return dataSource;
+      }
+    };
+  }
+}
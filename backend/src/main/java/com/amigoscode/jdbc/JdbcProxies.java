@@ -0,0 +1,39 @@
+package com.amigoscode.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Shared plumbing for the JDK proxies the data source wrappers put around connections and
+ * statements.
+ */
+public final class JdbcProxies {
+
+  private JdbcProxies() {
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(
+        JdbcProxies.class.getClassLoader(), new Class<?>[] {type}, handler
+    );
+  }
+
+  // Identity stays with the proxy: Hibernate keys its statement registry on these objects
+  public static Object invoke(Object proxy, Object target, Method method, Object[] args)
+      throws Throwable {
+    if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+      return proxy == args[0];
+    }
+    if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+      return System.identityHashCode(proxy);
+    }
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
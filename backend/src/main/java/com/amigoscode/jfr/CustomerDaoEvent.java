@@ -0,0 +1,27 @@
+package com.amigoscode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.amigoscode.CustomerDao")
+@Label("Customer DAO Call")
+@Description("A call into the customer data access layer")
+@Category({"Amigoscode", "Database"})
+public class CustomerDaoEvent extends Event {
+
+  @Label("Method")
+  public String method;
+
+  @Label("Implementation")
+  public String implementation;
+
+  @Label("Rows")
+  @Description("Rows returned or affected; -1 when the call does not report rows")
+  public long rows;
+
+  @Label("Exception")
+  public String exception;
+}
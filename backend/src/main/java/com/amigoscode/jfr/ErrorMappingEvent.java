@@ -0,0 +1,25 @@
+package com.amigoscode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.amigoscode.ErrorMapping")
+@Label("Error Mapping")
+@Description("An exception translated into an API error response")
+@Category({"Amigoscode", "Web"})
+@StackTrace(false)
+public class ErrorMappingEvent extends Event {
+
+  @Label("Exception")
+  public Class<?> exception;
+
+  @Label("Status")
+  public int status;
+
+  @Label("Path")
+  public String path;
+}
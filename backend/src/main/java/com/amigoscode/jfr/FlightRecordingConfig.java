@@ -0,0 +1,19 @@
+package com.amigoscode.jfr;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class FlightRecordingConfig {
+
+  @Bean(destroyMethod = "stop")
+  public FlightRecordingEndpoint flightRecordingEndpoint(
+      @Value("${customer.flight-recording.max-age:PT10M}") Duration maxAge,
+      @Value("${customer.flight-recording.max-size:64MB}") DataSize maxSize,
+      @Value("${customer.flight-recording.settings:profile}") String settings) {
+    return new FlightRecordingEndpoint(maxAge, maxSize.toBytes(), settings);
+  }
+}
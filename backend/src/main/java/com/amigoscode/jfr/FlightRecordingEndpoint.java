@@ -0,0 +1,133 @@
+package com.amigoscode.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+/**
+ * Starts, dumps and stops one in-process flight recording. The recording is bounded by age and
+ * size, so it can be left running and dumped after a slow request; a dump is a copy and the
+ * recording carries on. Events that capture environment variables, system properties and JVM
+ * arguments are never recorded, since those carry the datasource credentials.
+ *
+ * <ul>
+ *   <li>{@code POST /actuator/flightrecording} starts it, optionally with a {@code maxAge} and
+ *   {@code maxSize} in bytes below the configured ones and the JFR {@code settings} to use</li>
+ *   <li>{@code GET /actuator/flightrecording} downloads what it holds as a {@code .jfr} file</li>
+ *   <li>{@code DELETE /actuator/flightrecording} stops and discards it</li>
+ * </ul>
+ */
+@Endpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+  static final String NAME = "amigoscode-on-demand";
+  static final List<String> SENSITIVE_EVENTS = List.of(
+      "jdk.InitialEnvironmentVariable",
+      "jdk.InitialSystemProperty",
+      "jdk.JVMInformation"
+  );
+
+  private final Duration defaultMaxAge;
+  private final long defaultMaxSize;
+  private final String defaultSettings;
+  private Recording recording;
+
+  public FlightRecordingEndpoint(Duration defaultMaxAge, long defaultMaxSize,
+      String defaultSettings) {
+    this.defaultMaxAge = defaultMaxAge;
+    this.defaultMaxSize = defaultMaxSize;
+    this.defaultSettings = defaultSettings;
+  }
+
+  @WriteOperation
+  public synchronized RecordingStatus start(@Nullable Duration maxAge, @Nullable Long maxSize,
+      @Nullable String settings) throws IOException, ParseException {
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      return RecordingStatus.of(recording);
+    }
+    Recording started = new Recording(
+        Configuration.getConfiguration(settings != null ? settings : defaultSettings)
+    );
+    SENSITIVE_EVENTS.forEach(started::disable);
+    started.setName(NAME);
+    started.setToDisk(true);
+    // Callers may narrow the configured limits but never widen them
+    started.setMaxAge(maxAge != null && maxAge.compareTo(defaultMaxAge) < 0
+        ? maxAge : defaultMaxAge);
+    started.setMaxSize(maxSize != null ? Math.min(maxSize, defaultMaxSize) : defaultMaxSize);
+    started.start();
+    recording = started;
+    return RecordingStatus.of(started);
+  }
+
+  @ReadOperation(produces = "application/octet-stream")
+  public synchronized WebEndpointResponse<Resource> dump() {
+    if (recording == null || recording.getState() != RecordingState.RUNNING) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    try {
+      Path file = Files.createTempFile("flightrecording", ".jfr");
+      try {
+        recording.dump(file);
+        // Streamed to the client; the file goes away once the response is written
+        InputStream content = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        return new WebEndpointResponse<>(new InputStreamResource(content) {
+          @Override
+          public String getFilename() {
+            return "%s-%d.jfr".formatted(NAME, Instant.now().getEpochSecond());
+          }
+        });
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(file);
+        throw e;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @DeleteOperation
+  public synchronized void stop() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  synchronized Recording recording() {
+    return recording;
+  }
+
+  public record RecordingStatus(long id, String name, String state, Duration maxAge,
+                                long maxSize, Instant startTime) {
+
+    static RecordingStatus of(Recording recording) {
+      return new RecordingStatus(
+          recording.getId(),
+          recording.getName(),
+          recording.getState().name(),
+          recording.getMaxAge(),
+          recording.getMaxSize(),
+          recording.getStartTime()
+      );
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.amigoscode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.amigoscode.Jwt")
+@Label("JWT")
+@Description("Issuing a token, or parsing one and verifying its signature")
+@Category({"Amigoscode", "Auth"})
+@StackTrace(false)
+public class JwtEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+}
@@ -0,0 +1,23 @@
+package com.amigoscode.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.amigoscode.PasswordEncoder")
+@Label("Password Encoder")
+@Description("Hashing a password or checking one against its hash")
+@Category({"Amigoscode", "Auth"})
+@StackTrace(false)
+public class PasswordEncoderEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Matched")
+  @Description("Whether the password matched; false for other operations")
+  public boolean matched;
+}
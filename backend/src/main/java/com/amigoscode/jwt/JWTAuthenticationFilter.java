@@ -1,13 +1,23 @@
 package com.amigoscode.jwt;
 
 import com.amigoscode.customer.CustomerUserDetailService;
+import com.amigoscode.metrics.ServerTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -18,13 +28,30 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
+  private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
   private final JWTUtil jwtUtil;
   private final UserDetailsService userDetailsService;
+  private final MeterRegistry meterRegistry;
+  private final Set<String> adminEmails;
+  private final Timer authenticatedTimer;
+  private final Timer rejectedTimer;
+  private final Timer skippedTimer;
+  private final Timer errorTimer;
 
   public JWTAuthenticationFilter(JWTUtil jwtUtil,
-      CustomerUserDetailService userDetailsService) {
+      CustomerUserDetailService userDetailsService,
+      MeterRegistry meterRegistry,
+      @Value("${customer.security.admin-emails:}") Set<String> adminEmails) {
     this.jwtUtil = jwtUtil;
     this.userDetailsService = userDetailsService;
+    this.meterRegistry = meterRegistry;
+    this.adminEmails = Set.copyOf(adminEmails);
+    // Registered up front so the per-request path only records
+    this.authenticatedTimer = timer(meterRegistry, "authenticated");
+    this.rejectedTimer = timer(meterRegistry, "rejected");
+    this.skippedTimer = timer(meterRegistry, "skipped");
+    this.errorTimer = timer(meterRegistry, "error");
   }
 
   @Override
@@ -40,24 +67,63 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
 
-    String jwt = authHeader.substring(7);
-    String subject = jwtUtil.getSubject(jwt);
-
-    if (subject != null &&
-        SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
-      if (jwtUtil.isTokenValid(jwt, userDetails.getUsername())) {
-        UsernamePasswordAuthenticationToken authenticationToken =
-            new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities()
-            );
-        authenticationToken.setDetails(
-            new WebAuthenticationDetailsSource().buildDetails(request)
-        );
-        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-      }
+    Timer outcome = errorTimer;
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try {
+      outcome = authenticate(request, authHeader.substring(7));
+    } finally {
+      // Covers token parsing, the principal lookup and the signature check
+      sample.stop(outcome);
     }
     filterChain.doFilter(request, response);
 
   }
+
+  private Timer authenticate(HttpServletRequest request, String jwt) {
+    String subject;
+    try (ServerTiming.Phase ignored = ServerTiming.phase("jwt")) {
+      subject = jwtUtil.getSubject(jwt);
+    }
+
+    if (subject == null ||
+        SecurityContextHolder.getContext().getAuthentication() != null) {
+      return skippedTimer;
+    }
+    UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
+    boolean valid;
+    try (ServerTiming.Phase ignored = ServerTiming.phase("jwt")) {
+      valid = jwtUtil.isTokenValid(jwt, userDetails.getUsername());
+    }
+    if (!valid) {
+      return rejectedTimer;
+    }
+    UsernamePasswordAuthenticationToken authenticationToken =
+        new UsernamePasswordAuthenticationToken(
+            userDetails, null, authoritiesOf(userDetails)
+        );
+    authenticationToken.setDetails(
+        new WebAuthenticationDetailsSource().buildDetails(request)
+    );
+    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    return authenticatedTimer;
+  }
+
+  // Operators are ordinary customers listed in customer.security.admin-emails
+  private Collection<? extends GrantedAuthority> authoritiesOf(UserDetails userDetails) {
+    if (!adminEmails.contains(userDetails.getUsername())) {
+      return userDetails.getAuthorities();
+    }
+    List<GrantedAuthority> authorities = new ArrayList<>(userDetails.getAuthorities());
+    authorities.add(new SimpleGrantedAuthority(ADMIN_AUTHORITY));
+    return authorities;
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("jwt.authentication")
+        .description("Time spent authenticating bearer tokens")
+        .tag("outcome", outcome)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
 }
@@ -1,5 +1,6 @@
 package com.amigoscode.jwt;
 
+import com.amigoscode.jfr.JwtEvent;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -33,6 +34,8 @@ public class JWTUtil {
   public String issueToken(
       String subject,
       Map<String, Object> claims) {
+    JwtEvent event = new JwtEvent();
+    event.begin();
     String token = Jwts.builder()
         .setClaims(claims)
         .setSubject(subject)
@@ -45,6 +48,12 @@ public class JWTUtil {
         )
         .signWith(getSigningKey(), SignatureAlgorithm.HS256)
         .compact();
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "issue";
+      event.succeeded = true;
+      event.commit();
+    }
     return token;
   }
 
@@ -57,12 +66,25 @@ public class JWTUtil {
   }
 
   private Claims getClaims(String token) {
-    Claims claims = Jwts.parser()
-        .setSigningKey(getSigningKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
-    return claims;
+    JwtEvent event = new JwtEvent();
+    event.begin();
+    boolean succeeded = false;
+    try {
+      Claims claims = Jwts.parser()
+          .setSigningKey(getSigningKey())
+          .build()
+          .parseClaimsJws(token)
+          .getBody();
+      succeeded = true;
+      return claims;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.operation = "verify";
+        event.succeeded = succeeded;
+        event.commit();
+      }
+    }
   }
 
   public boolean isTokenValid(String jwt, String username) {
@@ -0,0 +1,87 @@
+package com.amigoscode.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit: every call that finishes under the latency threshold while the
+ * limit is actually in use raises it by one; every slow or failed call multiplies it by the
+ * backoff ratio. The limit therefore settles just below the point where queueing on the
+ * connection pool starts to inflate latency, and calls beyond it are rejected up front.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  static final double BACKOFF_RATIO = 0.9;
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter rejected;
+  private double limit;
+
+  public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+      Duration latencyThreshold, MeterRegistry meterRegistry) {
+    if (minLimit < 1 || minLimit > maxLimit
+        || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "%s limits must satisfy 1 <= min <= initial <= max".formatted(name)
+      );
+    }
+    this.name = name;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.limit = initialLimit;
+    Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .tag("limiter", name)
+        .register(meterRegistry);
+    Gauge.builder("concurrency.in-flight", inFlight, AtomicInteger::get)
+        .tag("limiter", name)
+        .register(meterRegistry);
+    this.rejected = Counter.builder("concurrency.rejected")
+        .tag("limiter", name)
+        .register(meterRegistry);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public boolean tryAcquire() {
+    int current;
+    do {
+      current = inFlight.get();
+      if (current >= getLimit()) {
+        rejected.increment();
+        return false;
+      }
+    } while (!inFlight.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  // failed covers timeouts and 5xx: an overloaded database shows up as errors, not latency
+  public void release(long latencyNanos, boolean failed) {
+    int wasInFlight = inFlight.getAndDecrement();
+    synchronized (this) {
+      if (failed || latencyNanos > latencyThresholdNanos) {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+      } else if (wasInFlight * 2 >= limit) {
+        // Only grow while the current limit is being used, or an idle period inflates it
+        limit = Math.min(maxLimit, limit + 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.amigoscode.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+@Configuration
+@ConditionalOnProperty(
+    name = "customer.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true
+)
+public class ConcurrencyLimitConfig {
+
+  private static final String PREFIX = "customer.concurrency-limit.";
+
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+
+  public ConcurrencyLimitConfig(Environment environment, MeterRegistry meterRegistry) {
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+  }
+
+  // Ordered just before the security filter chain, so it applies CORS to its own rejections
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+      @Value("${customer.concurrency-limit.retry-after:PT1S}") Duration retryAfter,
+      @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource) {
+    ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+        limiter("reads", 20, 4, 200, Duration.ofMillis(250)),
+        limiter("writes", 10, 2, 100, Duration.ofMillis(500)),
+        limiter("auth", 10, 2, 50, Duration.ofMillis(500)),
+        retryAfter,
+        handlerExceptionResolver,
+        corsConfigurationSource
+    );
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(filter);
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    return registration;
+  }
+
+  private AdaptiveConcurrencyLimiter limiter(String name, int initialLimit, int minLimit,
+      int maxLimit, Duration latencyThreshold) {
+    String prefix = PREFIX + name + ".";
+    return new AdaptiveConcurrencyLimiter(
+        name,
+        environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+        environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+        environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+        environment.getProperty(prefix + "latency-threshold", Duration.class, latencyThreshold),
+        meterRegistry
+    );
+  }
+}
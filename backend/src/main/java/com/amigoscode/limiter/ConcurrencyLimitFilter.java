@@ -0,0 +1,98 @@
+package com.amigoscode.limiter;
+
+import com.amigoscode.Exception.ServiceUnavailableException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Runs ahead of Spring Security so that the JWT principal lookup and the BCrypt check on login
+ * are guarded too. Reads, writes and authentication each get their own limiter, so a login
+ * storm cannot starve reads and the other way round. Everything else is left unlimited.
+ * Rejections get the CORS headers security would have added, so browsers can read them.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  static final String CUSTOMERS_PATH = "/api/v1/customers";
+  static final String CHANGES_PATH = CUSTOMERS_PATH + "/changes";
+  static final String AUTH_PATH = "/api/v1/auth/";
+
+  private final AdaptiveConcurrencyLimiter reads;
+  private final AdaptiveConcurrencyLimiter writes;
+  private final AdaptiveConcurrencyLimiter auth;
+  private final Duration retryAfter;
+  private final HandlerExceptionResolver handlerExceptionResolver;
+  private final CorsConfigurationSource corsConfigurationSource;
+  private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+  public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter reads,
+      AdaptiveConcurrencyLimiter writes, AdaptiveConcurrencyLimiter auth, Duration retryAfter,
+      HandlerExceptionResolver handlerExceptionResolver,
+      CorsConfigurationSource corsConfigurationSource) {
+    this.reads = reads;
+    this.writes = writes;
+    this.auth = auth;
+    this.retryAfter = retryAfter;
+    this.handlerExceptionResolver = handlerExceptionResolver;
+    this.corsConfigurationSource = corsConfigurationSource;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+    if (limiter == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (!limiter.tryAcquire()) {
+      CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+      // A disallowed origin has been answered with 403, as the CorsFilter would have done
+      if (cors != null && !corsProcessor.processRequest(cors, request, response)) {
+        return;
+      }
+      handlerExceptionResolver.resolveException(request, response, null,
+          new ServiceUnavailableException(
+              "Too many concurrent %s requests, retry later".formatted(limiter.getName()),
+              retryAfter
+          )
+      );
+      return;
+    }
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    } finally {
+      limiter.release(System.nanoTime() - start, failed);
+    }
+  }
+
+  AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    if (path.startsWith(AUTH_PATH)) {
+      return auth;
+    }
+    // The change feed holds its request open for minutes and touches no connection meanwhile
+    if (!path.equals(CUSTOMERS_PATH) && !path.startsWith(CUSTOMERS_PATH + "/")
+        || path.equals(CHANGES_PATH)) {
+      return null;
+    }
+    HttpMethod method = HttpMethod.valueOf(request.getMethod());
+    if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+      return reads;
+    }
+    return method == HttpMethod.OPTIONS ? null : writes;
+  }
+}
@@ -0,0 +1,78 @@
+package com.amigoscode.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Structured log of data access calls on the {@value #LOGGER} logger. Calls slower than the
+ * threshold are always logged at WARN; the rest are sampled per statement, named after the DAO
+ * method, at the configured rates and logged at INFO. Password values in the arguments are
+ * masked. The appender behind the logger is asynchronous, so the calling thread only pays for
+ * formatting the sampled lines.
+ */
+public class DataAccessLog {
+
+  static final String LOGGER = "com.amigoscode.dataaccess";
+  static final String REDACTED = "****";
+
+  private static final Logger log = LoggerFactory.getLogger(LOGGER);
+  // Covers toString() of both entities (password='…') and records (password=…)
+  private static final Pattern PASSWORD = Pattern.compile(
+      "(?i)(password\\s*[=:]\\s*)('[^']*'|\"[^\"]*\"|[^,}\\])\\s]*)"
+  );
+
+  private final long slowThresholdNanos;
+  private final double defaultSampleRate;
+  private final Map<String, Double> sampleRates;
+
+  public DataAccessLog(long slowThresholdNanos, double defaultSampleRate,
+      Map<String, Double> sampleRates) {
+    this.slowThresholdNanos = slowThresholdNanos;
+    this.defaultSampleRate = defaultSampleRate;
+    this.sampleRates = Map.copyOf(sampleRates);
+  }
+
+  public boolean isSlow(long elapsedNanos) {
+    return elapsedNanos >= slowThresholdNanos;
+  }
+
+  public boolean shouldLog(String statement, long elapsedNanos) {
+    if (isSlow(elapsedNanos)) {
+      return log.isWarnEnabled();
+    }
+    double rate = sampleRates.getOrDefault(statement, defaultSampleRate);
+    return rate > 0 && log.isInfoEnabled()
+        && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+  }
+
+  public void log(String implementation, String statement, long elapsedNanos, long rows,
+      String exception, Object[] args, SqlCapture capture) {
+    boolean slow = isSlow(elapsedNanos);
+    (slow ? log.atWarn() : log.atInfo())
+        .addKeyValue("implementation", implementation)
+        .addKeyValue("statement", statement)
+        .addKeyValue("elapsedMs", TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / 1000.0)
+        .addKeyValue("rows", rows)
+        .addKeyValue("exception", exception)
+        .addKeyValue("slow", slow)
+        .addKeyValue("args", redact(Arrays.deepToString(args)))
+        .addKeyValue("sql", sql(capture))
+        .log(slow ? "Slow data access call" : "Sampled data access call");
+  }
+
+  static String redact(String text) {
+    return PASSWORD.matcher(text).replaceAll("$1" + REDACTED);
+  }
+
+  private static String sql(SqlCapture capture) {
+    String sql = String.join("; ", capture.getStatements());
+    return capture.getOmitted() > 0
+        ? sql + "; ... %d more".formatted(capture.getOmitted())
+        : sql;
+  }
+}
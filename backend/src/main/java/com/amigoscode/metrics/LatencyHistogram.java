@@ -0,0 +1,89 @@
+package com.amigoscode.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds with HDR-style log-linear buckets: values below
+ * 64 are exact, above that every power of two is split into 32 buckets, so any recorded value
+ * is reported within about 3% of itself. Recording is one atomic add per bucket plus striped
+ * adders for count and sum; snapshots read the buckets while recording carries on.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+  private static final int LINEAR_MAGNITUDE = SUB_BUCKET_BITS + 1;
+  // 2^36 µs is about 19 hours; anything longer lands in the last bucket
+  private static final int MAX_MAGNITUDE = 35;
+  static final long MAX_TRACKABLE_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+  static final int BUCKETS = LINEAR_LIMIT
+      + (MAX_MAGNITUDE - LINEAR_MAGNITUDE + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sumMicros = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+  public void recordMicros(long micros) {
+    long value = Math.min(Math.max(micros, 0), MAX_TRACKABLE_MICROS);
+    counts.incrementAndGet(indexOf(value));
+    count.increment();
+    sumMicros.add(value);
+    maxMicros.accumulate(value);
+  }
+
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      total += copy[i];
+    }
+    return new Snapshot(copy, total, sumMicros.sum(), maxMicros.get());
+  }
+
+  static int indexOf(long micros) {
+    if (micros < LINEAR_LIMIT) {
+      return (int) micros;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+    return LINEAR_LIMIT + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKETS + subBucket;
+  }
+
+  // Highest value that shares the bucket, so percentiles never understate latency
+  static long highestEquivalentValue(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int magnitude = (index - LINEAR_LIMIT) / SUB_BUCKETS + LINEAR_MAGNITUDE;
+    long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+    int shift = magnitude - SUB_BUCKET_BITS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  public record Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+
+    public long percentileMicros(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestEquivalentValue(i), maxMicros);
+        }
+      }
+      return maxMicros;
+    }
+
+    public double meanMicros() {
+      return count == 0 ? 0 : (double) sumMicros / count;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.amigoscode.metrics;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+@Endpoint(id = "routelatency")
+public class RouteLatencyEndpoint {
+
+  private final RouteMetricsRegistry registry;
+
+  public RouteLatencyEndpoint(RouteMetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @ReadOperation
+  public List<RouteMetricsRegistry.RouteSnapshot> routes() {
+    return registry.snapshot();
+  }
+}
@@ -0,0 +1,35 @@
+package com.amigoscode.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(
+    name = "customer.route-metrics.enabled", havingValue = "true", matchIfMissing = true
+)
+public class RouteMetricsConfig {
+
+  @Bean
+  public RouteMetricsRegistry routeMetricsRegistry() {
+    return new RouteMetricsRegistry();
+  }
+
+  @Bean
+  public RouteLatencyEndpoint routeLatencyEndpoint(RouteMetricsRegistry routeMetricsRegistry) {
+    return new RouteLatencyEndpoint(routeMetricsRegistry);
+  }
+
+  // Outside the latency budget and the concurrency limiter, so shed requests are counted too
+  @Bean
+  public FilterRegistrationBean<RouteMetricsFilter> routeMetricsFilter(
+      RouteMetricsRegistry routeMetricsRegistry) {
+    FilterRegistrationBean<RouteMetricsFilter> registration = new FilterRegistrationBean<>(
+        new RouteMetricsFilter(routeMetricsRegistry)
+    );
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 3);
+    return registration;
+  }
+}
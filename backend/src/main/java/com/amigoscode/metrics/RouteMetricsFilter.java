@@ -0,0 +1,52 @@
+package com.amigoscode.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records every request into the {@link RouteMetricsRegistry} under the route template Spring
+ * MVC matched. Requests answered before reaching a handler, such as rejected or unknown ones,
+ * are grouped under {@value #UNMATCHED}.
+ */
+public class RouteMetricsFilter extends OncePerRequestFilter {
+
+  static final String UNMATCHED = "UNMATCHED";
+
+  private final RouteMetricsRegistry registry;
+
+  public RouteMetricsFilter(RouteMetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = false;
+    } finally {
+      // Streams such as the change feed only hand their thread back here; their latency is
+      // the stream's lifetime, which would drown out every other route
+      if (!isAsyncStarted(request)) {
+        registry.record(
+            request.getMethod(),
+            routeOf(request),
+            failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(),
+            System.nanoTime() - start
+        );
+      }
+    }
+  }
+
+  private static String routeOf(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : UNMATCHED;
+  }
+}
@@ -0,0 +1,79 @@
+package com.amigoscode.metrics;
+
+import java.util.Comparator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Request counts and latency histograms per method, route template and status. Keys come from
+ * route templates rather than raw paths, and methods outside the standard set share one
+ * {@code OTHER} key, so the number of entries stays bounded.
+ */
+public class RouteMetricsRegistry {
+
+  static final String OTHER_METHOD = "OTHER";
+
+  private static final Set<String> KNOWN_METHODS = Arrays.stream(HttpMethod.values())
+      .map(HttpMethod::name)
+      .collect(Collectors.toUnmodifiableSet());
+
+  private final ConcurrentMap<Route, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+  public void record(String method, String route, int status, long elapsedNanos) {
+    Route key = new Route(
+        KNOWN_METHODS.contains(method) ? method : OTHER_METHOD, route, status
+    );
+    RouteMetrics metrics = routes.get(key);
+    if (metrics == null) {
+      metrics = routes.computeIfAbsent(key, k -> new RouteMetrics());
+    }
+    metrics.requests.increment();
+    metrics.latency.recordMicros(elapsedNanos / 1_000);
+  }
+
+  public List<RouteSnapshot> snapshot() {
+    return routes.entrySet().stream()
+        .map(entry -> RouteSnapshot.of(entry.getKey(), entry.getValue()))
+        .sorted(Comparator.comparing(RouteSnapshot::route)
+            .thenComparing(RouteSnapshot::method)
+            .thenComparingInt(RouteSnapshot::status))
+        .toList();
+  }
+
+  record Route(String method, String route, int status) {
+
+  }
+
+  private static final class RouteMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+  }
+
+  public record RouteSnapshot(String method, String route, int status, long requests,
+                              double meanMicros, long p50Micros, long p90Micros,
+                              long p99Micros, long p999Micros, long maxMicros) {
+
+    static RouteSnapshot of(Route route, RouteMetrics metrics) {
+      LatencyHistogram.Snapshot latency = metrics.latency.snapshot();
+      return new RouteSnapshot(
+          route.method(),
+          route.route(),
+          route.status(),
+          metrics.requests.sum(),
+          latency.meanMicros(),
+          latency.percentileMicros(50),
+          latency.percentileMicros(90),
+          latency.percentileMicros(99),
+          latency.percentileMicros(99.9),
+          latency.maxMicros()
+      );
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.amigoscode.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Per-request phase timings reported in the {@code Server-Timing} response header. Code marks
+ * its phases with {@link #phase(String)}; repeated phases add up, so {@code db} is the time of
+ * every query the request ran. Without an open context, which is the case unless
+ * {@code customer.server-timing.enabled} is set, marking a phase costs one thread-local read.
+ */
+public final class ServerTiming implements AutoCloseable {
+
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+  private static final Phase NO_OP = () -> {
+  };
+
+  private final long startNanos = System.nanoTime();
+  private final ServerTiming previous;
+  private final Map<String, Long> phases = new LinkedHashMap<>();
+  private String openPhase;
+  private long openPhaseStartNanos;
+
+  private ServerTiming(ServerTiming previous) {
+    this.previous = previous;
+  }
+
+  public static ServerTiming start() {
+    ServerTiming timing = new ServerTiming(CURRENT.get());
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  public static ServerTiming current() {
+    return CURRENT.get();
+  }
+
+  public static Phase phase(String name) {
+    ServerTiming timing = CURRENT.get();
+    if (timing == null) {
+      return NO_OP;
+    }
+    long start = System.nanoTime();
+    return () -> timing.add(name, System.nanoTime() - start);
+  }
+
+  public static void record(String name, long nanos) {
+    ServerTiming timing = CURRENT.get();
+    if (timing != null) {
+      timing.add(name, nanos);
+    }
+  }
+
+  // For a phase that runs until the header is written, such as serializing the body
+  public static void begin(String name) {
+    ServerTiming timing = CURRENT.get();
+    if (timing != null) {
+      timing.openPhase = name;
+      timing.openPhaseStartNanos = System.nanoTime();
+    }
+  }
+
+  void add(String name, long nanos) {
+    phases.merge(name, nanos, Long::sum);
+  }
+
+  public Map<String, Long> getPhases() {
+    return phases;
+  }
+
+  public String toHeaderValue() {
+    long now = System.nanoTime();
+    if (openPhase != null) {
+      add(openPhase, now - openPhaseStartNanos);
+      openPhase = null;
+    }
+    StringJoiner header = new StringJoiner(", ");
+    phases.forEach((name, nanos) -> header.add(metric(name, nanos)));
+    header.add(metric("total", now - startNanos));
+    return header.toString();
+  }
+
+  private static String metric(String name, long nanos) {
+    return String.format(Locale.ROOT, "%s;dur=%.3f", name, nanos / 1_000_000.0);
+  }
+
+  @Override
+  public void close() {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  public interface Phase extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+}
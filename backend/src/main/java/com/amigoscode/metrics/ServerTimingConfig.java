@@ -0,0 +1,21 @@
+package com.amigoscode.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+  // Outermost of our filters, so total covers security, shedding and the budget too
+  @Bean
+  public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+    FilterRegistrationBean<ServerTimingFilter> registration =
+        new FilterRegistrationBean<>(new ServerTimingFilter());
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 4);
+    return registration;
+  }
+}
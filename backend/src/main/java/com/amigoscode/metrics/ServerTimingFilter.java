@@ -0,0 +1,57 @@
+package com.amigoscode.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Opens a {@link ServerTiming} for each request and writes it out as the {@code Server-Timing}
+ * header just before the response commits, so the body is never buffered; phases that end
+ * after the commit are not reported.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  static final String SERVER_TIMING = "Server-Timing";
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    try (ServerTiming timing = ServerTiming.start()) {
+      ServerTimingResponse timedResponse = new ServerTimingResponse(response, timing);
+      try {
+        filterChain.doFilter(request, timedResponse);
+      } finally {
+        if (!response.isCommitted()) {
+          timedResponse.writeHeader();
+        }
+      }
+    }
+  }
+
+  private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+    private final ServerTiming timing;
+    private boolean written;
+
+    ServerTimingResponse(HttpServletResponse response, ServerTiming timing) {
+      super(response);
+      this.timing = timing;
+    }
+
+    @Override
+    protected void onResponseCommitted() {
+      writeHeader();
+    }
+
+    void writeHeader() {
+      if (!written) {
+        written = true;
+        setHeader(SERVER_TIMING, timing.toHeaderValue());
+      }
+    }
+  }
+}
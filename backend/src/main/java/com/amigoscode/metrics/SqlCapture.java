@@ -0,0 +1,61 @@
+package com.amigoscode.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the SQL the current thread sends while a capture is open, so a slow call can be
+ * logged together with the statements behind it. Only the first few statements are kept.
+ */
+public final class SqlCapture implements AutoCloseable {
+
+  static final int MAX_STATEMENTS = 10;
+
+  private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+  private final SqlCapture previous;
+  private final List<String> statements = new ArrayList<>(2);
+  private int omitted;
+
+  private SqlCapture(SqlCapture previous) {
+    this.previous = previous;
+  }
+
+  public static SqlCapture start() {
+    SqlCapture capture = new SqlCapture(CURRENT.get());
+    CURRENT.set(capture);
+    return capture;
+  }
+
+  public static void record(String sql) {
+    SqlCapture capture = CURRENT.get();
+    if (capture != null) {
+      capture.add(sql);
+    }
+  }
+
+  private void add(String sql) {
+    if (statements.size() < MAX_STATEMENTS) {
+      statements.add(sql);
+    } else {
+      omitted++;
+    }
+  }
+
+  public List<String> getStatements() {
+    return statements;
+  }
+
+  public int getOmitted() {
+    return omitted;
+  }
+
+  @Override
+  public void close() {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.amigoscode.metrics;
+
+import com.amigoscode.jdbc.JdbcProxies;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Reports the SQL of every statement to the open {@link SqlCapture}: the text handed to
+ * {@code prepareStatement} and {@code prepareCall}, and for plain statements the text passed
+ * to {@code execute*} and {@code addBatch}.
+ */
+public class SqlCaptureDataSource extends DelegatingDataSource {
+
+  public SqlCaptureDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return captured(obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return captured(obtainTargetDataSource().getConnection(username, password));
+  }
+
+  static Connection captured(Connection connection) {
+    return JdbcProxies.proxy(Connection.class, (proxy, method, args) -> {
+      String name = method.getName();
+      if ((name.equals("prepareStatement") || name.equals("prepareCall"))
+          && args[0] instanceof String sql) {
+        SqlCapture.record(sql);
+      }
+      Object result = JdbcProxies.invoke(proxy, connection, method, args);
+      if (name.equals("createStatement") && result instanceof Statement statement) {
+        return captured(statement);
+      }
+      return result;
+    });
+  }
+
+  private static Statement captured(Statement statement) {
+    return JdbcProxies.proxy(Statement.class, (proxy, method, args) -> {
+      String name = method.getName();
+      if ((name.startsWith("execute") || name.equals("addBatch"))
+          && args != null && args[0] instanceof String sql) {
+        SqlCapture.record(sql);
+      }
+      return JdbcProxies.invoke(proxy, statement, method, args);
+    });
+  }
+}
@@ -0,0 +1,71 @@
+package com.amigoscode.security;
+
+import com.amigoscode.jfr.PasswordEncoderEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Times the password hashing behind registration and login as {@code password.encoder}, tagged
+ * by operation and as a {@link PasswordEncoderEvent} for flight recordings. With BCrypt this
+ * is usually the most expensive step of either request.
+ */
+public class InstrumentedPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Timer upgradeEncodingTimer;
+
+  public InstrumentedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.encodeTimer = timer(meterRegistry, "encode");
+    this.matchesTimer = timer(meterRegistry, "matches");
+    this.upgradeEncodingTimer = timer(meterRegistry, "upgradeEncoding");
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    PasswordEncoderEvent event = begin();
+    String encoded = encodeTimer.record(() -> delegate.encode(rawPassword));
+    commit(event, "encode", false);
+    return encoded;
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    PasswordEncoderEvent event = begin();
+    boolean matched = matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    commit(event, "matches", matched);
+    return matched;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return upgradeEncodingTimer.record(() -> delegate.upgradeEncoding(encodedPassword));
+  }
+
+  private static PasswordEncoderEvent begin() {
+    PasswordEncoderEvent event = new PasswordEncoderEvent();
+    event.begin();
+    return event;
+  }
+
+  private static void commit(PasswordEncoderEvent event, String operation, boolean matched) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.matched = matched;
+      event.commit();
+    }
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("password.encoder")
+        .description("Time spent hashing and checking passwords")
+        .tag("operation", operation)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -43,9 +43,14 @@ public class SecurityFilterChainConfig {
         .permitAll()
         .requestMatchers(
             HttpMethod.GET,
-            "/ping"
+            "/ping",
+            "/actuator/health",
+            "/actuator/prometheus"
         )
         .permitAll()
+        // Flight recordings, metrics and route latencies are for operators only
+        .requestMatchers("/actuator/**")
+        .hasRole("ADMIN")
         .anyRequest()
         .authenticated()
         .and()
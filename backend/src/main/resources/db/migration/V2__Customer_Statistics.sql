@@ -0,0 +1,12 @@
+CREATE TABLE customer_statistics
+(
+    gender TEXT   NOT NULL,
+    age    INT    NOT NULL,
+    total  BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (gender, age)
+);
+
+INSERT INTO customer_statistics (gender, age, total)
+SELECT gender, age, count(*)
+FROM customer
+GROUP BY gender, age;
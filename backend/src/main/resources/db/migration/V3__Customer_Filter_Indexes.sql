@@ -0,0 +1,9 @@
+CREATE INDEX customer_gender_age_idx ON customer (gender, age, id);
+
+CREATE INDEX customer_age_idx ON customer (age, id);
+
+CREATE INDEX customer_name_idx ON customer (name, id);
+
+CREATE INDEX customer_lower_name_prefix_idx ON customer (lower(name) text_pattern_ops);
+
+CREATE INDEX customer_lower_email_prefix_idx ON customer (lower(email) text_pattern_ops);
@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX customer_name_trgm_idx ON customer USING gin (name gin_trgm_ops);
+
+CREATE INDEX customer_email_trgm_idx ON customer USING gin (email gin_trgm_ops);
@@ -0,0 +1,19 @@
+-- Writers append changes without a seq and without touching a shared row. The change feed
+-- poller hands out seqs to committed changes under an advisory lock, so seqs become visible
+-- in order and readers never skip one.
+CREATE SEQUENCE customer_change_seq;
+
+CREATE TABLE customer_change
+(
+    id          BIGSERIAL PRIMARY KEY,
+    seq         BIGINT,
+    customer_id INTEGER     NOT NULL,
+    type        TEXT        NOT NULL,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX customer_change_seq_idx ON customer_change (seq);
+
+CREATE INDEX customer_change_unsequenced_idx ON customer_change (id) WHERE seq IS NULL;
+
+CREATE INDEX customer_change_changed_at_idx ON customer_change (changed_at);
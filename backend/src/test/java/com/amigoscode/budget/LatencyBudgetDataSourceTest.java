@@ -0,0 +1,107 @@
+package com.amigoscode.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LatencyBudgetDataSourceTest {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement statement = mock(PreparedStatement.class);
+  private final LatencyBudgetDataSource underTest = new LatencyBudgetDataSource(target);
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+  }
+
+  @Test
+  void leavesStatementsAloneWithoutBudget() throws SQLException {
+    // When
+    underTest.getConnection().prepareStatement("SELECT 1");
+
+    // Then
+    verify(statement, never()).setQueryTimeout(anyInt());
+  }
+
+  @Test
+  void appliesRemainingBudgetAsQueryTimeout() throws SQLException {
+    // When
+    try (LatencyBudget ignored = LatencyBudget.start(Duration.ofMillis(300))) {
+      underTest.getConnection().prepareStatement("SELECT 1");
+    }
+
+    // Then
+    verify(statement).setQueryTimeout(1);
+  }
+
+  @Test
+  void refusesStatementsOnceBudgetIsSpent() throws SQLException {
+    // Given
+    LatencyBudget budget = LatencyBudget.start(Duration.ZERO);
+    Connection budgeted = underTest.getConnection();
+
+    try {
+      // When
+      // Then
+      assertThatThrownBy(() -> budgeted.prepareStatement("SELECT 1"))
+          .isInstanceOf(SQLTimeoutException.class);
+      verify(statement).close();
+      assertThat(budget.isExceeded()).isTrue();
+    } finally {
+      budget.close();
+    }
+  }
+
+  @Test
+  void translatesCancellationToTimeout() throws SQLException {
+    // Given
+    when(statement.executeQuery()).thenThrow(new SQLException(
+        "canceling statement due to statement timeout", LatencyBudgetDataSource.QUERY_CANCELED
+    ));
+    LatencyBudget budget = LatencyBudget.start(Duration.ofSeconds(5));
+
+    try {
+      PreparedStatement budgeted = underTest.getConnection().prepareStatement("SELECT 1");
+
+      // When
+      // Then
+      assertThatThrownBy(budgeted::executeQuery)
+          .isInstanceOf(SQLTimeoutException.class)
+          .hasMessageContaining("statement timeout");
+      assertThat(budget.isExceeded()).isTrue();
+    } finally {
+      budget.close();
+    }
+    assertThat(LatencyBudget.current()).isNull();
+  }
+
+  @Test
+  void proxiesKeepTheirOwnIdentity() throws SQLException {
+    // When
+    Connection budgeted = underTest.getConnection();
+    PreparedStatement first = budgeted.prepareStatement("SELECT 1");
+    PreparedStatement second = budgeted.prepareStatement("SELECT 1");
+
+    // Then
+    assertThat(first).isEqualTo(first).isNotEqualTo(second);
+    assertThat(first.hashCode()).isEqualTo(System.identityHashCode(first));
+    assertThat(budgeted).isEqualTo(budgeted);
+  }
+}
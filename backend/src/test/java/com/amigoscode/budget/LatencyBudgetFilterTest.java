@@ -0,0 +1,56 @@
+package com.amigoscode.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class LatencyBudgetFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final LatencyBudgetFilter underTest = new LatencyBudgetFilter(
+      Map.of(
+          "GET /api/v1/customers/{customerId}", Duration.ofMillis(300),
+          "GET /api/v1/customers/search", Duration.ofMillis(500)
+      ),
+      Duration.ofSeconds(2),
+      meterRegistry
+  );
+
+  @Test
+  void mostSpecificEndpointWins() {
+    // When
+    // Then
+    assertThat(budgetFor("GET", "/api/v1/customers/search")).isEqualTo(Duration.ofMillis(500));
+    assertThat(budgetFor("GET", "/api/v1/customers/7")).isEqualTo(Duration.ofMillis(300));
+    assertThat(budgetFor("PUT", "/api/v1/customers/7")).isEqualTo(Duration.ofSeconds(2));
+    assertThat(budgetFor("GET", "/ping")).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void opensBudgetForTheRequestAndCountsOverruns() throws Exception {
+    // Given
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/7");
+
+    // When
+    underTest.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      assertThat(LatencyBudget.current().getBudget()).isEqualTo(Duration.ofMillis(300));
+      LatencyBudget.current().markExceeded();
+    });
+
+    // Then
+    assertThat(LatencyBudget.current()).isNull();
+    assertThat(meterRegistry.get("latency.budget.exceeded")
+        .tag("endpoint", "GET /api/v1/customers/{customerId}")
+        .counter()
+        .count()).isEqualTo(1);
+  }
+
+  private Duration budgetFor(String method, String uri) {
+    return underTest.endpointFor(new MockHttpServletRequest(method, uri)).budget();
+  }
+}
@@ -0,0 +1,137 @@
+package com.amigoscode.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.auth.AuthenticationResponse;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.Gender;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class CustomerProtobufHttpMessageConverterTest {
+
+  private static final Type CUSTOMER_LIST =
+      new ParameterizedTypeReference<List<CustomerDTO>>() {
+      }.getType();
+
+  private final CustomerProtobufHttpMessageConverter underTest =
+      new CustomerProtobufHttpMessageConverter();
+
+  @Test
+  void canRoundTripCustomer() throws IOException {
+    // Given
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.FEMALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+
+    // When
+    Object actual = roundTrip(customer, CustomerDTO.class);
+
+    // Then
+    assertThat(actual).isEqualTo(customer);
+  }
+
+  @Test
+  void keepsSparseFieldsAbsent() throws IOException {
+    // Given
+    CustomerDTO customer = new CustomerDTO(1, "Alex", null, null, null, null, null);
+
+    // When
+    Object actual = roundTrip(customer, CustomerDTO.class);
+
+    // Then
+    assertThat(actual).isEqualTo(customer);
+  }
+
+  @Test
+  void writesGenderAsDeclaredInTheProtoFile() throws IOException {
+    // Given
+    MockHttpOutputMessage male = new MockHttpOutputMessage();
+    MockHttpOutputMessage female = new MockHttpOutputMessage();
+
+    // When
+    underTest.write(new CustomerDTO(null, null, null, Gender.MALE, null, null, null),
+        CustomerDTO.class, CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF, male);
+    underTest.write(new CustomerDTO(null, null, null, Gender.FEMALE, null, null, null),
+        CustomerDTO.class, CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF, female);
+
+    // Then
+    assertThat(male.getBodyAsBytes()).containsExactly(0x20, 1);
+    assertThat(female.getBodyAsBytes()).containsExactly(0x20, 2);
+  }
+
+  @Test
+  void canRoundTripCustomerList() throws IOException {
+    // Given
+    List<CustomerDTO> customers = List.of(
+        new CustomerDTO(1, "Alex", "alex@gmail.com", Gender.MALE, 19,
+            List.of("ROLE_USER"), "alex@gmail.com"),
+        new CustomerDTO(2, "Jamila", "jamila@gmail.com", Gender.FEMALE, 21,
+            List.of("ROLE_USER", "ROLE_ADMIN"), "jamila@gmail.com")
+    );
+
+    // When
+    Object actual = roundTrip(customers, CUSTOMER_LIST);
+
+    // Then
+    assertThat(actual).isEqualTo(customers);
+  }
+
+  @Test
+  void canRoundTripAuthenticationMessages() throws IOException {
+    // Given
+    AuthenticationRequest request = new AuthenticationRequest("alex@gmail.com", "password");
+    AuthenticationResponse response = new AuthenticationResponse(
+        "token",
+        new CustomerDTO(1, "Alex", "alex@gmail.com", Gender.MALE, 19,
+            List.of("ROLE_USER"), "alex@gmail.com")
+    );
+
+    // When
+    // Then
+    assertThat(roundTrip(request, AuthenticationRequest.class)).isEqualTo(request);
+    assertThat(roundTrip(response, AuthenticationResponse.class)).isEqualTo(response);
+  }
+
+  @Test
+  void onlyHandlesCustomerMessages() {
+    // When
+    // Then
+    assertThat(underTest.canWrite(
+        CUSTOMER_LIST, List.class, CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF
+    )).isTrue();
+    assertThat(underTest.canWrite(
+        CustomerDTO.class, CustomerDTO.class, MediaType.APPLICATION_JSON
+    )).isFalse();
+    assertThat(underTest.canWrite(
+        String.class, String.class, CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF
+    )).isFalse();
+  }
+
+  @Test
+  void refusesToWriteUnsupportedBodies() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.write("Alex", String.class,
+        CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF, new MockHttpOutputMessage()))
+        .isInstanceOf(HttpMessageNotWritableException.class);
+  }
+
+  private Object roundTrip(Object value, Type type) throws IOException {
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    underTest.write(value, type, CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF,
+        output);
+    assertThat(output.getHeaders().getContentType())
+        .isEqualTo(CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+    return underTest.read(type, null, new MockHttpInputMessage(output.getBodyAsBytes()));
+  }
+}
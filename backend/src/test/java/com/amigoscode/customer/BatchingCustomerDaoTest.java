@@ -0,0 +1,247 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amigoscode.Exception.ServiceUnavailableException;
+import com.amigoscode.budget.LatencyBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingCustomerDaoTest {
+
+  @Mock
+  private CustomerDao delegate;
+  private BatchingCustomerDao underTest;
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @BeforeEach
+  void setUp() {
+    underTest = new BatchingCustomerDao(
+        delegate, 3, Duration.ofSeconds(5), 100, new SimpleMeterRegistry()
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    underTest.stop();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentInsertsAreWrittenAsOneBatch() throws Exception {
+    // Given
+    when(delegate.insertCustomers(anyList())).thenAnswer(invocation -> {
+      List<Customer> customers = invocation.getArgument(0);
+      for (int i = 0; i < customers.size(); i++) {
+        customers.get(i).setId(i + 1);
+      }
+      return customers;
+    });
+    underTest.start();
+    List<Customer> customers = List.of(
+        customer("alex@gmail.com"), customer("jamila@gmail.com"), customer("ali@gmail.com")
+    );
+
+    // When
+    List<Future<?>> results = new ArrayList<>();
+    for (Customer customer : customers) {
+      results.add(executor.submit(() -> underTest.insertCustomer(customer)));
+    }
+    for (Future<?> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+
+    // Then
+    verify(delegate).insertCustomers(anyList());
+    verify(delegate, never()).insertCustomer(any());
+    assertThat(customers).extracting(Customer::getId).doesNotContainNull();
+  }
+
+  @Test
+  void skippedCustomerFailsWithDuplicateKey() {
+    // Given
+    Customer customer = customer("alex@gmail.com");
+    when(delegate.insertCustomers(List.of(customer))).thenReturn(List.of());
+    BatchingCustomerDao.PendingInsert pending = new BatchingCustomerDao.PendingInsert(
+        customer, new CompletableFuture<>()
+    );
+
+    // When
+    underTest.flush(List.of(pending));
+
+    // Then
+    assertThat(pending.result()).isCompletedExceptionally();
+    assertThatThrownBy(() -> pending.result().join())
+        .hasCauseInstanceOf(DuplicateKeyException.class);
+  }
+
+  @Test
+  void failedBatchIsRetriedRowByRow() {
+    // Given
+    Customer valid = customer("alex@gmail.com");
+    Customer invalid = customer("jamila@gmail.com");
+    when(delegate.insertCustomers(List.of(valid, invalid)))
+        .thenThrow(new DataIntegrityViolationException("customer_age_check"));
+    lenient().doThrow(new DataIntegrityViolationException("customer_age_check"))
+        .when(delegate).insertCustomer(invalid);
+    BatchingCustomerDao.PendingInsert first = new BatchingCustomerDao.PendingInsert(
+        valid, new CompletableFuture<>()
+    );
+    BatchingCustomerDao.PendingInsert second = new BatchingCustomerDao.PendingInsert(
+        invalid, new CompletableFuture<>()
+    );
+
+    // When
+    underTest.flush(List.of(first, second));
+
+    // Then
+    verify(delegate).insertCustomer(valid);
+    assertThat(first.result()).isCompleted().isNotCompletedExceptionally();
+    assertThat(second.result()).isCompletedExceptionally();
+  }
+
+  @Test
+  void rowsCommittedBeforeTheBatchFailedAreNotInsertedAgain() {
+    // Given
+    Customer committed = customer("alex@gmail.com");
+    Customer rejected = customer("jamila@gmail.com");
+    when(delegate.insertCustomers(anyList())).thenAnswer(invocation -> {
+      committed.setId(1);
+      throw new DataIntegrityViolationException("customer_age_check");
+    });
+    when(delegate.existsPersonWithId(1)).thenReturn(true);
+    doThrow(new DataIntegrityViolationException("customer_age_check"))
+        .when(delegate).insertCustomer(rejected);
+    BatchingCustomerDao.PendingInsert first = new BatchingCustomerDao.PendingInsert(
+        committed, new CompletableFuture<>()
+    );
+    BatchingCustomerDao.PendingInsert second = new BatchingCustomerDao.PendingInsert(
+        rejected, new CompletableFuture<>()
+    );
+
+    // When
+    underTest.flush(List.of(first, second));
+
+    // Then
+    verify(delegate, never()).insertCustomer(committed);
+    assertThat(first.result()).isCompleted().isNotCompletedExceptionally();
+    assertThat(second.result()).isCompletedExceptionally();
+  }
+
+  @Test
+  void flusherSurvivesUnexpectedErrors() throws Exception {
+    // Given
+    when(delegate.insertCustomers(anyList()))
+        .thenThrow(new StackOverflowError())
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    underTest = new BatchingCustomerDao(
+        delegate, 3, Duration.ofMillis(10), 100, new SimpleMeterRegistry()
+    );
+    underTest.start();
+
+    // When
+    Future<?> failed = executor.submit(() -> underTest.insertCustomer(customer("alex@gmail.com")));
+    assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(IllegalStateException.class);
+    Future<?> next = executor.submit(() -> underTest.insertCustomer(customer("ali@gmail.com")));
+
+    // Then
+    next.get(10, TimeUnit.SECONDS);
+    verify(delegate, never()).insertCustomer(any());
+  }
+
+  @Test
+  void waitIsBoundedByTheLatencyBudget() throws Exception {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    when(delegate.insertCustomers(anyList())).thenAnswer(invocation -> {
+      release.await();
+      return invocation.getArgument(0);
+    });
+    underTest = new BatchingCustomerDao(
+        delegate, 1, Duration.ofMillis(10), 1, new SimpleMeterRegistry()
+    );
+    underTest.start();
+    Future<?> first = executor.submit(() -> underTest.insertCustomer(customer("alex@gmail.com")));
+
+    // When
+    // Then
+    try (LatencyBudget ignored = LatencyBudget.start(Duration.ofMillis(200))) {
+      assertThatThrownBy(() -> underTest.insertCustomer(customer("ali@gmail.com")))
+          .isInstanceOf(ServiceUnavailableException.class);
+    }
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void rejectsInsertsWhileTheQueueIsFull() throws Exception {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    when(delegate.insertCustomers(anyList())).thenAnswer(invocation -> {
+      release.await();
+      return invocation.getArgument(0);
+    });
+    underTest = new BatchingCustomerDao(
+        delegate, 1, Duration.ofMillis(10), 1, new SimpleMeterRegistry()
+    );
+    underTest.start();
+    Future<?> flushing = executor.submit(() -> underTest.insertCustomer(customer("alex@gmail.com")));
+    Thread.sleep(100);
+    Future<?> queued = executor.submit(() -> underTest.insertCustomer(customer("ali@gmail.com")));
+    Thread.sleep(100);
+
+    // When
+    // Then
+    try (LatencyBudget ignored = LatencyBudget.start(Duration.ofMillis(200))) {
+      assertThatThrownBy(() -> underTest.insertCustomer(customer("amy@gmail.com")))
+          .isInstanceOf(ServiceUnavailableException.class)
+          .hasMessage("Too many customer inserts queued, retry later");
+    }
+    release.countDown();
+    flushing.get(5, TimeUnit.SECONDS);
+    queued.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void insertsDirectlyWhenNotRunning() {
+    // Given
+    Customer customer = customer("alex@gmail.com");
+
+    // When
+    underTest.insertCustomer(customer);
+
+    // Then
+    verify(delegate).insertCustomer(customer);
+    verify(delegate, never()).insertCustomers(anyList());
+  }
+
+  private static Customer customer(String email) {
+    return new Customer("Alex", email, "password", 19, Gender.MALE);
+  }
+}
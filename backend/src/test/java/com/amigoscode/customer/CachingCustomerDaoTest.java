@@ -0,0 +1,210 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCustomerDaoTest {
+
+  @Mock
+  private CustomerDao delegate;
+  private CachingCustomerDao underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new CachingCustomerDao(delegate, 100, Duration.ofMinutes(5));
+  }
+
+  @Test
+  void selectCustomerByIdLoadsOnceAndReturnsCopies() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+    // When
+    Customer first = underTest.selectCustomerById(1).orElseThrow();
+    first.setName("Changed");
+    Customer second = underTest.selectCustomerById(1).orElseThrow();
+
+    // Then
+    verify(delegate, times(1)).selectCustomerById(1);
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.getName()).isEqualTo("Alex");
+    assertThat(underTest.existsPersonWithId(1)).isTrue();
+  }
+
+  @Test
+  void projectedReadsBypassTheCache() {
+    // Given
+    Set<CustomerField> fields = Set.of(CustomerField.NAME);
+    Customer customer = new Customer(1, "Alex", null, null, null, null);
+    when(delegate.selectCustomerById(1, fields)).thenReturn(Optional.of(customer));
+
+    // When
+    Optional<Customer> actual = underTest.selectCustomerById(1, fields);
+
+    // Then
+    assertThat(actual).hasValueSatisfying(
+        projected -> assertThat(projected.getName()).isEqualTo("Alex")
+    );
+    assertThat(underTest.customersById().estimatedSize()).isZero();
+  }
+
+  @Test
+  void missingCustomerIsCachedUntilInserted() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(delegate.selectCustomerById(1))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(customer));
+
+    // When
+    boolean before = underTest.existsPersonWithId(1);
+    boolean cached = underTest.existsPersonWithId(1);
+    underTest.insertCustomer(customer);
+    boolean after = underTest.existsPersonWithId(1);
+
+    // Then
+    assertThat(before).isFalse();
+    assertThat(cached).isFalse();
+    assertThat(after).isTrue();
+    verify(delegate, times(2)).selectCustomerById(1);
+  }
+
+  @Test
+  void updateInvalidatesCustomer() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    Customer updated = new Customer(1, "Alex", "alex@gmail.com", "password", 20, Gender.MALE);
+    when(delegate.selectCustomerById(1))
+        .thenReturn(Optional.of(customer))
+        .thenReturn(Optional.of(updated));
+    underTest.selectCustomerById(1);
+
+    // When
+    underTest.updateCustomer(updated);
+
+    // Then
+    assertThat(underTest.selectCustomerById(1)).hasValueSatisfying(
+        actual -> assertThat(actual.getAge()).isEqualTo(20)
+    );
+  }
+
+  @Test
+  void versionReadEvictsRowChangedElsewhere() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    customer.setVersion(1L);
+    Customer updated = new Customer(1, "Alex", "alex@gmail.com", "password", 20, Gender.MALE);
+    updated.setVersion(2L);
+    when(delegate.selectCustomerById(1))
+        .thenReturn(Optional.of(customer))
+        .thenReturn(Optional.of(updated));
+    when(delegate.selectCustomerVersion(1)).thenReturn(Optional.of(2L));
+    underTest.selectCustomerById(1);
+
+    // When
+    Optional<Long> version = underTest.selectCustomerVersion(1);
+
+    // Then
+    assertThat(version).hasValue(2L);
+    assertThat(underTest.selectCustomerById(1)).hasValueSatisfying(
+        actual -> assertThat(actual.getVersion()).isEqualTo(2L)
+    );
+  }
+
+  @Test
+  void emailLookupFollowsEmailChange() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    Customer renamed = new Customer(
+        1, "Alex", "alex@amigoscode.com", "password", 19, Gender.MALE
+    );
+    when(delegate.selectUserByEmail("alex@gmail.com"))
+        .thenReturn(Optional.of(customer))
+        .thenReturn(Optional.empty());
+    when(delegate.selectCustomerById(1))
+        .thenReturn(Optional.of(customer))
+        .thenReturn(Optional.of(renamed));
+    assertThat(underTest.existsPersonWithEmail("alex@gmail.com")).isTrue();
+
+    // When
+    // another node changed the email; only the id reaches this node
+    underTest.invalidate(List.of(new CustomerInvalidation(1, null)));
+
+    // Then
+    assertThat(underTest.selectUserByEmail("alex@gmail.com")).isEmpty();
+    verify(delegate, times(2)).selectUserByEmail("alex@gmail.com");
+  }
+
+  @Test
+  void invalidateAllClearsBothCaches() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(delegate.selectUserByEmail("alex@gmail.com")).thenReturn(Optional.of(customer));
+    when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+    underTest.selectUserByEmail("alex@gmail.com");
+
+    // When
+    underTest.invalidateAll();
+    underTest.selectUserByEmail("alex@gmail.com");
+
+    // Then
+    verify(delegate, times(2)).selectUserByEmail("alex@gmail.com");
+    verify(delegate, times(2)).selectCustomerById(1);
+  }
+
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    // Given
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(delegate.selectCustomerById(1)).thenAnswer(invocation -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return Optional.of(customer);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    try {
+      // When
+      List<Future<Optional<Customer>>> results = new ArrayList<>();
+      results.add(executor.submit(() -> underTest.selectCustomerById(1)));
+      assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+      for (int i = 0; i < 7; i++) {
+        results.add(executor.submit(() -> underTest.selectCustomerById(1)));
+      }
+      release.countDown();
+
+      // Then
+      for (Future<Optional<Customer>> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isPresent();
+      }
+      assertThat(loads).hasValue(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeFeedTest {
+
+  @Mock
+  private CustomerDao customerDao;
+  private CustomerChangeFeed underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new CustomerChangeFeed(
+        customerDao,
+        new CustomerDTOMapper(),
+        new ObjectMapper().registerModule(new JavaTimeModule()),
+        Duration.ofMinutes(1),
+        Duration.ofHours(1),
+        Duration.ofDays(7),
+        100,
+        Runnable::run
+    );
+  }
+
+  @Test
+  void replaysChangesAfterCursorToEverySubscriber() {
+    // Given
+    Instant now = Instant.now();
+    Customer customer = new Customer(7, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(customerDao.selectOldestChangeSeq()).thenReturn(Optional.of(1L));
+    when(customerDao.selectCollectionVersion())
+        .thenReturn(new CustomerCollectionVersion(12, 0));
+    when(customerDao.selectChangesSince(10L, CustomerChangeFeed.BATCH_SIZE)).thenReturn(List.of(
+        new CustomerChange(11, 7, CustomerChangeType.UPDATED, now),
+        new CustomerChange(12, 8, CustomerChangeType.DELETED, now)
+    ));
+    when(customerDao.selectCustomersByIds(anyCollection())).thenReturn(List.of(customer));
+    RecordingEmitter behind = new RecordingEmitter();
+    RecordingEmitter live = new RecordingEmitter();
+    underTest.subscribe(behind, 10L);
+    underTest.subscribe(live, 11L);
+
+    // When
+    underTest.poll();
+
+    // Then
+    assertThat(behind.events).hasSize(2);
+    assertThat(behind.events.get(0))
+        .contains("id:11", "event:change", "\"type\":\"UPDATED\"", "\"name\":\"Alex\"");
+    assertThat(behind.events.get(1))
+        .contains("id:12", "\"type\":\"DELETED\"", "\"customerId\":8")
+        .doesNotContain("\"customer\"");
+    assertThat(live.events).hasSize(1);
+    assertThat(live.events.get(0)).contains("id:12");
+  }
+
+  @Test
+  void resetsCursorOlderThanRetainedLog() {
+    // Given
+    when(customerDao.selectOldestChangeSeq()).thenReturn(Optional.of(50L));
+    when(customerDao.selectCollectionVersion())
+        .thenReturn(new CustomerCollectionVersion(60, 0));
+    when(customerDao.selectChangesSince(60L, CustomerChangeFeed.BATCH_SIZE))
+        .thenReturn(List.of());
+    RecordingEmitter emitter = new RecordingEmitter();
+    underTest.subscribe(emitter, 3L);
+
+    // When
+    underTest.poll();
+
+    // Then
+    assertThat(emitter.events).singleElement().asString()
+        .contains("id:60", "event:reset");
+  }
+
+  @Test
+  void dropsSubscriberWhoseConnectionFailed() {
+    // Given
+    when(customerDao.selectOldestChangeSeq()).thenReturn(Optional.of(1L));
+    when(customerDao.selectCollectionVersion())
+        .thenReturn(new CustomerCollectionVersion(11, 0));
+    when(customerDao.selectChangesSince(10L, CustomerChangeFeed.BATCH_SIZE)).thenReturn(List.of(
+        new CustomerChange(11, 8, CustomerChangeType.DELETED, Instant.now())
+    ));
+    RecordingEmitter emitter = new RecordingEmitter();
+    emitter.failing = true;
+    underTest.subscribe(emitter, 10L);
+
+    // When
+    underTest.poll();
+
+    // Then
+    assertThat(underTest.subscriberCount()).isZero();
+    verify(customerDao, never()).selectCustomersByIds(anyCollection());
+  }
+
+  @Test
+  void dropsSubscriberThatFallsBehind() {
+    // Given
+    List<Runnable> stalledSends = new ArrayList<>();
+    underTest = new CustomerChangeFeed(
+        customerDao,
+        new CustomerDTOMapper(),
+        new ObjectMapper().registerModule(new JavaTimeModule()),
+        Duration.ofMinutes(1),
+        Duration.ofHours(1),
+        Duration.ofDays(7),
+        1,
+        stalledSends::add
+    );
+    Instant now = Instant.now();
+    when(customerDao.selectOldestChangeSeq()).thenReturn(Optional.of(1L));
+    when(customerDao.selectCollectionVersion())
+        .thenReturn(new CustomerCollectionVersion(12, 0));
+    when(customerDao.selectChangesSince(10L, CustomerChangeFeed.BATCH_SIZE)).thenReturn(List.of(
+        new CustomerChange(11, 7, CustomerChangeType.DELETED, now),
+        new CustomerChange(12, 8, CustomerChangeType.DELETED, now)
+    ));
+    RecordingEmitter emitter = new RecordingEmitter();
+    underTest.subscribe(emitter, 10L);
+
+    // When
+    underTest.poll();
+
+    // Then
+    assertThat(underTest.subscriberCount()).isZero();
+    assertThat(emitter.events).isEmpty();
+  }
+
+  @Test
+  void onlySequencesChangesWithoutSubscribers() {
+    // When
+    underTest.poll();
+
+    // Then
+    verify(customerDao).sequenceChanges();
+    verify(customerDao, never()).selectChangesSince(anyLong(), anyInt());
+  }
+
+  private static final class RecordingEmitter extends SseEmitter {
+
+    private final List<String> events = new ArrayList<>();
+    private boolean failing;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (failing) {
+        throw new IOException("Broken pipe");
+      }
+      events.add(builder.build()
+          .stream()
+          .map(data -> String.valueOf(data.getData()))
+          .collect(Collectors.joining()));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amigoscode.Exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+class CustomerFieldTest {
+
+  @Test
+  void parseDefaultsToAllFields() {
+    assertThat(CustomerField.parse(null)).isEqualTo(CustomerField.ALL);
+    assertThat(CustomerField.parse(" ")).isEqualTo(CustomerField.ALL);
+  }
+
+  @Test
+  void parseIsCaseInsensitive() {
+    assertThat(CustomerField.parse("Name, USERNAME"))
+        .containsExactlyInAnyOrder(CustomerField.NAME, CustomerField.USERNAME);
+  }
+
+  @Test
+  void willThrowWhenFieldIsUnknown() {
+    assertThatThrownBy(() -> CustomerField.parse("name,password"))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("fields must be a comma separated list of "
+            + "id, name, email, gender, age, roles, username");
+  }
+
+  @Test
+  void columnsAlwaysIncludeIdAndVersionAndSkipDerivedFields() {
+    assertThat(CustomerField.columns(CustomerField.parse("roles,username")))
+        .containsExactly("id", "version", "email");
+  }
+}
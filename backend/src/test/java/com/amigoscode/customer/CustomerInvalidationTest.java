@@ -0,0 +1,41 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class CustomerInvalidationTest {
+
+  @Test
+  void payloadRoundTrips() {
+    // Given
+    CustomerInvalidation invalidation = new CustomerInvalidation(42, "alex,jr@gmail.com");
+
+    // When
+    String payload = invalidation.toPayload();
+
+    // Then
+    assertThat(payload).isEqualTo("42,alex,jr@gmail.com");
+    assertThat(CustomerInvalidation.fromPayload(payload)).isEqualTo(invalidation);
+  }
+
+  @Test
+  void payloadWithoutEmailKeepsId() {
+    // When
+    // Then
+    assertThat(CustomerInvalidation.fromPayload("7,"))
+        .isEqualTo(new CustomerInvalidation(7, null));
+    assertThat(CustomerInvalidation.fromPayload("7"))
+        .isEqualTo(new CustomerInvalidation(7, null));
+    assertThat(new CustomerInvalidation(7, null).toPayload()).isEqualTo("7,");
+  }
+
+  @Test
+  void rejectsMalformedPayload() {
+    // When
+    // Then
+    assertThatThrownBy(() -> CustomerInvalidation.fromPayload("abc,alex@gmail.com"))
+        .isInstanceOf(NumberFormatException.class);
+  }
+}
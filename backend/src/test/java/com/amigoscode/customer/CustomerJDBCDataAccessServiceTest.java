@@ -1,6 +1,7 @@
 package com.amigoscode.customer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.amigoscode.AbstractTestContainers;
 import java.util.List;
@@ -8,6 +9,7 @@ import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
 
 class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
 
@@ -18,7 +20,8 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
   void setUp() {
     underTest = new CustomerJDBCDataAccessService(
         getJdbcTemplate(),
-        customerRowMapper
+        customerRowMapper,
+        new CustomerSummaryDataAccessService(getJdbcTemplate())
     );
   }
 
@@ -40,6 +43,74 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
     assertThat(actual).isNotEmpty();
   }
 
+  @Test
+  void selectCustomersAppliesFiltersAndSort() {
+    // Given
+    String prefix = UUID.randomUUID().toString();
+    Customer younger = new Customer(
+        "Zed " + prefix,
+        prefix + "_younger@amigoscode.com",
+        "password", 20,
+        Gender.FEMALE
+    );
+    Customer older = new Customer(
+        "Amy " + prefix,
+        prefix + "_older@amigoscode.com",
+        "password", 40,
+        Gender.FEMALE
+    );
+    Customer otherGender = new Customer(
+        "Bob " + prefix,
+        prefix + "_male@amigoscode.com",
+        "password", 30,
+        Gender.MALE
+    );
+    underTest.insertCustomer(younger);
+    underTest.insertCustomer(older);
+    underTest.insertCustomer(otherGender);
+
+    CustomerFilter filter = new CustomerFilter(
+        Gender.FEMALE, 18, 50, null, prefix.toUpperCase(),
+        CustomerSortKey.AGE, Sort.Direction.DESC
+    );
+
+    // When
+    List<Customer> actual = underTest.selectCustomers(filter);
+
+    // Then
+    assertThat(actual)
+        .extracting(Customer::getEmail)
+        .containsExactly(older.getEmail(), younger.getEmail());
+  }
+
+  @Test
+  void searchCustomersRanksClosestMatchFirst() {
+    // Given
+    String token = UUID.randomUUID().toString().substring(0, 8);
+    Customer exact = new Customer(
+        "Jamila " + token,
+        token + "_exact@amigoscode.com",
+        "password", 20,
+        Gender.FEMALE
+    );
+    Customer partial = new Customer(
+        "Jamila Ahmed " + token + " Junior",
+        token + "_partial@amigoscode.com",
+        "password", 20,
+        Gender.FEMALE
+    );
+    underTest.insertCustomer(partial);
+    underTest.insertCustomer(exact);
+
+    // When
+    List<Customer> actual = underTest.searchCustomers("jamila " + token, 10, 0);
+
+    // Then
+    assertThat(actual)
+        .extracting(Customer::getEmail)
+        .containsExactly(exact.getEmail(), partial.getEmail());
+  }
+
   @Test
   void selectCustomerById() {
     // Given
@@ -71,6 +142,60 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
     });
   }
 
+  @Test
+  void selectCustomerByIdWithSparseFields() {
+    // Given
+    Customer customer = new Customer(
+        FAKER.name().fullName(),
+        FAKER.internet().emailAddress() + "_" + UUID.randomUUID(),
+        "password", 20,
+        Gender.MALE
+    );
+    underTest.insertCustomer(customer);
+
+    // When
+    Optional<Customer> actual = underTest.selectCustomerById(
+        customer.getId(), CustomerField.parse("name")
+    );
+
+    // Then
+    assertThat(actual).hasValueSatisfying(c -> {
+      assertThat(c.getId()).isEqualTo(customer.getId());
+      assertThat(c.getName()).isEqualTo(customer.getName());
+      assertThat(c.getEmail()).isNull();
+      assertThat(c.getPassword()).isNull();
+    });
+  }
+
+  @Test
+  void selectCustomersByIds() {
+    // Given
+    Customer first = new Customer(
+        FAKER.name().fullName(),
+        FAKER.internet().emailAddress() + "_" + UUID.randomUUID(),
+        "password", 20,
+        Gender.MALE
+    );
+    Customer second = new Customer(
+        FAKER.name().fullName(),
+        FAKER.internet().emailAddress() + "_" + UUID.randomUUID(),
+        "password", 30,
+        Gender.FEMALE
+    );
+    underTest.insertCustomer(first);
+    underTest.insertCustomer(second);
+
+    // When
+    List<Customer> actual = underTest.selectCustomersByIds(
+        List.of(first.getId(), second.getId(), -1)
+    );
+
+    // Then
+    assertThat(actual)
+        .extracting(Customer::getEmail)
+        .containsExactlyInAnyOrder(first.getEmail(), second.getEmail());
+  }
+
   @Test
   void willReturnEmptyWhenSelectCustomerById() {
     // Given
@@ -92,6 +217,35 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
     // Then
   }
 
+  @Test
+  void insertCustomersSkipsTakenEmails() {
+    // Given
+    String taken = FAKER.internet().emailAddress() + "_" + UUID.randomUUID();
+    underTest.insertCustomer(new Customer(
+        FAKER.name().fullName(), taken, "password", 20, Gender.MALE
+    ));
+    String fresh = FAKER.internet().emailAddress() + "_" + UUID.randomUUID();
+    Customer first = new Customer(FAKER.name().fullName(), fresh, "password", 21, Gender.FEMALE);
+    Customer sameEmail = new Customer(
+        FAKER.name().fullName(), fresh, "password", 22, Gender.FEMALE
+    );
+    Customer conflicting = new Customer(
+        FAKER.name().fullName(), taken, "password", 23, Gender.MALE
+    );
+
+    // When
+    List<Customer> actual = underTest.insertCustomers(List.of(first, sameEmail, conflicting));
+
+    // Then
+    assertThat(actual).containsExactly(first);
+    assertThat(first.getId()).isNotNull();
+    assertThat(sameEmail.getId()).isNull();
+    assertThat(conflicting.getId()).isNull();
+    assertThat(underTest.selectCustomerById(first.getId())).hasValueSatisfying(
+        customer -> assertThat(customer.getAge()).isEqualTo(21)
+    );
+  }
+
   @Test
   void existsPersonWithEmail() {
     // Given
@@ -226,6 +380,36 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
     });
   }
 
+  @Test
+  void updateCustomerWithExpectedVersion() {
+    // Given
+    String email = FAKER.internet().emailAddress() + "_" + UUID.randomUUID();
+    Customer customer = new Customer(
+        FAKER.name().fullName(),
+        email,
+        "password", 20,
+        Gender.MALE
+    );
+    underTest.insertCustomer(customer);
+
+    Customer update = new Customer();
+    update.setId(customer.getId());
+    update.setAge(21);
+
+    // When
+    Optional<Customer> actual = underTest.updateCustomer(update, 0L);
+    Optional<Customer> stale = underTest.updateCustomer(update, 0L);
+
+    // Then
+    assertThat(actual).isPresent().hasValueSatisfying(c -> {
+      assertThat(c.getAge()).isEqualTo(21);
+      assertThat(c.getEmail()).isEqualTo(email);
+      assertThat(c.getVersion()).isEqualTo(1L);
+    });
+    assertThat(stale).isEmpty();
+    assertThat(underTest.selectCustomerVersion(customer.getId())).contains(1L);
+  }
+
   @Test
   void updateCustomerEmail() {
     // Given
@@ -380,4 +564,107 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
       assertThat(c.getAge()).isEqualTo(customer.getAge());
     });
   }
-}
\ No newline at end of file
+
+  @Test
+  void selectCustomerStatisticsTracksInsertUpdateAndDelete() {
+    // Given
+    String email = FAKER.internet().emailAddress() + "_" + UUID.randomUUID();
+    Customer customer = new Customer(
+        FAKER.name().fullName(),
+        email,
+        "password", 20,
+        Gender.MALE
+    );
+    CustomerStatistics initial = underTest.selectCustomerStatistics();
+
+    // When
+    underTest.insertCustomer(customer);
+    CustomerStatistics afterInsert = underTest.selectCustomerStatistics();
+
+    Integer id = underTest.selectUserByEmail(email)
+        .map(Customer::getId)
+        .orElseThrow();
+    Customer update = new Customer();
+    update.setId(id);
+    update.setGender(Gender.FEMALE);
+    underTest.updateCustomer(update);
+    CustomerStatistics afterUpdate = underTest.selectCustomerStatistics();
+
+    underTest.deleteCustomerById(id);
+    CustomerStatistics afterDelete = underTest.selectCustomerStatistics();
+
+    // Then
+    assertThat(afterInsert.total()).isEqualTo(initial.total() + 1);
+    assertThat(afterInsert.genderCounts().get(Gender.MALE))
+        .isEqualTo(initial.genderCounts().get(Gender.MALE) + 1);
+    assertThat(afterUpdate.genderCounts().get(Gender.MALE))
+        .isEqualTo(initial.genderCounts().get(Gender.MALE));
+    assertThat(afterUpdate.genderCounts().get(Gender.FEMALE))
+        .isEqualTo(initial.genderCounts().get(Gender.FEMALE) + 1);
+    assertThat(afterDelete).isEqualTo(initial);
+  }
+
+  @Test
+  void writesIncrementRowAndCollectionVersions() {
+    // Given
+    Customer customer = new Customer(
+        FAKER.name().fullName(),
+        FAKER.internet().emailAddress() + "_" + UUID.randomUUID(),
+        "password", 20,
+        Gender.MALE
+    );
+    underTest.sequenceChanges();
+    CustomerCollectionVersion initial = underTest.selectCollectionVersion();
+
+    // When
+    underTest.insertCustomer(customer);
+    Customer update = new Customer();
+    update.setId(customer.getId());
+    update.setName("Ali");
+    underTest.updateCustomer(update);
+    CustomerCollectionVersion pending = underTest.selectCollectionVersion();
+    underTest.sequenceChanges();
+
+    // Then
+    assertThat(underTest.selectCustomerVersion(customer.getId())).contains(1L);
+    assertThat(update.getVersion()).isEqualTo(1L);
+    assertThat(pending).isEqualTo(new CustomerCollectionVersion(initial.seq(), 2));
+    assertThat(underTest.selectCollectionVersion())
+        .isEqualTo(new CustomerCollectionVersion(initial.seq() + 2, 0));
+  }
+
+  @Test
+  void writesAppendChangesInSeqOrder() {
+    // Given
+    Customer customer = new Customer(
+        FAKER.name().fullName(),
+        FAKER.internet().emailAddress() + "_" + UUID.randomUUID(),
+        "password", 20,
+        Gender.MALE
+    );
+    underTest.sequenceChanges();
+    long since = underTest.selectCollectionVersion().seq();
+
+    // When
+    underTest.insertCustomer(customer);
+    Customer update = new Customer();
+    update.setId(customer.getId());
+    update.setAge(21);
+    underTest.updateCustomer(update);
+    underTest.deleteCustomerById(customer.getId());
+    List<CustomerChange> unsequenced = underTest.selectChangesSince(since, 10);
+    underTest.sequenceChanges();
+
+    // Then
+    assertThat(unsequenced).isEmpty();
+    List<CustomerChange> changes = underTest.selectChangesSince(since, 10);
+    assertThat(changes)
+        .extracting(CustomerChange::seq, CustomerChange::customerId, CustomerChange::type)
+        .containsExactly(
+            tuple(since + 1, customer.getId(), CustomerChangeType.CREATED),
+            tuple(since + 2, customer.getId(), CustomerChangeType.UPDATED),
+            tuple(since + 3, customer.getId(), CustomerChangeType.DELETED)
+        );
+    assertThat(underTest.selectChangesSince(since + 3, 10)).isEmpty();
+  }
+}
@@ -1,13 +1,24 @@
 package com.amigoscode.customer;
 
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 class CustomerJPADataAccessServiceTest {
 
@@ -15,12 +26,17 @@ class CustomerJPADataAccessServiceTest {
   private AutoCloseable autoCloseable;
   @Mock
   private CustomerRepository customerRepository;
+  @Mock
+  private CustomerSummaryDataAccessService customerSummaryDataAccessService;
 
   @BeforeEach
   void setUp() {
     autoCloseable = MockitoAnnotations.openMocks(this);
 
-    underTest = new CustomerJPADataAccessService(customerRepository);
+    underTest = new CustomerJPADataAccessService(
+        customerRepository,
+        customerSummaryDataAccessService
+    );
   }
 
   @AfterEach
@@ -37,6 +53,34 @@ class CustomerJPADataAccessServiceTest {
     verify(customerRepository).findAll();
   }
 
+  @Test
+  void selectCustomers() {
+    // Given
+    CustomerFilter filter = new CustomerFilter(
+        Gender.MALE, null, null, null, null, CustomerSortKey.NAME, Sort.Direction.ASC
+    );
+
+    // When
+    underTest.selectCustomers(filter);
+
+    // Then
+    verify(customerRepository).findAll(
+        any(Specification.class),
+        eq(Sort.by("name").and(Sort.by("id")))
+    );
+  }
+
+  @Test
+  void searchCustomers() {
+    // When
+    underTest.searchCustomers("al_x", 20, 40);
+
+    // Then
+    verify(customerRepository).searchCustomers(
+        "al_x", "%al\\_x%", CustomerDao.MAX_SEARCH_CANDIDATES, 20, 40
+    );
+  }
+
   @Test
   void selectCustomerById() {
     // Given
@@ -49,6 +93,18 @@ class CustomerJPADataAccessServiceTest {
     verify(customerRepository).findById(id);
   }
 
+  @Test
+  void selectCustomersByIds() {
+    // Given
+    List<Integer> ids = List.of(1, 2);
+
+    // When
+    underTest.selectCustomersByIds(ids);
+
+    // Then
+    verify(customerRepository).findAllById(ids);
+  }
+
   @Test
   void insertCustomer() {
     // Given
@@ -61,6 +117,9 @@ class CustomerJPADataAccessServiceTest {
 
     // Then
     verify(customerRepository).save(customer);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 2, 1);
+    verify(customerSummaryDataAccessService).recordChange(1, CustomerChangeType.CREATED);
+    verify(customerSummaryDataAccessService).notifyInvalidation(1, "ali@gmail.com");
   }
 
   @Test
@@ -79,12 +138,19 @@ class CustomerJPADataAccessServiceTest {
   void deleteCustomerById() {
     // Given
     int id = 1;
+    Customer customer = new Customer(
+        id, "Ali", "ali@gmail.com", "password", 2, Gender.MALE
+    );
+    when(customerRepository.findById(id)).thenReturn(Optional.of(customer));
 
     // When
     underTest.deleteCustomerById(id);
 
     // Then
     verify(customerRepository).deleteById(id);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 2, -1);
+    verify(customerSummaryDataAccessService).recordChange(id, CustomerChangeType.DELETED);
+    verify(customerSummaryDataAccessService).notifyInvalidation(id, "ali@gmail.com");
   }
 
   @Test
@@ -105,11 +171,114 @@ class CustomerJPADataAccessServiceTest {
     Customer customer = new Customer(
         1, "Ali", "ali@gmail.com", "password", 2, Gender.MALE
     );
+    when(customerRepository.findById(1)).thenReturn(Optional.of(new Customer(
+        1, "Ali", "ali@gmail.com", "password", 3, Gender.MALE
+    )));
 
     // When
     underTest.updateCustomer(customer);
 
     // Then
     verify(customerRepository).save(customer);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 3, -1);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 2, 1);
+    verify(customerSummaryDataAccessService).recordChange(1, CustomerChangeType.UPDATED);
+    verify(customerSummaryDataAccessService).notifyInvalidation(1, "ali@gmail.com");
+  }
+
+  @Test
+  void updateCustomerEmailInvalidatesPreviousAndNewEmail() {
+    // Given
+    Customer customer = new Customer(
+        1, "Ali", "ali@amigoscode.com", "password", 3, Gender.MALE
+    );
+    when(customerRepository.findById(1)).thenReturn(Optional.of(new Customer(
+        1, "Ali", "ali@gmail.com", "password", 3, Gender.MALE
+    )));
+
+    // When
+    underTest.updateCustomer(customer);
+
+    // Then
+    verify(customerSummaryDataAccessService).notifyInvalidation(1, "ali@gmail.com");
+    verify(customerSummaryDataAccessService).notifyInvalidation(1, "ali@amigoscode.com");
+    verify(customerSummaryDataAccessService, never()).adjustStatistics(any(), anyInt(), anyLong());
+  }
+
+  @Test
+  void updateCustomerWithMatchingVersion() {
+    // Given
+    Customer current = new Customer(
+        1, "Ali", "ali@gmail.com", "password", 3, Gender.MALE
+    );
+    current.setVersion(2L);
+    when(customerRepository.findById(1)).thenReturn(Optional.of(current));
+    Customer update = new Customer();
+    update.setId(1);
+    update.setAge(4);
+
+    // When
+    Optional<Customer> actual = underTest.updateCustomer(update, 2L);
+
+    // Then
+    assertThat(actual).containsSame(current);
+    assertThat(current.getAge()).isEqualTo(4);
+    assertThat(current.getName()).isEqualTo("Ali");
+    verify(customerRepository).saveAndFlush(current);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 3, -1);
+    verify(customerSummaryDataAccessService).adjustStatistics(Gender.MALE, 4, 1);
+    verify(customerSummaryDataAccessService).recordChange(1, CustomerChangeType.UPDATED);
+  }
+
+  @Test
+  void updateCustomerWithStaleVersion() {
+    // Given
+    Customer current = new Customer(
+        1, "Ali", "ali@gmail.com", "password", 3, Gender.MALE
+    );
+    current.setVersion(5L);
+    when(customerRepository.findById(1)).thenReturn(Optional.of(current));
+    Customer update = new Customer();
+    update.setId(1);
+    update.setAge(4);
+
+    // When
+    Optional<Customer> actual = underTest.updateCustomer(update, 2L);
+
+    // Then
+    assertThat(actual).isEmpty();
+    assertThat(current.getAge()).isEqualTo(3);
+    verify(customerRepository, never()).saveAndFlush(any());
+    verify(customerSummaryDataAccessService, never()).recordChange(any(), any());
+  }
+
+  @Test
+  void selectCustomerStatistics() {
+    // When
+    underTest.selectCustomerStatistics();
+
+    // Then
+    verify(customerSummaryDataAccessService).selectStatisticsCounts();
+  }
+
+  @Test
+  void selectCustomerVersion() {
+    // Given
+    int id = 1;
+
+    // When
+    underTest.selectCustomerVersion(id);
+
+    // Then
+    verify(customerRepository).findVersionById(id);
+  }
+
+  @Test
+  void selectCollectionVersion() {
+    // When
+    underTest.selectCollectionVersion();
+
+    // Then
+    verify(customerSummaryDataAccessService).selectCollectionVersion();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+class CustomerResponseCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final CustomerResponseCache underTest = new CustomerResponseCache(
+      objectMapper, DataSize.ofKilobytes(200), 64
+  );
+
+  @Test
+  void reusesEncodedCustomerWhileETagIsUnchanged() throws IOException {
+    // Given
+    AtomicInteger loads = new AtomicInteger();
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+
+    // When
+    var first = underTest.customer(1, CustomerField.ALL, "\"1-0\"", () -> {
+      loads.incrementAndGet();
+      return customer;
+    });
+    var second = underTest.customer(1, CustomerField.ALL, "\"1-0\"", () -> {
+      loads.incrementAndGet();
+      return customer;
+    });
+
+    // Then
+    assertThat(loads).hasValue(1);
+    assertThat(second).isSameAs(first);
+    assertThat(objectMapper.readValue(first.json(), CustomerDTO.class)).isEqualTo(customer);
+  }
+
+  @Test
+  void reloadsCustomerWhenETagChanges() {
+    // Given
+    AtomicInteger loads = new AtomicInteger();
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    underTest.customer(1, CustomerField.ALL, "\"1-0\"", () -> customer);
+
+    // When
+    var actual = underTest.customer(1, CustomerField.ALL, "\"1-1\"", () -> {
+      loads.incrementAndGet();
+      return customer;
+    });
+
+    // Then
+    assertThat(loads).hasValue(1);
+    assertThat(actual.eTag()).isEqualTo("\"1-1\"");
+  }
+
+  @Test
+  void keepsCachingNewCustomersOnceFull() {
+    // Given
+    AtomicInteger loads = new AtomicInteger();
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    for (int id = 1; id <= 2000; id++) {
+      underTest.customer(id, CustomerField.ALL, "\"" + id + "-0\"", () -> customer);
+    }
+
+    // When
+    for (int i = 0; i < 5; i++) {
+      underTest.customer(5000, CustomerField.ALL, "\"5000-0\"", () -> {
+        loads.incrementAndGet();
+        return customer;
+      });
+    }
+
+    // Then
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void listsAreKeyedByTheParsedFilter() {
+    // Given
+    AtomicInteger loads = new AtomicInteger();
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+
+    // When
+    for (String blank : List.of("", " ", "  ")) {
+      underTest.customerList(
+          new CustomerFilter(null, null, null, blank, null, null, null), CustomerField.ALL,
+          "\"c1-0\"", () -> {
+            loads.incrementAndGet();
+            return List.of(customer);
+          }
+      );
+    }
+
+    // Then
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void invalidateDropsCustomerAndAllLists() {
+    // Given
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    underTest.customer(1, CustomerField.ALL, "\"1-0\"", () -> customer);
+    underTest.customer(1, Set.of(CustomerField.NAME), "\"1-0-name\"", () -> customer);
+    underTest.customer(2, CustomerField.ALL, "\"2-0\"", () -> customer);
+    underTest.customerList(
+        new CustomerFilter(Gender.MALE, null, null, null, null, null, null), CustomerField.ALL,
+        "\"c1\"", () -> List.of(customer)
+    );
+
+    // When
+    underTest.invalidate(1);
+
+    // Then
+    assertThat(underTest.size()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidationsFromOtherNodesDropMatchingCustomers() {
+    // Given
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    underTest.customer(1, CustomerField.ALL, "\"1-0\"", () -> customer);
+    underTest.customer(2, CustomerField.ALL, "\"2-0\"", () -> customer);
+    underTest.customer(3, CustomerField.ALL, "\"3-0\"", () -> customer);
+
+    // When
+    underTest.invalidate(List.of(
+        new CustomerInvalidation(1, "alex@gmail.com"),
+        new CustomerInvalidation(3, null)
+    ));
+
+    // Then
+    assertThat(underTest.size()).isEqualTo(1);
+
+    // When
+    underTest.invalidateAll();
+
+    // Then
+    assertThat(underTest.size()).isZero();
+  }
+
+  @Test
+  void writesGzipWhenAcceptedAndLargeEnough() throws IOException {
+    // Given
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    var cached = underTest.customerList(
+        CustomerFilter.NONE, CustomerField.ALL, "\"c1\"", () -> List.of(customer, customer)
+    );
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Accept-Encoding", "deflate, gzip;q=0.8");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    underTest.write(cached, request, response);
+
+    // Then
+    assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+    assertThat(response.getHeader("ETag")).isEqualTo("\"c1\"");
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      assertThat(in.readAllBytes()).isEqualTo(cached.json());
+    }
+  }
+
+  @Test
+  void writesIdentityWhenGzipIsRefused() throws IOException {
+    // Given
+    CustomerDTO customer = new CustomerDTO(
+        1, "Alex", "alex@gmail.com", Gender.MALE, 19, List.of("ROLE_USER"), "alex@gmail.com"
+    );
+    var cached = underTest.customerList(
+        CustomerFilter.NONE, CustomerField.ALL, "\"c1\"", () -> List.of(customer, customer)
+    );
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Accept-Encoding", "gzip;q=0");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    underTest.write(cached, request, response);
+
+    // Then
+    assertThat(response.getHeader("Content-Encoding")).isNull();
+    assertThat(response.getContentAsByteArray()).isEqualTo(cached.json());
+  }
+
+  @Test
+  void prefersJsonUnlessABinaryEncodingRanksHigher() {
+    // When
+    // Then
+    assertThat(CustomerResponseCache.negotiatedMediaType(withAccept(null)))
+        .isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(CustomerResponseCache.negotiatedMediaType(withAccept("*/*")))
+        .isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(CustomerResponseCache.negotiatedMediaType(withAccept("application/cbor")))
+        .isEqualTo(MediaType.APPLICATION_CBOR);
+    assertThat(CustomerResponseCache.negotiatedMediaType(
+        withAccept("application/json;q=0.5, application/x-protobuf")
+    )).isEqualTo(MediaType.valueOf("application/x-protobuf"));
+    assertThat(CustomerResponseCache.negotiatedMediaType(
+        withAccept("application/x-jackson-smile;q=0.2, application/json")
+    )).isEqualTo(MediaType.APPLICATION_JSON);
+  }
+
+  @Test
+  void tagsEachRepresentationDifferently() {
+    // When
+    MediaType cbor = CustomerResponseCache.negotiatedMediaType(withAccept("application/cbor"));
+    MediaType protobuf = CustomerResponseCache.negotiatedMediaType(
+        withAccept("application/json;q=0.5, application/x-protobuf")
+    );
+
+    // Then
+    assertThat(CustomerController.representationETag("\"1-3\"", MediaType.APPLICATION_JSON))
+        .isEqualTo("\"1-3\"");
+    assertThat(CustomerController.representationETag("\"1-3-name\"", cbor))
+        .isEqualTo("\"1-3-name+cbor\"");
+    assertThat(CustomerController.representationETag("\"c7-0\"", protobuf))
+        .isEqualTo("\"c7-0+protobuf\"");
+    assertThat(CustomerController.expectedVersion(1, "\"1-3-name+cbor\"")).isEqualTo(3);
+  }
+
+  private static MockHttpServletRequest withAccept(String accept) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    if (accept != null) {
+      request.addHeader("Accept", accept);
+    }
+    return request;
+  }
+}
@@ -2,6 +2,8 @@ package com.amigoscode.customer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.ResultSet;
@@ -29,4 +31,25 @@ class CustomerRowMapperTest {
     Customer expected = new Customer(1, "Jamila", "Jamila@gmail.com", "password", 19, Gender.MALE);
     assertThat(customer).isEqualTo(expected);
   }
-}
\ No newline at end of file
+
+  @Test
+  void forFieldsReadsOnlyRequestedColumns() throws SQLException {
+    // Given
+    CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.getInt("id")).thenReturn(1);
+    when(resultSet.getString("name")).thenReturn("Jamila");
+
+    // When
+    Customer customer = customerRowMapper
+        .forFields(CustomerField.parse("name"))
+        .mapRow(resultSet, 1);
+
+    // Then
+    assertThat(customer.getId()).isEqualTo(1);
+    assertThat(customer.getName()).isEqualTo("Jamila");
+    assertThat(customer.getEmail()).isNull();
+    verify(resultSet, never()).getString("email");
+    verify(resultSet, never()).getString("password");
+  }
+}
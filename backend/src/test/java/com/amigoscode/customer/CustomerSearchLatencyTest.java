@@ -0,0 +1,91 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amigoscode.AbstractTestContainers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds a multi-million row customer table and checks the p95 latency of trigram search.
+ * Seeding takes minutes, so it only runs with {@code -Dcustomer.search.latency-test=true}.
+ */
+@EnabledIfSystemProperty(named = "customer.search.latency-test", matches = "true")
+class CustomerSearchLatencyTest extends AbstractTestContainers {
+
+  private static final int ROWS = Integer.getInteger(
+      "customer.search.latency-test.rows", 2_000_000
+  );
+  private static final long P95_TARGET_MILLIS = Long.getLong(
+      "customer.search.latency-test.p95-millis", 50
+  );
+  private static final int WARMUP_QUERIES = 50;
+  private static final int MEASURED_QUERIES = 500;
+
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void seed() {
+    jdbcTemplate = getJdbcTemplate();
+    jdbcTemplate.update("""
+        INSERT INTO customer (name, email, password, age, gender)
+        SELECT (ARRAY['Alex', 'Jamila', 'Maria', 'Ahmed', 'Chen', 'Olga', 'Tom', 'Priya'])[1 + i % 8]
+                   || ' '
+                   || (ARRAY['Smith', 'Khan', 'Garcia', 'Ivanova', 'Wong', 'Brown'])[1 + i % 6]
+                   || ' '
+                   || substr(md5(i::text), 1, 6),
+               substr(md5(i::text), 7, 10) || '.' || i || '@seed.amigoscode.com',
+               'password',
+               18 + i % 80,
+               CASE WHEN i % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END
+        FROM generate_series(1, ?) AS i
+        """, ROWS);
+    jdbcTemplate.execute("ANALYZE customer");
+  }
+
+  @Test
+  void searchCustomersMeetsLatencyTarget() {
+    // Given
+    CustomerJDBCDataAccessService underTest = new CustomerJDBCDataAccessService(
+        jdbcTemplate,
+        new CustomerRowMapper(),
+        new CustomerSummaryDataAccessService(jdbcTemplate)
+    );
+    // Unique fragments match about one row; the seeded names each match a large share of
+    // the table and exercise the candidate cap
+    List<String> commonNames = List.of("Smith", "Garcia", "Jamila", "Priya Khan");
+    List<String> queries = new ArrayList<>(jdbcTemplate.queryForList("""
+        SELECT CASE WHEN i % 2 = 0
+                    THEN substr(md5(i::text), 1, 6)
+                    ELSE substr(md5(i::text), 7, 10) || '.' || i
+               END
+        FROM generate_series(1, ?, ?) AS i
+        """, String.class, ROWS, ROWS / MEASURED_QUERIES));
+    for (int i = 0; i < queries.size(); i += 5) {
+      queries.set(i, commonNames.get(i / 5 % commonNames.size()));
+    }
+    for (int i = 0; i < WARMUP_QUERIES; i++) {
+      underTest.searchCustomers(queries.get(i % queries.size()), 20, 0);
+    }
+
+    // When
+    long[] latencies = new long[queries.size()];
+    for (int i = 0; i < queries.size(); i++) {
+      long start = System.nanoTime();
+      List<Customer> result = underTest.searchCustomers(queries.get(i), 20, 0);
+      latencies[i] = System.nanoTime() - start;
+      assertThat(result).isNotEmpty();
+    }
+
+    // Then
+    Arrays.sort(latencies);
+    long p95 = latencies[(int) Math.ceil(latencies.length * 0.95) - 1];
+    assertThat(TimeUnit.NANOSECONDS.toMillis(p95)).isLessThanOrEqualTo(P95_TARGET_MILLIS);
+  }
+}
@@ -3,20 +3,34 @@ package com.amigoscode.customer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amigoscode.Exception.DuplicateResourceException;
+import com.amigoscode.Exception.PreconditionFailedException;
 import com.amigoscode.Exception.RequestValidationException;
 import com.amigoscode.Exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,12 +40,19 @@ class CustomerServiceTest {
   private CustomerDao customerDao;
   @Mock
   private PasswordEncoder passwordEncoder;
+  @Mock
+  private CustomerSuggestionIndex customerSuggestionIndex;
+  @Mock
+  private CustomerResponseCache customerResponseCache;
   private CustomerService underTest;
   private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
 
   @BeforeEach
   void setUp() {
-    underTest = new CustomerService(customerDao, customerDTOMapper, passwordEncoder);
+    underTest = new CustomerService(
+        customerDao, customerDTOMapper, passwordEncoder, customerSuggestionIndex,
+        customerResponseCache, new SimpleMeterRegistry()
+    );
   }
 
   @Test
@@ -43,6 +64,185 @@ class CustomerServiceTest {
     verify(customerDao).selectAllCustomers();
   }
 
+  @Test
+  void getCustomers() {
+    // Given
+    CustomerFilter filter = new CustomerFilter(
+        Gender.FEMALE, 18, 30, "al", null, CustomerSortKey.AGE, Sort.Direction.DESC
+    );
+    Customer customer = new Customer(
+        1, "Alex", "alex@gamil.com", "password", 19, Gender.FEMALE
+    );
+    when(customerDao.selectCustomers(filter, CustomerField.ALL)).thenReturn(List.of(customer));
+
+    // When
+    List<CustomerDTO> actual = underTest.getCustomers(filter);
+
+    // Then
+    assertThat(actual).containsExactly(customerDTOMapper.apply(customer));
+  }
+
+  @Test
+  void willThrowWhenGetCustomersAgeRangeIsInverted() {
+    // Given
+    CustomerFilter filter = new CustomerFilter(
+        null, 30, 18, null, null, null, null
+    );
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.getCustomers(filter))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("minAge must not be greater than maxAge");
+    verify(customerDao, never()).selectCustomers(any(), any());
+  }
+
+  @Test
+  void searchCustomers() {
+    // Given
+    Customer customer = new Customer(
+        1, "Alex", "alex@gamil.com", "password", 19, Gender.MALE
+    );
+    when(customerDao.searchCustomers("ale", 10, 20)).thenReturn(List.of(customer));
+
+    // When
+    List<CustomerDTO> actual = underTest.searchCustomers(" ale ", 2, 10);
+
+    // Then
+    assertThat(actual).containsExactly(customerDTOMapper.apply(customer));
+  }
+
+  @Test
+  void willThrowWhenSearchQueryIsBlank() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.searchCustomers(" ", 0, 20))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("q must not be blank");
+    verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void willThrowWhenSearchQueryIsTooShort() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.searchCustomers(" al ", 0, 20))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("q must be at least 3 characters");
+    verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void willThrowWhenSearchPagePassesTheCandidates() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.searchCustomers("alex", 50, 20))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("page is too large");
+    verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void willThrowWhenSearchPageSizeIsTooLarge() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.searchCustomers("alex", 0, 101))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("size must be between 1 and 100");
+    verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void willThrowWhenSearchOffsetOverflows() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.searchCustomers("alex", Integer.MAX_VALUE / 10, 20))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("page is too large");
+    verify(customerDao, never()).searchCustomers(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  void suggestCustomers() {
+    // Given
+    CustomerDTO stub = customerDTOMapper.apply(new Customer(
+        1, "Alex", "alex@gamil.com", "password", 19, Gender.MALE
+    ));
+    when(customerSuggestionIndex.suggest("al", 5)).thenReturn(List.of(stub));
+
+    // When
+    List<CustomerDTO> actual = underTest.suggestCustomers(" al", 5);
+
+    // Then
+    assertThat(actual).containsExactly(stub);
+  }
+
+  @Test
+  void willThrowWhenSuggestionLimitIsTooLarge() {
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.suggestCustomers("al", 51))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("limit must be between 1 and 50");
+    verify(customerSuggestionIndex, never()).suggest(any(), anyInt());
+  }
+
+  @Test
+  void buildSuggestionIndex() {
+    // Given
+    ArgumentCaptor<Consumer<Consumer<Customer>>> source = ArgumentCaptor.forClass(Consumer.class);
+
+    // When
+    underTest.buildSuggestionIndex();
+
+    // Then
+    verify(customerSuggestionIndex).rebuild(source.capture());
+    source.getValue().accept(customer -> {
+    });
+    verify(customerDao).streamAllCustomers(any());
+  }
+
+  @Test
+  void getCustomerVersion() {
+    // Given
+    int id = 1;
+    when(customerDao.selectCustomerVersion(id)).thenReturn(Optional.of(3L));
+
+    // When
+    long actual = underTest.getCustomerVersion(id);
+
+    // Then
+    assertThat(actual).isEqualTo(3L);
+  }
+
+  @Test
+  void willThrowWhenGetCustomerVersionFindsNoCustomer() {
+    // Given
+    int id = 1;
+    when(customerDao.selectCustomerVersion(id)).thenReturn(Optional.empty());
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.getCustomerVersion(id))
+        .isInstanceOf(ResourceNotFoundException.class)
+        .hasMessage("Customer with id [%s] not found".formatted(id));
+  }
+
+  @Test
+  void getCustomerStatistics() {
+    // Given
+    CustomerStatistics statistics = CustomerStatistics.fromCounts(List.of(
+        new CustomerStatistics.Count(Gender.MALE, 19, 1)
+    ));
+    when(customerDao.selectCustomerStatistics()).thenReturn(statistics);
+
+    // When
+    CustomerStatistics actual = underTest.getCustomerStatistics();
+
+    // Then
+    assertThat(actual).isEqualTo(statistics);
+  }
+
   @Test
   void getCustomer() {
     // Given
@@ -50,7 +250,8 @@ class CustomerServiceTest {
     Customer customer = new Customer(
         1, "Alex", "alex@gamil.com", "password", 19, Gender.MALE
     );
-    when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+    when(customerDao.selectCustomerById(id, CustomerField.ALL))
+        .thenReturn(Optional.of(customer));
 
     CustomerDTO expect = customerDTOMapper.apply(customer);
 
@@ -61,11 +262,30 @@ class CustomerServiceTest {
     assertThat(actual).isEqualTo(expect);
   }
 
+  @Test
+  void getCustomerWithSparseFields() {
+    // Given
+    int id = 1;
+    Set<CustomerField> fields = CustomerField.parse("id,name");
+    Customer customer = new Customer();
+    customer.setId(id);
+    customer.setName("Alex");
+    when(customerDao.selectCustomerById(id, fields)).thenReturn(Optional.of(customer));
+
+    // When
+    CustomerDTO actual = underTest.getCustomer(id, fields);
+
+    // Then
+    assertThat(actual).isEqualTo(
+        new CustomerDTO(id, "Alex", null, null, null, null, null)
+    );
+  }
+
   @Test
   void willThrowWhenGetCustomerReturnsEmptyOptional() {
     // Given
     int id = 1;
-    when(customerDao.selectCustomerById(id)).thenReturn(Optional.empty());
+    when(customerDao.selectCustomerById(id, CustomerField.ALL)).thenReturn(Optional.empty());
 
     // When
     // Then
@@ -74,6 +294,43 @@ class CustomerServiceTest {
         .hasMessage("Customer with id [%s] not found".formatted(id));
   }
 
+  @Test
+  void getCustomersByIdsKeepsRequestOrderAndMarksMissing() {
+    // Given
+    Customer alex = new Customer(
+        1, "Alex", "alex@gamil.com", "password", 19, Gender.MALE
+    );
+    Customer jamila = new Customer(
+        2, "Jamila", "jamila@gamil.com", "password", 21, Gender.FEMALE
+    );
+    when(customerDao.selectCustomersByIds(Set.of(2, 3, 1), CustomerField.ALL))
+        .thenReturn(List.of(alex, jamila));
+
+    // When
+    List<CustomerLookupResult> actual = underTest.getCustomersByIds(List.of(2, 3, 1, 2));
+
+    // Then
+    assertThat(actual).containsExactly(
+        new CustomerLookupResult(2, true, customerDTOMapper.apply(jamila)),
+        new CustomerLookupResult(3, false, null),
+        new CustomerLookupResult(1, true, customerDTOMapper.apply(alex)),
+        new CustomerLookupResult(2, true, customerDTOMapper.apply(jamila))
+    );
+  }
+
+  @Test
+  void willThrowWhenTooManyIdsRequested() {
+    // Given
+    List<Integer> ids = IntStream.rangeClosed(1, 501).boxed().toList();
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.getCustomersByIds(ids))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("ids must contain between 1 and 500 ids");
+    verify(customerDao, never()).selectCustomersByIds(any(), any());
+  }
+
   @Test
   void addCustomer() {
     // Given
@@ -98,6 +355,7 @@ class CustomerServiceTest {
     );
     verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
     Customer capturedCustomer = customerArgumentCaptor.getValue();
+    verify(customerSuggestionIndex).index(capturedCustomer);
     assertThat(capturedCustomer.getId()).isNull();
     assertThat(capturedCustomer.getName()).isEqualTo(request.name());
     assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
@@ -126,6 +384,29 @@ class CustomerServiceTest {
     verify(customerDao, never()).insertCustomer(any());
   }
 
+  @Test
+  void willThrowWhenEmailIsTakenConcurrentlyWhileAddingCustomer() {
+    // Given
+    String email = "alex@gamil.com";
+    when(customerDao.existsPersonWithEmail(email)).thenReturn(false);
+    doThrow(new DataIntegrityViolationException("customer_email_unique"))
+        .when(customerDao).insertCustomer(any());
+    CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+        "Alex",
+        email,
+        "password", 19,
+        Gender.MALE
+    );
+
+    // When
+    assertThatThrownBy(() -> underTest.addCustomer(request))
+        .isInstanceOf(DuplicateResourceException.class)
+        .hasMessage("Email already taken");
+
+    // Then
+    verify(customerSuggestionIndex, never()).index(any());
+  }
+
   @Test
   void deleteCustomer() {
     // Given
@@ -137,6 +418,8 @@ class CustomerServiceTest {
 
     // Then
     verify(customerDao).deleteCustomerById(id);
+    verify(customerSuggestionIndex).remove(id);
+    verify(customerResponseCache).invalidate(id);
   }
 
   @Test
@@ -357,4 +640,141 @@ class CustomerServiceTest {
     // Then
     verify(customerDao, never()).updateCustomer(any());
   }
-}
\ No newline at end of file
+
+  @Test
+  void canUpdateCustomerWhenVersionMatches() {
+    // Given
+    int id = 1;
+    CustomerUpdateRequest request = new CustomerUpdateRequest(
+        "Alexandro", null, null, null
+    );
+    Customer updated = new Customer(
+        id, "Alexandro", "alex@gmail.com", "password", 19, Gender.MALE
+    );
+    updated.setVersion(4L);
+    when(customerDao.updateCustomer(any(), eq(3L))).thenReturn(Optional.of(updated));
+
+    // When
+    long version = underTest.updateCustomer(id, request, 3L);
+
+    // Then
+    ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+    verify(customerDao).updateCustomer(customerArgumentCaptor.capture(), eq(3L));
+    Customer update = customerArgumentCaptor.getValue();
+    assertThat(update.getId()).isEqualTo(id);
+    assertThat(update.getName()).isEqualTo("Alexandro");
+    assertThat(update.getEmail()).isNull();
+    assertThat(version).isEqualTo(4L);
+    verify(customerDao, never()).selectCustomerById(anyInt());
+    verify(customerSuggestionIndex).index(updated);
+    verify(customerResponseCache).invalidate(id);
+  }
+
+  @Test
+  void willThrowWhenCustomerVersionIsStale() {
+    // Given
+    int id = 1;
+    CustomerUpdateRequest request = new CustomerUpdateRequest(
+        "Alexandro", null, null, null
+    );
+    when(customerDao.updateCustomer(any(), eq(3L))).thenReturn(Optional.empty());
+
+    // When
+    assertThatThrownBy(() -> underTest.updateCustomer(id, request, 3L))
+        .isInstanceOf(PreconditionFailedException.class)
+        .hasMessage("Customer with id [%s] does not exist or has changed since version 3"
+            .formatted(id));
+
+    // Then
+    verify(customerSuggestionIndex, never()).index(any());
+  }
+
+  @Test
+  void willThrowWhenConditionalUpdateEmailAlreadyTaken() {
+    // Given
+    int id = 1;
+    CustomerUpdateRequest request = new CustomerUpdateRequest(
+        null, "taken@gmail.com", null, null
+    );
+    when(customerDao.updateCustomer(any(), eq(3L)))
+        .thenThrow(new DuplicateKeyException("customer_email_unique"));
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.updateCustomer(id, request, 3L))
+        .isInstanceOf(DuplicateResourceException.class)
+        .hasMessage("email already taken");
+  }
+
+  @Test
+  void willThrowWhenEmailIsTakenConcurrentlyWhileUpdatingCustomer() {
+    // Given
+    int id = 1;
+    Customer customer = new Customer(id, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+    CustomerUpdateRequest request = new CustomerUpdateRequest(
+        null, "taken@gmail.com", null, null
+    );
+    doThrow(new DataIntegrityViolationException("customer_email_unique"))
+        .when(customerDao).updateCustomer(any());
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.updateCustomer(id, request))
+        .isInstanceOf(DuplicateResourceException.class)
+        .hasMessage("email already taken");
+  }
+
+  @Test
+  void willThrowWhenCustomerChangesConcurrentlyWhileUpdating() {
+    // Given
+    int id = 1;
+    Customer customer = new Customer(id, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+    CustomerUpdateRequest request = new CustomerUpdateRequest("Alexander", null, null, null);
+    doThrow(new ObjectOptimisticLockingFailureException(Customer.class, id))
+        .when(customerDao).updateCustomer(any());
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.updateCustomer(id, request))
+        .isInstanceOf(DuplicateResourceException.class)
+        .hasMessage("Customer with id [1] was changed concurrently");
+    verify(customerSuggestionIndex, never()).index(any());
+  }
+
+  @Test
+  void willThrowWhenConditionalUpdateHasNoChanges() {
+    // Given
+    CustomerUpdateRequest request = new CustomerUpdateRequest(null, null, null, null);
+
+    // When
+    assertThatThrownBy(() -> underTest.updateCustomer(1, request, 3L))
+        .isInstanceOf(RequestValidationException.class)
+        .hasMessage("no data changes found");
+
+    // Then
+    verify(customerDao, never()).updateCustomer(any(), anyLong());
+  }
+
+  @Test
+  void invalidateReindexesChangedCustomersAndRemovesDeletedOnes() {
+    // Given
+    Customer customer = new Customer(
+        1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE
+    );
+    when(customerDao.selectCustomersByIds(Set.of(1, 2))).thenReturn(List.of(customer));
+
+    // When
+    underTest.invalidate(List.of(
+        new CustomerInvalidation(1, "alex@gmail.com"),
+        new CustomerInvalidation(2, "jamila@gmail.com"),
+        new CustomerInvalidation(1, "alex@amigoscode.com")
+    ));
+
+    // Then
+    verify(customerSuggestionIndex).index(customer);
+    verify(customerSuggestionIndex).remove(2);
+    verify(customerSuggestionIndex, never()).remove(1);
+  }
+}
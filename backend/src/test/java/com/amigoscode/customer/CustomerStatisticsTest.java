@@ -0,0 +1,50 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CustomerStatisticsTest {
+
+  @Test
+  void fromCounts() {
+    // Given
+    List<CustomerStatistics.Count> counts = List.of(
+        new CustomerStatistics.Count(Gender.MALE, 19, 2),
+        new CustomerStatistics.Count(Gender.FEMALE, 21, 1),
+        new CustomerStatistics.Count(Gender.FEMALE, 45, 1),
+        new CustomerStatistics.Count(Gender.MALE, 19, 0)
+    );
+
+    // When
+    CustomerStatistics actual = CustomerStatistics.fromCounts(counts);
+
+    // Then
+    assertThat(actual.total()).isEqualTo(4);
+    assertThat(actual.genderCounts()).isEqualTo(Map.of(Gender.MALE, 2L, Gender.FEMALE, 2L));
+    assertThat(actual.ageHistogram()).containsExactly(
+        Map.entry("10-19", 2L),
+        Map.entry("20-29", 1L),
+        Map.entry("40-49", 1L)
+    );
+    assertThat(actual.minAge()).isEqualTo(19);
+    assertThat(actual.maxAge()).isEqualTo(45);
+    assertThat(actual.meanAge()).isEqualTo(26.0);
+  }
+
+  @Test
+  void fromCountsWhenEmpty() {
+    // When
+    CustomerStatistics actual = CustomerStatistics.fromCounts(List.of());
+
+    // Then
+    assertThat(actual.total()).isZero();
+    assertThat(actual.genderCounts()).isEqualTo(Map.of(Gender.MALE, 0L, Gender.FEMALE, 0L));
+    assertThat(actual.ageHistogram()).isEmpty();
+    assertThat(actual.minAge()).isNull();
+    assertThat(actual.maxAge()).isNull();
+    assertThat(actual.meanAge()).isNull();
+  }
+}
@@ -0,0 +1,94 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CustomerSuggestionIndexTest {
+
+  private CustomerSuggestionIndex underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new CustomerSuggestionIndex(new CustomerDTOMapper());
+  }
+
+  @Test
+  void suggestMatchesNameTokensAndEmail() {
+    // Given
+    underTest.index(new Customer(1, "Jamila Ahmed", "jamila@gmail.com", "password", 19,
+        Gender.FEMALE));
+    underTest.index(new Customer(2, "Alex Jameson", "alex@gmail.com", "password", 21,
+        Gender.MALE));
+    underTest.index(new Customer(3, "Ali", "ali@gmail.com", "password", 22,
+        Gender.MALE));
+
+    // When
+    List<CustomerDTO> actual = underTest.suggest("JAM", 10);
+
+    // Then
+    assertThat(actual).extracting(CustomerDTO::id).containsExactly(2, 1);
+  }
+
+  @Test
+  void suggestReturnsEachCustomerOnceUpToLimit() {
+    // Given
+    underTest.index(new Customer(1, "Alex Alexander", "alex@gmail.com", "password", 19,
+        Gender.MALE));
+    underTest.index(new Customer(2, "Alexa", "alexa@gmail.com", "password", 21,
+        Gender.FEMALE));
+
+    // When
+    List<CustomerDTO> actual = underTest.suggest("alex", 1);
+
+    // Then
+    assertThat(actual).extracting(CustomerDTO::id).containsExactly(1);
+    assertThat(underTest.suggest("alex", 10)).extracting(CustomerDTO::id)
+        .containsExactly(1, 2);
+  }
+
+  @Test
+  void indexReplacesPreviousTokensAndRemoveDropsThem() {
+    // Given
+    underTest.index(new Customer(1, "Alex", "alex@gmail.com", "password", 19,
+        Gender.MALE));
+
+    // When
+    underTest.index(new Customer(1, "Jamila", "jamila@gmail.com", "password", 19,
+        Gender.FEMALE));
+
+    // Then
+    assertThat(underTest.suggest("alex", 10)).isEmpty();
+    assertThat(underTest.suggest("jam", 10)).extracting(CustomerDTO::name)
+        .containsExactly("Jamila");
+
+    underTest.remove(1);
+    assertThat(underTest.suggest("jam", 10)).isEmpty();
+    assertThat(underTest.size()).isZero();
+  }
+
+  @Test
+  void rebuildKeepsServingAndDoesNotResurrectConcurrentDeletes() {
+    // Given
+    Customer alex = new Customer(1, "Alex", "alex@gmail.com", "password", 19, Gender.MALE);
+    Customer ali = new Customer(2, "Ali", "ali@gmail.com", "password", 22, Gender.MALE);
+    underTest.index(alex);
+    underTest.index(ali);
+
+    // When
+    underTest.rebuild(consumer -> {
+      consumer.accept(alex);
+      assertThat(underTest.suggest("al", 10)).extracting(CustomerDTO::id)
+          .containsExactly(1, 2);
+      // deleted after the stream read it
+      underTest.remove(2);
+      consumer.accept(ali);
+    });
+
+    // Then
+    assertThat(underTest.suggest("al", 10)).extracting(CustomerDTO::id).containsExactly(1);
+    assertThat(underTest.size()).isEqualTo(1);
+  }
+}
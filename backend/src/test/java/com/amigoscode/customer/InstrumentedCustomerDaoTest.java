@@ -0,0 +1,152 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amigoscode.metrics.DataAccessLog;
+import com.amigoscode.metrics.SqlCapture;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+class InstrumentedCustomerDaoTest {
+
+  private final CustomerDao delegate = mock(CustomerDao.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final InstrumentedCustomerDao underTest = new InstrumentedCustomerDao(
+      delegate, "jdbc", meterRegistry,
+      new DataAccessLog(Duration.ofSeconds(1).toNanos(), 0, Map.of())
+  );
+
+  @Test
+  void timesSuccessfulCallsPerMethod() {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 20, Gender.MALE);
+    when(delegate.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+    // When
+    Optional<Customer> actual = underTest.selectCustomerById(1);
+    underTest.selectCustomerById(1);
+
+    // Then
+    assertThat(actual).contains(customer);
+    assertThat(timer("selectCustomerById", "none").count()).isEqualTo(2);
+  }
+
+  @Test
+  void tagsFailedCallsWithTheException() {
+    // Given
+    when(delegate.existsPersonWithEmail("alex@gmail.com"))
+        .thenThrow(new QueryTimeoutException("cancelled"));
+
+    // When
+    // Then
+    assertThatThrownBy(() -> underTest.existsPersonWithEmail("alex@gmail.com"))
+        .isInstanceOf(QueryTimeoutException.class);
+    assertThat(timer("existsPersonWithEmail", "QueryTimeoutException").count()).isEqualTo(1);
+  }
+
+  @Test
+  void timesVoidCalls() {
+    // When
+    underTest.deleteCustomerById(1);
+
+    // Then
+    verify(delegate).deleteCustomerById(1);
+    assertThat(timer("deleteCustomerById", "none").count()).isEqualTo(1);
+  }
+
+  @Test
+  void capturesSqlOnlyForTheDurationOfTheCall() {
+    // Given
+    InstrumentedCustomerDao slowCalls = new InstrumentedCustomerDao(
+        delegate, "jdbc", meterRegistry, new DataAccessLog(0, 0, Map.of())
+    );
+    when(delegate.selectCollectionVersion()).thenAnswer(invocation -> {
+      SqlCapture.record("SELECT version FROM customer_summary");
+      return new CustomerCollectionVersion(3, 0);
+    });
+
+    // When
+    CustomerCollectionVersion actual = slowCalls.selectCollectionVersion();
+
+    // Then
+    assertThat(actual.seq()).isEqualTo(3L);
+    assertThat(timer("selectCollectionVersion", "none").count()).isEqualTo(1);
+    try (SqlCapture outside = SqlCapture.start()) {
+      assertThat(outside.getStatements()).isEmpty();
+    }
+  }
+
+  @Test
+  void recordsFlightEventsWithRowCounts() throws Exception {
+    // Given
+    Customer customer = new Customer(1, "Alex", "alex@gmail.com", "password", 20, Gender.MALE);
+    when(delegate.selectAllCustomers()).thenReturn(List.of(customer, customer));
+    when(delegate.deleteChangesBefore(any())).thenReturn(7);
+    doAnswer(invocation -> {
+      Consumer<Customer> consumer = invocation.getArgument(0);
+      consumer.accept(customer);
+      consumer.accept(customer);
+      consumer.accept(customer);
+      return null;
+    }).when(delegate).streamAllCustomers(any());
+    Path file = Files.createTempFile("customer-dao", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("com.amigoscode.CustomerDao");
+      recording.start();
+
+      // When
+      underTest.selectAllCustomers();
+      underTest.selectCustomerById(2);
+      underTest.deleteChangesBefore(Instant.EPOCH);
+      underTest.streamAllCustomers(c -> {
+      });
+      underTest.existsPersonWithId(1);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    // Then
+    try {
+      assertThat(RecordingFile.readAllEvents(file))
+          .extracting(event -> event.getString("method"), event -> event.getLong("rows"))
+          .containsExactly(
+              tuple("selectAllCustomers", 2L),
+              tuple("selectCustomerById", 0L),
+              tuple("deleteChangesBefore", 7L),
+              tuple("streamAllCustomers", 3L),
+              tuple("existsPersonWithId", -1L)
+          );
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private Timer timer(String method, String exception) {
+    return meterRegistry.get(InstrumentedCustomerDao.METRIC)
+        .tag("method", method)
+        .tag("implementation", "jdbc")
+        .tag("exception", exception)
+        .timer();
+  }
+}
@@ -0,0 +1,152 @@
+package com.amigoscode.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amigoscode.Exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SingleFlight<Integer, String> underTest = new SingleFlight<>(
+      meterRegistry, "customer"
+  );
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentCallsForSameKeyShareOneExecution() throws Exception {
+    // Given
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    List<Future<String>> results = new ArrayList<>();
+
+    // When
+    results.add(executor.submit(() -> underTest.execute(1, () -> {
+      calls.incrementAndGet();
+      running.countDown();
+      await(release);
+      return "Alex";
+    })));
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 5; i++) {
+      results.add(executor.submit(() -> underTest.execute(1, () -> {
+        calls.incrementAndGet();
+        return "other";
+      })));
+    }
+    while (coalesced() < 5) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    // Then
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Alex");
+    }
+    assertThat(calls).hasValue(1);
+    assertThat(underTest.inFlight()).isZero();
+  }
+
+  @Test
+  void waitersReceiveTheSameException() throws Exception {
+    // Given
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ResourceNotFoundException notFound = new ResourceNotFoundException("not found");
+
+    // When
+    Future<String> leader = executor.submit(() -> underTest.execute(1, () -> {
+      running.countDown();
+      await(release);
+      throw notFound;
+    }));
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+    Future<String> waiter = executor.submit(() -> underTest.execute(1, () -> "Alex"));
+    while (coalesced() < 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    // Then
+    assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(notFound);
+    assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(notFound);
+  }
+
+  @Test
+  void callsAfterForgetDoNotJoinTheRunningOne() throws Exception {
+    // Given
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> stale = executor.submit(() -> underTest.execute(1, () -> {
+      running.countDown();
+      await(release);
+      return "Alex";
+    }));
+    assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    underTest.forget(key -> key == 1);
+    String actual = underTest.execute(1, () -> "Alexander");
+    release.countDown();
+
+    // Then
+    assertThat(actual).isEqualTo("Alexander");
+    assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Alex");
+    assertThat(underTest.inFlight()).isZero();
+  }
+
+  @Test
+  void completedCallsAreNotReused() {
+    // Given
+    AtomicInteger calls = new AtomicInteger();
+
+    // When
+    underTest.execute(1, () -> "v" + calls.incrementAndGet());
+    String second = underTest.execute(1, () -> "v" + calls.incrementAndGet());
+
+    // Then
+    assertThat(second).isEqualTo("v2");
+    assertThat(coalesced()).isZero();
+    assertThat(meterRegistry.get("customer.lookup.single-flight")
+        .tag("result", "executed")
+        .counter()
+        .count()).isEqualTo(2);
+  }
+
+  private double coalesced() {
+    return meterRegistry.get("customer.lookup.single-flight")
+        .tag("result", "coalesced")
+        .counter()
+        .count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.amigoscode.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.amigoscode.budget.LatencyBudgetDataSource;
+import com.amigoscode.metrics.SqlCaptureDataSource;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+class DataSourceProxyConfigTest {
+
+  @Test
+  void latencyBudgetWrapsSqlCapture() {
+    // Given
+    DataSource dataSource = mock(DataSource.class);
+    BeanPostProcessor underTest = DataSourceProxyConfig.dataSourceProxyPostProcessor(
+        new MockEnvironment()
+    );
+
+    // When
+    Object actual = underTest.postProcessAfterInitialization(dataSource, "dataSource");
+
+    // Then
+    assertThat(actual).isInstanceOfSatisfying(LatencyBudgetDataSource.class, budget ->
+        assertThat(budget.getTargetDataSource()).isInstanceOfSatisfying(
+            SqlCaptureDataSource.class,
+            capture -> assertThat(capture.getTargetDataSource()).isSameAs(dataSource)
+        )
+    );
+    assertThat(underTest.postProcessAfterInitialization(actual, "dataSource")).isSameAs(actual);
+  }
+
+  @Test
+  void leavesDataSourceAloneWhenBothAreDisabled() {
+    // Given
+    DataSource dataSource = mock(DataSource.class);
+    BeanPostProcessor underTest = DataSourceProxyConfig.dataSourceProxyPostProcessor(
+        new MockEnvironment()
+            .withProperty("customer.dao.metrics.enabled", "false")
+            .withProperty("customer.latency-budget.enabled", "false")
+    );
+
+    // When
+    Object actual = underTest.postProcessAfterInitialization(dataSource, "dataSource");
+
+    // Then
+    assertThat(actual).isSameAs(dataSource);
+  }
+}
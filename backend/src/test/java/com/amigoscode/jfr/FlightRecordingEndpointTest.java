@@ -0,0 +1,94 @@
+package com.amigoscode.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amigoscode.jwt.JWTUtil;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+class FlightRecordingEndpointTest {
+
+  private final FlightRecordingEndpoint underTest = new FlightRecordingEndpoint(
+      Duration.ofMinutes(1), 16 * 1024 * 1024, "default"
+  );
+
+  @TempDir
+  Path dir;
+
+  @AfterEach
+  void tearDown() {
+    underTest.stop();
+  }
+
+  @Test
+  void dumpIsNotFoundWithoutRecording() {
+    // When
+    WebEndpointResponse<Resource> actual = underTest.dump();
+
+    // Then
+    assertThat(actual.getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+  }
+
+  @Test
+  void dumpsDomainEventsWhileRecordingCarriesOn() throws Exception {
+    // Given
+    FlightRecordingEndpoint.RecordingStatus status = underTest.start(null, null, null);
+    JWTUtil jwtUtil = new JWTUtil();
+    String token = jwtUtil.issueToken("alex@gmail.com", "ROLE_USER");
+    jwtUtil.getSubject(token);
+
+    // When
+    WebEndpointResponse<Resource> actual = underTest.dump();
+
+    // Then
+    assertThat(status.state()).isEqualTo("RUNNING");
+    assertThat(status.maxAge()).isEqualTo(Duration.ofMinutes(1));
+    assertThat(actual.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    assertThat(actual.getBody().getFilename()).endsWith(".jfr");
+    Path file = dir.resolve("dump.jfr");
+    Files.write(file, actual.getBody().getContentAsByteArray());
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+        .filter(event -> event.getEventType().getName().equals("com.amigoscode.Jwt"))
+        .toList();
+    assertThat(events)
+        .extracting(event -> event.getString("operation"))
+        .containsExactly("issue", "verify");
+    assertThat(underTest.recording()).isNotNull();
+  }
+
+  @Test
+  void startingTwiceKeepsTheRunningRecording() throws Exception {
+    // When
+    FlightRecordingEndpoint.RecordingStatus first = underTest.start(null, null, null);
+    FlightRecordingEndpoint.RecordingStatus second =
+        underTest.start(Duration.ofSeconds(5), 1024L, "profile");
+
+    // Then
+    assertThat(second.id()).isEqualTo(first.id());
+    underTest.stop();
+    assertThat(underTest.recording()).isNull();
+  }
+
+  @Test
+  void overridesCannotWidenTheConfiguredLimits() throws Exception {
+    // When
+    FlightRecordingEndpoint.RecordingStatus actual =
+        underTest.start(Duration.ofDays(1), Long.MAX_VALUE, null);
+
+    // Then
+    assertThat(actual.maxAge()).isEqualTo(Duration.ofMinutes(1));
+    assertThat(actual.maxSize()).isEqualTo(16 * 1024 * 1024);
+    assertThat(underTest.recording().getSettings())
+        .containsEntry("jdk.InitialEnvironmentVariable#enabled", "false")
+        .containsEntry("jdk.InitialSystemProperty#enabled", "false");
+  }
+}
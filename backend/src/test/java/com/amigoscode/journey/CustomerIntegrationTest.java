@@ -3,6 +3,7 @@ package com.amigoscode.journey;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 
 import com.amigoscode.customer.CustomerDTO;
 import com.amigoscode.customer.CustomerRegistrationRequest;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
@@ -258,4 +260,109 @@ public class CustomerIntegrationTest {
 
     assertThat(updateCustomer).isEqualTo(expectedCustomer);
   }
+
+  @Test
+  void canRevalidateCustomerWithETag() {
+    // Create a registration request
+    Faker faker = new Faker();
+    Name fakerName = faker.name();
+    String name = fakerName.fullName();
+    String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@amigoscode.com";
+    int age = RANDOM.nextInt(1, 100);
+    Gender gender = age % 2 == 0 ? Gender.MALE : Gender.FEMALE;
+
+    CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+        name, email, "password", age, gender
+    );
+
+    // Send a post request
+    String jwtToken = webTestClient.post()
+        .uri(CUSTOMER_PATH)
+        .accept(MediaType.APPLICATION_JSON)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(Mono.just(request), CustomerRegistrationRequest.class)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .returnResult(Void.class)
+        .getResponseHeaders()
+        .get(AUTHORIZATION)
+        .get(0);
+
+    // Find the customer with an email filter
+    int id = webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(CUSTOMER_PATH).queryParam("email", email).build())
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBodyList(CustomerDTO.class)
+        .returnResult()
+        .getResponseBody()
+        .get(0)
+        .id();
+
+    // Get customer by id and remember its ETag
+    String eTag = webTestClient.get()
+        .uri(CUSTOMER_PATH + "/{id}", id)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .returnResult(CustomerDTO.class)
+        .getResponseHeaders()
+        .getETag();
+
+    // Revalidate without changes
+    webTestClient.get()
+        .uri(CUSTOMER_PATH + "/{id}", id)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus()
+        .isNotModified();
+
+    // Update the customer
+    CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(
+        "Ali", null, null, null
+    );
+    webTestClient.put()
+        .uri(CUSTOMER_PATH + "/{id}", id)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(Mono.just(updateRequest), CustomerUpdateRequest.class)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    // Revalidate after the change
+    webTestClient.get()
+        .uri(CUSTOMER_PATH + "/{id}", id)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .ifNoneMatch(eTag)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .value("ETag", value -> assertThat(value).isNotEqualTo(eTag))
+        .expectBody(CustomerDTO.class)
+        .value(customer -> assertThat(customer.name()).isEqualTo("Ali"));
+
+    // A write against the outdated ETag is rejected
+    webTestClient.put()
+        .uri(CUSTOMER_PATH + "/{id}", id)
+        .accept(MediaType.APPLICATION_JSON)
+        .header(AUTHORIZATION, String.format("Bearer %s", jwtToken))
+        .header(IF_MATCH, eTag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(Mono.just(updateRequest), CustomerUpdateRequest.class)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+  }
 }
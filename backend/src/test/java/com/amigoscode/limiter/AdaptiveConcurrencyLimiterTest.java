@@ -0,0 +1,96 @@
+package com.amigoscode.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(
+      "reads", 4, 2, 6, Duration.ofMillis(250), meterRegistry
+  );
+
+  @Test
+  void rejectsOnceLimitIsInFlight() {
+    // When
+    for (int i = 0; i < 4; i++) {
+      assertThat(underTest.tryAcquire()).isTrue();
+    }
+
+    // Then
+    assertThat(underTest.tryAcquire()).isFalse();
+    assertThat(underTest.getInFlight()).isEqualTo(4);
+    assertThat(meterRegistry.get("concurrency.rejected").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void growsWhileFastAndSaturatedUpToMax() {
+    // When
+    for (int i = 0; i < 10; i++) {
+      fillAndRelease(FAST, false);
+    }
+
+    // Then
+    assertThat(underTest.getLimit()).isEqualTo(6);
+  }
+
+  @Test
+  void doesNotGrowWhileMostlyIdle() {
+    // When
+    for (int i = 0; i < 10; i++) {
+      underTest.tryAcquire();
+      underTest.release(FAST, false);
+    }
+
+    // Then
+    assertThat(underTest.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void backsOffOnSlowOrFailedCallsDownToMin() {
+    // Given
+    underTest.tryAcquire();
+
+    // When
+    underTest.release(SLOW, false);
+
+    // Then
+    assertThat(underTest.getLimit()).isEqualTo(3);
+
+    // When
+    for (int i = 0; i < 20; i++) {
+      underTest.tryAcquire();
+      underTest.release(FAST, true);
+    }
+
+    // Then
+    assertThat(underTest.getLimit()).isEqualTo(2);
+    assertThat(underTest.getInFlight()).isZero();
+  }
+
+  @Test
+  void rejectsInconsistentLimits() {
+    // When
+    // Then
+    assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(
+        "reads", 10, 2, 6, Duration.ofMillis(250), meterRegistry
+    )).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void fillAndRelease(long latencyNanos, boolean failed) {
+    int acquired = 0;
+    while (underTest.tryAcquire()) {
+      acquired++;
+    }
+    for (int i = 0; i < acquired; i++) {
+      underTest.release(latencyNanos, failed);
+    }
+  }
+}
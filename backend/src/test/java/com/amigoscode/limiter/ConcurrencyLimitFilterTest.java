@@ -0,0 +1,126 @@
+package com.amigoscode.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.amigoscode.Exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+class ConcurrencyLimitFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdaptiveConcurrencyLimiter reads = limiter("reads");
+  private final AdaptiveConcurrencyLimiter writes = limiter("writes");
+  private final AdaptiveConcurrencyLimiter auth = limiter("auth");
+  private final HandlerExceptionResolver handlerExceptionResolver =
+      mock(HandlerExceptionResolver.class);
+  private final ConcurrencyLimitFilter underTest = new ConcurrencyLimitFilter(
+      reads, writes, auth, Duration.ofSeconds(2), handlerExceptionResolver, corsSource()
+  );
+
+  @Test
+  void classifiesRequests() {
+    // When
+    // Then
+    assertThat(underTest.limiterFor(request("GET", "/api/v1/customers/1"))).isSameAs(reads);
+    assertThat(underTest.limiterFor(request("GET", "/api/v1/customers"))).isSameAs(reads);
+    assertThat(underTest.limiterFor(request("PUT", "/api/v1/customers/1"))).isSameAs(writes);
+    assertThat(underTest.limiterFor(request("POST", "/api/v1/auth/login"))).isSameAs(auth);
+    assertThat(underTest.limiterFor(request("GET", "/api/v1/customers/changes"))).isNull();
+    assertThat(underTest.limiterFor(request("GET", "/ping"))).isNull();
+    assertThat(underTest.limiterFor(request("GET", "/api/v1/customersX"))).isNull();
+  }
+
+  @Test
+  void shedsRequestsBeyondTheLimit() throws Exception {
+    // Given
+    reads.tryAcquire();
+    MockHttpServletRequest request = request("GET", "/api/v1/customers/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    FilterChain chain = mock(FilterChain.class);
+
+    // When
+    underTest.doFilter(request, response, chain);
+
+    // Then
+    verifyNoInteractions(chain);
+    verify(handlerExceptionResolver).resolveException(
+        eq(request), eq(response), isNull(), argThat(e ->
+            e instanceof ServiceUnavailableException unavailable
+                && unavailable.getRetryAfter().equals(Duration.ofSeconds(2))
+        )
+    );
+  }
+
+  @Test
+  void rejectionsCarryCorsHeaders() throws Exception {
+    // Given
+    reads.tryAcquire();
+    MockHttpServletRequest request = request("GET", "/api/v1/customers/1");
+    request.addHeader(HttpHeaders.ORIGIN, "http://localhost:5173");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    underTest.doFilter(request, response, mock(FilterChain.class));
+
+    // Then
+    assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN))
+        .isEqualTo("http://localhost:5173");
+    assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS))
+        .contains(HttpHeaders.RETRY_AFTER);
+    verify(handlerExceptionResolver).resolveException(
+        eq(request), eq(response), isNull(), any(ServiceUnavailableException.class)
+    );
+  }
+
+  @Test
+  void releasesPermitAfterTheRequest() throws Exception {
+    // Given
+    MockHttpServletRequest request = request("POST", "/api/v1/auth/login");
+
+    // When
+    underTest.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // Then
+    assertThat(auth.getInFlight()).isZero();
+    verify(handlerExceptionResolver, never())
+        .resolveException(any(), any(), any(), any());
+  }
+
+  private AdaptiveConcurrencyLimiter limiter(String name) {
+    return new AdaptiveConcurrencyLimiter(name, 1, 1, 1, Duration.ofMillis(250), meterRegistry);
+  }
+
+  private static CorsConfigurationSource corsSource() {
+    CorsConfiguration configuration = new CorsConfiguration();
+    configuration.setAllowedOrigins(List.of("http://localhost:5173"));
+    configuration.setAllowedMethods(List.of("*"));
+    configuration.setExposedHeaders(List.of(HttpHeaders.RETRY_AFTER));
+    UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    source.registerCorsConfiguration("/api/**", configuration);
+    return source;
+  }
+
+  private static MockHttpServletRequest request(String method, String uri) {
+    return new MockHttpServletRequest(method, uri);
+  }
+}
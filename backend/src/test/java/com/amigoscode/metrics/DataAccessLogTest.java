@@ -0,0 +1,44 @@
+package com.amigoscode.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DataAccessLogTest {
+
+  private final DataAccessLog underTest = new DataAccessLog(
+      1_000_000, 0, Map.of("insertCustomer", 1.0, "deleteCustomerById", 0.0)
+  );
+
+  @Test
+  void alwaysLogsSlowCalls() {
+    // When
+    // Then
+    assertThat(underTest.shouldLog("selectCustomerById", 1_000_000)).isTrue();
+    assertThat(underTest.shouldLog("deleteCustomerById", 5_000_000)).isTrue();
+  }
+
+  @Test
+  void samplesFastCallsPerStatement() {
+    // When
+    // Then
+    assertThat(underTest.shouldLog("insertCustomer", 10)).isTrue();
+    assertThat(underTest.shouldLog("deleteCustomerById", 10)).isFalse();
+    assertThat(underTest.shouldLog("selectCustomerById", 10)).isFalse();
+  }
+
+  @Test
+  void redactsPasswords() {
+    // Given
+    String entity = "[Customer{id=1, name='Alex', password='s3cret, really', age=20}]";
+    String request = "[CustomerRegistrationRequest[name=Alex, password=hunter2, age=20]]";
+
+    // When
+    // Then
+    assertThat(DataAccessLog.redact(entity))
+        .isEqualTo("[Customer{id=1, name='Alex', password=****, age=20}]");
+    assertThat(DataAccessLog.redact(request))
+        .isEqualTo("[CustomerRegistrationRequest[name=Alex, password=****, age=20]]");
+  }
+}
@@ -0,0 +1,78 @@
+package com.amigoscode.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  private final LatencyHistogram underTest = new LatencyHistogram();
+
+  @Test
+  void bucketsStayWithinThreePercentOfTheValue() {
+    // When
+    // Then
+    for (long value = 0; value < 5_000_000; value = value * 17 / 16 + 1) {
+      long reported = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+      assertThat(reported).isGreaterThanOrEqualTo(value);
+      assertThat((double) reported).isCloseTo(value, within(value * 0.032 + 1));
+    }
+    assertThat(LatencyHistogram.indexOf(LatencyHistogram.MAX_TRACKABLE_MICROS))
+        .isEqualTo(LatencyHistogram.BUCKETS - 1);
+  }
+
+  @Test
+  void reportsPercentilesOfRecordedValues() {
+    // Given
+    for (int micros = 1; micros <= 1_000; micros++) {
+      underTest.recordMicros(micros);
+    }
+
+    // When
+    LatencyHistogram.Snapshot actual = underTest.snapshot();
+
+    // Then
+    assertThat(actual.count()).isEqualTo(1_000);
+    assertThat(actual.maxMicros()).isEqualTo(1_000);
+    assertThat(actual.meanMicros()).isEqualTo(500.5);
+    assertThat(actual.percentileMicros(50)).isBetween(500L, 516L);
+    assertThat(actual.percentileMicros(99)).isBetween(990L, 1_000L);
+    assertThat(actual.percentileMicros(100)).isEqualTo(1_000);
+  }
+
+  @Test
+  void clampsValuesOutsideTheTrackableRange() {
+    // When
+    underTest.recordMicros(-5);
+    underTest.recordMicros(Long.MAX_VALUE);
+
+    // Then
+    LatencyHistogram.Snapshot actual = underTest.snapshot();
+    assertThat(actual.percentileMicros(50)).isZero();
+    assertThat(actual.maxMicros()).isEqualTo(LatencyHistogram.MAX_TRACKABLE_MICROS);
+  }
+
+  @Test
+  void losesNothingUnderConcurrentRecording() throws InterruptedException {
+    // Given
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    // When
+    for (int thread = 0; thread < 8; thread++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          underTest.recordMicros(i % 200);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    // Then
+    assertThat(underTest.snapshot().count()).isEqualTo(80_000);
+  }
+}
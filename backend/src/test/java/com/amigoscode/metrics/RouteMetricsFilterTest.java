@@ -0,0 +1,85 @@
+package com.amigoscode.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import jakarta.servlet.ServletException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class RouteMetricsFilterTest {
+
+  private final RouteMetricsRegistry registry = new RouteMetricsRegistry();
+  private final RouteMetricsFilter underTest = new RouteMetricsFilter(registry);
+
+  @Test
+  void recordsUnderTheMatchedRouteTemplate() throws Exception {
+    // Given
+    MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+    MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/v1/customers/2");
+
+    // When
+    for (MockHttpServletRequest request : List.of(first, second)) {
+      underTest.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+          req.setAttribute(
+              HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/customers/{customerId}"
+          )
+      );
+    }
+
+    // Then
+    assertThat(registry.snapshot()).singleElement().satisfies(route -> {
+      assertThat(route.method()).isEqualTo("GET");
+      assertThat(route.route()).isEqualTo("/api/v1/customers/{customerId}");
+      assertThat(route.status()).isEqualTo(200);
+      assertThat(route.requests()).isEqualTo(2);
+    });
+  }
+
+  @Test
+  void groupsRequestsWithoutHandlerAndCountsFailuresAsServerErrors() throws Exception {
+    // Given
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+    // When
+    underTest.doFilter(new MockHttpServletRequest("GET", "/nope"), rejected,
+        (req, res) -> rejected.setStatus(404));
+    assertThatThrownBy(() -> underTest.doFilter(
+        new MockHttpServletRequest("POST", "/api/v1/customers"),
+        new MockHttpServletResponse(),
+        (req, res) -> {
+          throw new ServletException("boom");
+        }
+    )).isInstanceOf(ServletException.class);
+
+    // Then
+    assertThat(registry.snapshot())
+        .extracting(RouteMetricsRegistry.RouteSnapshot::method,
+            RouteMetricsRegistry.RouteSnapshot::route,
+            RouteMetricsRegistry.RouteSnapshot::status)
+        .containsExactly(
+            tuple("GET", RouteMetricsFilter.UNMATCHED, 404),
+            tuple("POST", RouteMetricsFilter.UNMATCHED, 500)
+        );
+  }
+
+  @Test
+  void groupsNonStandardMethodsUnderOneKey() throws Exception {
+    // When
+    for (String method : List.of("FOO", "BAR", "get")) {
+      underTest.doFilter(new MockHttpServletRequest(method, "/nope"),
+          new MockHttpServletResponse(), (req, res) -> {
+          });
+    }
+
+    // Then
+    assertThat(registry.snapshot()).singleElement().satisfies(route -> {
+      assertThat(route.method()).isEqualTo(RouteMetricsRegistry.OTHER_METHOD);
+      assertThat(route.requests()).isEqualTo(3);
+    });
+  }
+}
@@ -0,0 +1,63 @@
+package com.amigoscode.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ServerTimingFilterTest {
+
+  private final ServerTimingFilter underTest = new ServerTimingFilter();
+
+  @Test
+  void writesPhasesBeforeTheResponseCommits() throws Exception {
+    // Given
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/customers"), response,
+        (req, res) -> {
+          try (ServerTiming.Phase ignored = ServerTiming.phase("db")) {
+            ServerTiming.record("db", 2_000_000);
+          }
+          ServerTiming.begin("serialize");
+          res.getWriter().write("[]");
+          res.flushBuffer();
+          assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING)).isNotNull();
+          ServerTiming.record("mapper", 1_000_000);
+        });
+
+    // Then
+    String header = response.getHeader(ServerTimingFilter.SERVER_TIMING);
+    assertThat(header).matches("db;dur=\\d+\\.\\d{3}, serialize;dur=\\d+\\.\\d{3}, total;dur=.*");
+    assertThat(ServerTiming.current()).isNull();
+  }
+
+  @Test
+  void writesHeaderForResponsesNeverFlushed() throws Exception {
+    // Given
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // When
+    underTest.doFilter(new MockHttpServletRequest("DELETE", "/api/v1/customers/1"), response,
+        (req, res) -> ServerTiming.record("db", 1_500_000));
+
+    // Then
+    assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING))
+        .startsWith("db;dur=1.500, total;dur=");
+  }
+
+  @Test
+  void phasesCostNothingWithoutAContext() {
+    // When
+    ServerTiming.Phase first = ServerTiming.phase("db");
+    ServerTiming.Phase second = ServerTiming.phase("mapper");
+    first.close();
+    ServerTiming.record("db", 1_000);
+
+    // Then
+    assertThat(first).isSameAs(second);
+    assertThat(ServerTiming.current()).isNull();
+  }
+}
@@ -0,0 +1,85 @@
+package com.amigoscode.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlCaptureDataSourceTest {
+
+  private final DataSource target = mock(DataSource.class);
+  private final Connection connection = mock(Connection.class);
+  private final SqlCaptureDataSource underTest = new SqlCaptureDataSource(target);
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(target.getConnection()).thenReturn(connection);
+  }
+
+  @Test
+  void capturesPreparedAndPlainStatements() throws SQLException {
+    // Given
+    Statement statement = mock(Statement.class);
+    when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    when(connection.createStatement()).thenReturn(statement);
+
+    // When
+    try (SqlCapture capture = SqlCapture.start()) {
+      Connection captured = underTest.getConnection();
+      captured.prepareStatement("SELECT * FROM customer WHERE id = ?");
+      captured.createStatement().executeQuery("SELECT * FROM customer");
+
+      // Then
+      assertThat(capture.getStatements()).containsExactly(
+          "SELECT * FROM customer WHERE id = ?",
+          "SELECT * FROM customer"
+      );
+    }
+    verify(statement).executeQuery("SELECT * FROM customer");
+  }
+
+  @Test
+  void keepsOnlyTheFirstStatements() throws SQLException {
+    // Given
+    when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    Connection captured = underTest.getConnection();
+
+    // When
+    try (SqlCapture capture = SqlCapture.start()) {
+      for (int i = 0; i < SqlCapture.MAX_STATEMENTS + 3; i++) {
+        captured.prepareStatement("SELECT " + i);
+      }
+
+      // Then
+      assertThat(capture.getStatements()).hasSize(SqlCapture.MAX_STATEMENTS);
+      assertThat(capture.getOmitted()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  void nestedCaptureRestoresTheOuterOne() throws SQLException {
+    // Given
+    when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+    Connection captured = underTest.getConnection();
+
+    // When
+    try (SqlCapture outer = SqlCapture.start()) {
+      try (SqlCapture inner = SqlCapture.start()) {
+        captured.prepareStatement("SELECT 1");
+      }
+      captured.prepareStatement("SELECT 2");
+
+      // Then
+      assertThat(outer.getStatements()).containsExactly("SELECT 2");
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.amigoscode.benchmarks;
+
+import java.io.File;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, for allocation rates per operation, and writes the
+ * results as JSON to {@code target/jmh-result.json} so runs can be diffed. Any regular JMH
+ * option, e.g. a benchmark regex or {@code -rff other.json}, overrides these defaults.
+ */
+public final class BenchmarkRunner {
+
+  static final String RESULT_FILE = "target/jmh-result.json";
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLine.getResult().hasValue()) {
+      new File(RESULT_FILE).getParentFile().mkdirs();
+      options.result(RESULT_FILE);
+    }
+    new Runner(options.build()).run();
+  }
+}
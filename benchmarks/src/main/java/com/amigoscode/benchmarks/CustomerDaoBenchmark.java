@@ -0,0 +1,160 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerDao;
+import com.amigoscode.customer.Gender;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The same operation mix against each {@link CustomerDao} implementation. Throughput and
+ * sampled latency (p50 to p99.99) come from the two modes, allocation per operation from the
+ * GC profiler the runner adds. Every fork gets its own embedded Postgres, and the list DAO its
+ * own static list, so parameters never see each other's rows.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerDaoBenchmark {
+
+  @Param({"jdbc", "jpa", "list"})
+  public String implementation;
+
+  @Param({"1000", "10000", "100000"})
+  public int customers;
+
+  private CustomerDaoContext context;
+  private CustomerDao customerDao;
+  private int[] ids;
+  private String[] emails;
+  private long[] versions;
+  private int seeded;
+  private int maxSeededId;
+  private long inserted;
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = CustomerDaoContext.start();
+    customerDao = context.customerDao(implementation);
+    if (implementation.equals("list")) {
+      seedList();
+    } else {
+      seedDatabase();
+      // streamAllCustomers has no ORDER BY, so the last streamed id need not be the highest
+      maxSeededId = context.jdbcTemplate()
+          .queryForObject("SELECT coalesce(max(id), 0) FROM customer", Integer.class);
+    }
+    List<Customer> all = new ArrayList<>(customers);
+    customerDao.streamAllCustomers(all::add);
+    seeded = all.size();
+    ids = all.stream().mapToInt(Customer::getId).toArray();
+    emails = all.stream().map(Customer::getEmail).toArray(String[]::new);
+    versions = all.stream().mapToLong(customer -> customer.getVersion() == null
+        ? 0L : customer.getVersion()).toArray();
+  }
+
+  // One statement is far quicker than going through insertCustomer a hundred thousand times
+  private void seedDatabase() {
+    var jdbcTemplate = context.jdbcTemplate();
+    jdbcTemplate.update("""
+        INSERT INTO customer (name, email, password, age, gender)
+        SELECT 'Customer ' || i, 'customer' || i || '@amigoscode.com', 'password',
+               18 + i % 80, CASE WHEN i % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END
+        FROM generate_series(1, ?) i
+        """, customers);
+    jdbcTemplate.update("""
+        INSERT INTO customer_statistics (gender, age, total)
+        SELECT gender, age, count(*)
+        FROM customer
+        GROUP BY gender, age
+        ON CONFLICT (gender, age) DO UPDATE SET total = excluded.total
+        """);
+    jdbcTemplate.execute("ANALYZE customer");
+  }
+
+  private void seedList() {
+    int existing = customerDao.selectAllCustomers().size();
+    for (int id = existing + 1; id <= customers; id++) {
+      customerDao.insertCustomer(new Customer(
+          id, "Customer " + id, "customer" + id + "@amigoscode.com", "password",
+          18 + id % 80, id % 2 == 0 ? Gender.MALE : Gender.FEMALE
+      ));
+    }
+  }
+
+  // Inserted rows are dropped after each iteration so the table stays at its nominal size
+  @TearDown(Level.Iteration)
+  public void removeInserted() {
+    if (implementation.equals("list")) {
+      // The list DAO hands out its backing list
+      List<Customer> all = customerDao.selectAllCustomers();
+      all.subList(seeded, all.size()).clear();
+    } else {
+      context.jdbcTemplate().update("DELETE FROM customer WHERE id > ?", maxSeededId);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Customer> selectCustomerById() {
+    return customerDao.selectCustomerById(ids[random.nextInt(seeded)]);
+  }
+
+  @Benchmark
+  public Optional<Customer> selectUserByEmail() {
+    return customerDao.selectUserByEmail(emails[random.nextInt(seeded)]);
+  }
+
+  @Benchmark
+  public Customer insertCustomer() {
+    long n = ++inserted;
+    Customer customer = new Customer(
+        "Inserted " + n, "inserted" + n + "@amigoscode.com", "password", 30, Gender.FEMALE
+    );
+    customerDao.insertCustomer(customer);
+    return customer;
+  }
+
+  // The conditional update CustomerService issues for requests carrying If-Match
+  @Benchmark
+  public Optional<Customer> updateCustomer() {
+    int index = random.nextInt(seeded);
+    Customer update = new Customer();
+    update.setId(ids[index]);
+    update.setName("Updated " + versions[index]);
+    Optional<Customer> updated = customerDao.updateCustomer(update, versions[index]);
+    versions[index]++;
+    return updated;
+  }
+
+  @Benchmark
+  public void streamAllCustomers(Blackhole blackhole) {
+    customerDao.streamAllCustomers(blackhole::consume);
+  }
+}
@@ -0,0 +1,99 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerDao;
+import com.amigoscode.customer.CustomerJDBCDataAccessService;
+import com.amigoscode.customer.CustomerJPADataAccessService;
+import com.amigoscode.customer.CustomerListDataAccessService;
+import com.amigoscode.customer.CustomerRepository;
+import com.amigoscode.customer.CustomerRowMapper;
+import com.amigoscode.customer.CustomerSummaryDataAccessService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The three {@link CustomerDao} implementations wired the way the application wires them, on
+ * an embedded Postgres migrated by Flyway, but without the caching, batching and metrics
+ * decorators or anything web related.
+ */
+final class CustomerDaoContext implements AutoCloseable {
+
+  private final EmbeddedPostgres postgres;
+  private final ConfigurableApplicationContext context;
+
+  private CustomerDaoContext(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+    this.postgres = postgres;
+    this.context = context;
+  }
+
+  static CustomerDaoContext start() {
+    EmbeddedPostgres postgres;
+    try {
+      postgres = EmbeddedPostgres.builder().start();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start the embedded Postgres", e);
+    }
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(DaoConfig.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "spring.datasource.username=postgres",
+            "spring.datasource.password=postgres",
+            "spring.main.banner-mode=off"
+        )
+        .run();
+    return new CustomerDaoContext(postgres, context);
+  }
+
+  CustomerDao customerDao(String implementation) {
+    return context.getBean(implementation, CustomerDao.class);
+  }
+
+  JdbcTemplate jdbcTemplate() {
+    return context.getBean(JdbcTemplate.class);
+  }
+
+  @Override
+  public void close() throws IOException {
+    context.close();
+    postgres.close();
+  }
+
+  @Configuration(proxyBeanMethods = false)
+  @ImportAutoConfiguration({
+      DataSourceAutoConfiguration.class,
+      DataSourceTransactionManagerAutoConfiguration.class,
+      JdbcTemplateAutoConfiguration.class,
+      FlywayAutoConfiguration.class,
+      HibernateJpaAutoConfiguration.class,
+      TransactionAutoConfiguration.class
+  })
+  @EnableJpaRepositories(basePackageClasses = CustomerRepository.class)
+  @EntityScan(basePackageClasses = Customer.class)
+  @Import({
+      CustomerRowMapper.class,
+      CustomerSummaryDataAccessService.class,
+      CustomerJDBCDataAccessService.class,
+      CustomerJPADataAccessService.class,
+      CustomerListDataAccessService.class
+  })
+  static class DaoConfig {
+
+  }
+}
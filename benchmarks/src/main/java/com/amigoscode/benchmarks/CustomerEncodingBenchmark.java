@@ -0,0 +1,138 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.codec.CustomerProtobufHttpMessageConverter;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.Gender;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Encodes and decodes a page of customers through the same message converters the controllers
+ * negotiate between.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerEncodingBenchmark {
+
+  private static final Type CUSTOMER_LIST =
+      new ParameterizedTypeReference<List<CustomerDTO>>() {
+      }.getType();
+
+  @Param({"json", "cbor", "smile", "protobuf"})
+  public String encoding;
+
+  @Param({"100"})
+  public int customers;
+
+  private GenericHttpMessageConverter<Object> converter;
+  private MediaType mediaType;
+  private List<CustomerDTO> dtos;
+  private byte[] payload;
+
+  @Setup
+  public void setUp() throws IOException {
+    switch (encoding) {
+      case "json" -> {
+        converter = new MappingJackson2HttpMessageConverter();
+        mediaType = MediaType.APPLICATION_JSON;
+      }
+      case "cbor" -> {
+        converter = new MappingJackson2CborHttpMessageConverter();
+        mediaType = MediaType.APPLICATION_CBOR;
+      }
+      case "smile" -> {
+        converter = new MappingJackson2SmileHttpMessageConverter();
+        mediaType = MediaType.valueOf("application/x-jackson-smile");
+      }
+      case "protobuf" -> {
+        converter = new CustomerProtobufHttpMessageConverter();
+        mediaType = CustomerProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+      }
+      default -> throw new IllegalArgumentException("Unknown encoding " + encoding);
+    }
+    dtos = IntStream.rangeClosed(1, customers)
+        .mapToObj(id -> new CustomerDTO(
+            id,
+            "Customer " + id,
+            "customer" + id + "@amigoscode.com",
+            id % 2 == 0 ? Gender.FEMALE : Gender.MALE,
+            18 + id % 60,
+            List.of("ROLE_USER"),
+            "customer" + id + "@amigoscode.com"
+        ))
+        .toList();
+    payload = encode();
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    OutputMessage output = new OutputMessage();
+    converter.write(dtos, CUSTOMER_LIST, mediaType, output);
+    return output.body.toByteArray();
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return converter.read(CUSTOMER_LIST, null, new InputMessage(payload));
+  }
+
+  private static final class OutputMessage implements HttpOutputMessage {
+
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+
+  private record InputMessage(byte[] payload) implements HttpInputMessage {
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(payload);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return new HttpHeaders();
+    }
+  }
+}
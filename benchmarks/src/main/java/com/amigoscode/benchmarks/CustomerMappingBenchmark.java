@@ -0,0 +1,97 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.CustomerDTOMapper;
+import com.amigoscode.customer.CustomerField;
+import com.amigoscode.customer.CustomerRowMapper;
+import com.amigoscode.customer.Gender;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerMappingBenchmark {
+
+  private static final String[] COLUMNS = {
+      "id", "name", "email", "password", "age", "gender", "version"
+  };
+  private static final int[] TYPES = {
+      Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR,
+      Types.BIGINT
+  };
+
+  private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+  private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+  private final Set<CustomerField> projection = EnumSet.of(CustomerField.ID, CustomerField.NAME);
+  private CachedRowSet row;
+  private Customer customer;
+
+  // An in-memory row looked up by column label, as the driver's result set is
+  @Setup
+  public void setUp() throws SQLException {
+    RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+    metaData.setColumnCount(COLUMNS.length);
+    for (int i = 0; i < COLUMNS.length; i++) {
+      metaData.setColumnName(i + 1, COLUMNS[i]);
+      metaData.setColumnLabel(i + 1, COLUMNS[i]);
+      metaData.setColumnType(i + 1, TYPES[i]);
+    }
+    row = RowSetProvider.newFactory().createCachedRowSet();
+    row.setMetaData(metaData);
+    row.moveToInsertRow();
+    row.updateInt("id", 1);
+    row.updateString("name", "Alex");
+    row.updateString("email", "alex@amigoscode.com");
+    row.updateString("password", "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5XHq6e8CkqFO1GhXk7XnQj.");
+    row.updateInt("age", 21);
+    row.updateString("gender", "MALE");
+    row.updateLong("version", 3L);
+    row.insertRow();
+    row.moveToCurrentRow();
+    row.first();
+    customer = new Customer(1, "Alex", "alex@amigoscode.com", "password", 21, Gender.MALE);
+  }
+
+  @Benchmark
+  public Customer rowMapperMapRow() throws SQLException {
+    return customerRowMapper.mapRow(row, 0);
+  }
+
+  @Benchmark
+  public CustomerDTO dtoMapperApply() {
+    return customerDTOMapper.apply(customer);
+  }
+
+  @Benchmark
+  public CustomerDTO dtoMapperApplyProjection() {
+    return customerDTOMapper.apply(customer, projection);
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> customerGetAuthorities() {
+    return customer.getAuthorities();
+  }
+}
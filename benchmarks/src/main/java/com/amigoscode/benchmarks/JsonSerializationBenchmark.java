@@ -0,0 +1,57 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.customer.CustomerDTO;
+import com.amigoscode.customer.Gender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+  @Param({"1", "100", "1000"})
+  public int customers;
+
+  // Configured the way Spring MVC configures the mapper it writes responses with
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private List<CustomerDTO> dtos;
+
+  @Setup
+  public void setUp() {
+    dtos = IntStream.rangeClosed(1, customers)
+        .mapToObj(id -> new CustomerDTO(
+            id,
+            "Customer " + id,
+            "customer" + id + "@amigoscode.com",
+            id % 2 == 0 ? Gender.FEMALE : Gender.MALE,
+            18 + id % 60,
+            List.of("ROLE_USER"),
+            "customer" + id + "@amigoscode.com"
+        ))
+        .toList();
+  }
+
+  @Benchmark
+  public byte[] writeCustomerDtos() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(dtos);
+  }
+}
@@ -0,0 +1,48 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.jwt.JWTUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+  private static final String SUBJECT = "alex@amigoscode.com";
+
+  private final JWTUtil jwtUtil = new JWTUtil();
+  private String token;
+
+  @Setup
+  public void setUp() {
+    token = jwtUtil.issueToken(SUBJECT, "ROLE_USER");
+  }
+
+  @Benchmark
+  public String issueToken() {
+    return jwtUtil.issueToken(SUBJECT, "ROLE_USER");
+  }
+
+  @Benchmark
+  public String getSubject() {
+    return jwtUtil.getSubject(token);
+  }
+
+  @Benchmark
+  public boolean isTokenValid() {
+    return jwtUtil.isTokenValid(token, SUBJECT);
+  }
+}
@@ -0,0 +1,69 @@
+package com.amigoscode.benchmarks;
+
+import com.amigoscode.customer.Customer;
+import com.amigoscode.customer.CustomerListDataAccessService;
+import com.amigoscode.customer.Gender;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The list DAO keeps its rows in a static list, so every parameter runs in its own fork
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListDaoBenchmark {
+
+  @Param({"100", "10000"})
+  public int customers;
+
+  private final CustomerListDataAccessService customerDao = new CustomerListDataAccessService();
+  private int lastId;
+  private String lastEmail;
+
+  // Lookups target the last row, the worst case for a linear scan
+  @Setup
+  public void setUp() {
+    int existing = customerDao.selectAllCustomers().size();
+    for (int id = existing + 1; id <= customers; id++) {
+      customerDao.insertCustomer(new Customer(
+          id, "Customer " + id, "customer" + id + "@amigoscode.com", "password", 30, Gender.MALE
+      ));
+    }
+    Customer last = customerDao.selectAllCustomers().get(customers - 1);
+    lastId = last.getId();
+    lastEmail = last.getEmail();
+  }
+
+  @Benchmark
+  public Optional<Customer> selectCustomerById() {
+    return customerDao.selectCustomerById(lastId);
+  }
+
+  @Benchmark
+  public Optional<Customer> selectUserByEmail() {
+    return customerDao.selectUserByEmail(lastEmail);
+  }
+
+  @Benchmark
+  public boolean existsPersonWithEmail() {
+    return customerDao.existsPersonWithEmail(lastEmail);
+  }
+
+  @Benchmark
+  public boolean existsPersonWithId() {
+    return customerDao.existsPersonWithId(lastId);
+  }
+}
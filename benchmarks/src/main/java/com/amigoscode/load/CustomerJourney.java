@@ -0,0 +1,193 @@
+package com.amigoscode.load;
+
+import com.amigoscode.auth.AuthenticationRequest;
+import com.amigoscode.customer.CustomerRegistrationRequest;
+import com.amigoscode.customer.CustomerUpdateRequest;
+import com.amigoscode.customer.Gender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The customer journey of the integration tests, driven over plain HTTP against a running
+ * instance: register, log in, list, get, update and delete. Steps run back to back; a failed
+ * step ends the journey, since the ones after it depend on its result.
+ */
+public class CustomerJourney {
+
+  static final String CUSTOMERS = "/api/v1/customers";
+  static final String LOGIN = "/api/v1/auth/login";
+  private static final String PASSWORD = "password";
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  public enum Step {
+    REGISTER("POST " + CUSTOMERS),
+    LOGIN("POST " + CustomerJourney.LOGIN),
+    LIST("GET " + CUSTOMERS),
+    GET("GET " + CUSTOMERS + "/{customerId}"),
+    UPDATE("PUT " + CUSTOMERS + "/{customerId}"),
+    DELETE("DELETE " + CUSTOMERS + "/{customerId}");
+
+    private final String endpoint;
+
+    Step(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+      return endpoint;
+    }
+  }
+
+  private final HttpClient httpClient;
+  private final URI baseUrl;
+  private final ObjectMapper objectMapper;
+  private final Map<Step, StepStats> stats = new EnumMap<>(Step.class);
+
+  public CustomerJourney(HttpClient httpClient, URI baseUrl, ObjectMapper objectMapper) {
+    this.httpClient = httpClient;
+    this.baseUrl = baseUrl;
+    this.objectMapper = objectMapper;
+    for (Step step : Step.values()) {
+      stats.put(step, new StepStats(step.getEndpoint()));
+    }
+  }
+
+  public Map<Step, StepStats> getStats() {
+    return stats;
+  }
+
+  /**
+   * Runs one journey meant to start at {@code intendedStartNanos}. The returned future
+   * completes with whether every step succeeded, never exceptionally.
+   */
+  public CompletableFuture<Boolean> run(long intendedStartNanos, boolean record) {
+    String email = "load-" + UUID.randomUUID() + "@amigoscode.com";
+    int age = ThreadLocalRandom.current().nextInt(18, 100);
+    Gender gender = age % 2 == 0 ? Gender.MALE : Gender.FEMALE;
+    Journey journey = new Journey(record);
+    return journey.send(Step.REGISTER, intendedStartNanos, post(
+            CUSTOMERS, new CustomerRegistrationRequest("Load Test", email, PASSWORD, age, gender)
+        ))
+        .thenCompose(registered -> journey.send(Step.LOGIN, registered.endNanos(), post(
+            LOGIN, new AuthenticationRequest(email, PASSWORD)
+        )))
+        .thenCompose(loggedIn -> {
+          journey.token = loggedIn.response().headers().firstValue("Authorization")
+              .orElseThrow();
+          journey.customerId = readTree(loggedIn.response().body())
+              .path("customerDTO").path("id").asInt();
+          return journey.send(Step.LIST, loggedIn.endNanos(), journey.get(CUSTOMERS));
+        })
+        .thenCompose(listed -> journey.send(Step.GET, listed.endNanos(),
+            journey.get(journey.customerPath())))
+        .thenCompose(fetched -> journey.send(Step.UPDATE, fetched.endNanos(),
+            journey.authorized(journey.customerPath())
+                .PUT(body(new CustomerUpdateRequest("Load Test Updated", null, age + 1, null)))
+                .header("Content-Type", "application/json")
+                .build()))
+        .thenCompose(updated -> journey.send(Step.DELETE, updated.endNanos(),
+            journey.authorized(journey.customerPath()).DELETE().build()))
+        .handle((deleted, error) -> error == null);
+  }
+
+  private HttpRequest post(String path, Object body) {
+    return request(path)
+        .POST(body(body))
+        .header("Content-Type", "application/json")
+        .build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUrl.resolve(path))
+        .timeout(REQUEST_TIMEOUT)
+        .header("Accept", "application/json");
+  }
+
+  private HttpRequest.BodyPublisher body(Object body) {
+    try {
+      return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private JsonNode readTree(byte[] body) {
+    try {
+      return objectMapper.readTree(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private final class Journey {
+
+    private final boolean record;
+    private String token;
+    private int customerId;
+
+    private Journey(boolean record) {
+      this.record = record;
+    }
+
+    private String customerPath() {
+      return CUSTOMERS + "/" + customerId;
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+      return request(path).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest get(String path) {
+      return authorized(path).GET().build();
+    }
+
+    // Latency counts from the intended start, so time spent waiting to send is charged too
+    private CompletableFuture<Exchange> send(Step step, long intendedStartNanos,
+        HttpRequest request) {
+      long sentNanos = System.nanoTime();
+      return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+          .handle((response, error) -> {
+            long endNanos = System.nanoTime();
+            boolean failed = error != null || response.statusCode() >= 400;
+            if (record) {
+              String status = error != null
+                  ? rootCause(error).getClass().getSimpleName()
+                  : String.valueOf(response.statusCode());
+              stats.get(step).record(intendedStartNanos, sentNanos, endNanos, status, failed);
+            }
+            if (failed) {
+              throw new CompletionException(new IllegalStateException(
+                  "%s failed".formatted(step.getEndpoint()), error
+              ));
+            }
+            return new Exchange(response, endNanos);
+          });
+    }
+  }
+
+  private static Throwable rootCause(Throwable error) {
+    Throwable cause = error;
+    while (cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private record Exchange(HttpResponse<byte[]> response, long endNanos) {
+
+  }
+}
@@ -0,0 +1,145 @@
+package com.amigoscode.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of a load test run, written as JSON for tooling and as a single HTML page for people.
+ * Latencies are in milliseconds and throughput is completed requests per second of the
+ * measured window.
+ */
+public record LoadReport(Instant finishedAt, String baseUrl, String model, double rate, int users,
+                         double durationSeconds, long journeys, long failedJourneys,
+                         List<Endpoint> endpoints) {
+
+  public record Endpoint(String endpoint, long requests, long errors, double throughput,
+                         Map<String, Long> statuses, Latency responseTime, Latency serviceTime) {
+
+  }
+
+  public record Latency(double mean, double p50, double p90, double p99, double p999,
+                        double max) {
+
+    static Latency of(Histogram histogram) {
+      return new Latency(
+          millis(histogram.getMean()),
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(90)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue())
+      );
+    }
+
+    private static double millis(double micros) {
+      return Math.round(micros) / 1000.0;
+    }
+  }
+
+  public static LoadReport of(LoadTestOptions options, Duration measured, long journeys,
+      long failedJourneys, Collection<StepStats> steps) {
+    double seconds = measured.toNanos() / 1e9;
+    List<Endpoint> endpoints = steps.stream()
+        .map(step -> new Endpoint(
+            step.getName(),
+            step.getResponseTime().getTotalCount(),
+            step.getErrors(),
+            Math.round(step.getResponseTime().getTotalCount() / seconds * 100) / 100.0,
+            step.getStatuses(),
+            Latency.of(step.getResponseTime()),
+            Latency.of(step.getServiceTime())
+        ))
+        .toList();
+    return new LoadReport(
+        Instant.now(), options.baseUrl().toString(), options.model().name().toLowerCase(),
+        options.rate(), options.users(), seconds, journeys, failedJourneys, endpoints
+    );
+  }
+
+  public void writeJson(Path path, ObjectMapper objectMapper) throws IOException {
+    createParent(path);
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), this);
+  }
+
+  public void writeHtml(Path path) throws IOException {
+    createParent(path);
+    StringBuilder html = new StringBuilder("""
+        <!DOCTYPE html>
+        <html><head><meta charset="utf-8"><title>Load test report</title>
+        <style>
+        body { font-family: sans-serif; margin: 2em; }
+        table { border-collapse: collapse; }
+        th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+        th:first-child, td:first-child { text-align: left; }
+        .service { color: #888; }
+        </style></head><body>
+        """);
+    html.append("<h1>Load test report</h1>\n<p>")
+        .append("%s model against %s, %.0f s measured, finished %s. ".formatted(
+            model, escape(baseUrl), durationSeconds, finishedAt))
+        .append("%d journeys, %d failed.</p>\n".formatted(journeys, failedJourneys))
+        .append("<p>Response time counts from when a request was due to be sent; ")
+        .append("<span class=\"service\">service time</span> from when it actually was.</p>\n")
+        .append("<table>\n<tr><th>Endpoint</th><th>Requests</th><th>Errors</th><th>req/s</th>")
+        .append("<th>Mean ms</th><th>p50 ms</th><th>p90 ms</th><th>p99 ms</th><th>p99.9 ms</th>")
+        .append("<th>Max ms</th><th>Statuses</th></tr>\n");
+    for (Endpoint endpoint : endpoints) {
+      html.append("<tr><td>").append(escape(endpoint.endpoint())).append("</td>")
+          .append(cell(endpoint.requests()))
+          .append(cell(endpoint.errors()))
+          .append(cell(endpoint.throughput()));
+      latencyCells(html, endpoint.responseTime());
+      html.append("<td rowspan=\"2\">").append(escape(endpoint.statuses().toString()))
+          .append("</td></tr>\n<tr class=\"service\"><td colspan=\"4\">service time</td>");
+      latencyCells(html, endpoint.serviceTime());
+      html.append("</tr>\n");
+    }
+    html.append("</table>\n</body></html>\n");
+    Files.writeString(path, html);
+  }
+
+  public void print(PrintStream out) {
+    out.printf("%d journeys, %d failed, over %.0f s%n", journeys, failedJourneys,
+        durationSeconds);
+    out.printf("%-40s %8s %7s %8s %9s %9s %9s %9s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (Endpoint endpoint : endpoints) {
+      Latency latency = endpoint.responseTime();
+      out.printf("%-40s %8d %7d %8.2f %9.2f %9.2f %9.2f %9.2f%n",
+          endpoint.endpoint(), endpoint.requests(), endpoint.errors(), endpoint.throughput(),
+          latency.p50(), latency.p99(), latency.p999(), latency.max());
+    }
+  }
+
+  private static void latencyCells(StringBuilder html, Latency latency) {
+    html.append(cell(latency.mean()))
+        .append(cell(latency.p50()))
+        .append(cell(latency.p90()))
+        .append(cell(latency.p99()))
+        .append(cell(latency.p999()))
+        .append(cell(latency.max()));
+  }
+
+  private static String cell(Object value) {
+    return "<td>" + value + "</td>";
+  }
+
+  private static String escape(String value) {
+    return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  private static void createParent(Path path) throws IOException {
+    if (path.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(path.toAbsolutePath().getParent());
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.amigoscode.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ *
+ * <ul>
+ *   <li>{@code --base-url}: instance under test, default {@code http://localhost:8080}</li>
+ *   <li>{@code --model}: {@code open} (journeys arrive at {@code --rate} per second however
+ *   slow the server gets) or {@code closed} ({@code --users} loop one journey at a time, paced
+ *   to {@code --rate} journeys per second in total when given)</li>
+ *   <li>{@code --duration}, {@code --warmup}: ISO-8601 durations; warmup journeys are not
+ *   recorded</li>
+ *   <li>{@code --report}: path prefix for the {@code .json} and {@code .html} reports</li>
+ * </ul>
+ */
+public record LoadTestOptions(URI baseUrl, Model model, double rate, int users,
+                              Duration duration, Duration warmup, Path report) {
+
+  public enum Model {
+    OPEN,
+    CLOSED
+  }
+
+  public static LoadTestOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Expected --name=value but got [%s]".formatted(arg));
+      }
+      values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+    LoadTestOptions options = new LoadTestOptions(
+        URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+        Model.valueOf(values.getOrDefault("model", "open").toUpperCase()),
+        Double.parseDouble(values.getOrDefault("rate", "20")),
+        Integer.parseInt(values.getOrDefault("users", "10")),
+        Duration.parse(values.getOrDefault("duration", "PT60S")),
+        Duration.parse(values.getOrDefault("warmup", "PT10S")),
+        Path.of(values.getOrDefault("report", "target/load-report"))
+    );
+    if (options.model() == Model.OPEN && options.rate() <= 0) {
+      throw new IllegalArgumentException("The open model needs a --rate above zero");
+    }
+    return options;
+  }
+
+  // Time between journey starts for one user, or for the whole test in the open model
+  public long intervalNanos() {
+    if (rate <= 0) {
+      return 0;
+    }
+    double perSecond = model == Model.OPEN ? rate : rate / users;
+    return (long) (1_000_000_000L / perSecond);
+  }
+}
@@ -0,0 +1,150 @@
+package com.amigoscode.load;
+
+import com.amigoscode.load.LoadTestOptions.Model;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives {@link CustomerJourney} against a running instance and writes a latency report. In
+ * the open model journeys are started on a fixed schedule whether or not earlier ones have
+ * finished, the way independent clients behave. In the closed model a fixed number of users
+ * each run one journey at a time; when paced, a user that falls behind schedule still charges
+ * the delay to the requests it sends late.
+ */
+public class LoadTestRunner {
+
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final LoadTestOptions options;
+  private final CustomerJourney journey;
+  private final LongAdder journeys = new LongAdder();
+  private final LongAdder failedJourneys = new LongAdder();
+
+  public LoadTestRunner(LoadTestOptions options, CustomerJourney journey) {
+    this.options = options;
+    this.journey = journey;
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    LoadTestRunner runner = new LoadTestRunner(
+        options, new CustomerJourney(httpClient, options.baseUrl(), objectMapper)
+    );
+    System.out.printf("Running %s model against %s for %s after %s warmup%n",
+        options.model().name().toLowerCase(), options.baseUrl(), options.duration(),
+        options.warmup());
+
+    LoadReport report = runner.run();
+    report.print(System.out);
+    Path json = Path.of(options.report() + ".json");
+    Path html = Path.of(options.report() + ".html");
+    report.writeJson(json, objectMapper);
+    report.writeHtml(html);
+    System.out.printf("Reports written to %s and %s%n", json, html);
+  }
+
+  public LoadReport run() throws InterruptedException {
+    long start = System.nanoTime();
+    long measureFrom = start + options.warmup().toNanos();
+    long end = measureFrom + options.duration().toNanos();
+    if (options.model() == Model.OPEN) {
+      runOpen(start, measureFrom, end);
+    } else {
+      runClosed(start, measureFrom, end);
+    }
+    return LoadReport.of(options, options.duration(), journeys.sum(), failedJourneys.sum(),
+        journey.getStats().values());
+  }
+
+  private void runOpen(long start, long measureFrom, long end) throws InterruptedException {
+    long interval = options.intervalNanos();
+    Phaser inFlight = new Phaser(1);
+    for (long i = 0; ; i++) {
+      long intendedStart = start + i * interval;
+      if (intendedStart >= end) {
+        break;
+      }
+      parkUntil(intendedStart);
+      boolean record = intendedStart >= measureFrom;
+      inFlight.register();
+      journey.run(intendedStart, record).whenComplete((succeeded, error) -> {
+        count(record, succeeded);
+        inFlight.arriveAndDeregister();
+      });
+    }
+    try {
+      inFlight.awaitAdvanceInterruptibly(
+          inFlight.arrive(), DRAIN_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS
+      );
+    } catch (TimeoutException e) {
+      System.err.printf("Journeys still in flight after %s, reporting without them%n",
+          DRAIN_TIMEOUT);
+    }
+  }
+
+  private void runClosed(long start, long measureFrom, long end) throws InterruptedException {
+    long interval = options.intervalNanos();
+    ExecutorService users = Executors.newFixedThreadPool(options.users());
+    for (int user = 0; user < options.users(); user++) {
+      // Spread first arrivals over one interval so paced users do not fire in lockstep
+      long firstStart = start + (interval * user) / options.users();
+      users.execute(() -> {
+        long intendedStart = firstStart;
+        while (true) {
+          long now = System.nanoTime();
+          if (interval == 0) {
+            intendedStart = now;
+          }
+          if (intendedStart >= end) {
+            return;
+          }
+          parkUntil(intendedStart);
+          boolean record = intendedStart >= measureFrom;
+          count(record, journey.run(intendedStart, record).join());
+          intendedStart += interval;
+        }
+      });
+    }
+    users.shutdown();
+    long remaining = end - System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+    if (!users.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+      System.err.printf("Users still busy after %s, reporting without them%n", DRAIN_TIMEOUT);
+      users.shutdownNow();
+    }
+  }
+
+  private void count(boolean record, Boolean succeeded) {
+    if (!record) {
+      return;
+    }
+    journeys.increment();
+    if (!Boolean.TRUE.equals(succeeded)) {
+      failedJourneys.increment();
+    }
+  }
+
+  private static void parkUntil(long deadlineNanos) {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
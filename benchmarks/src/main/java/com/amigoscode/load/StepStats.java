@@ -0,0 +1,65 @@
+package com.amigoscode.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of one journey step. Response time is measured from when the request was meant to
+ * be sent, so a stalled server is charged for the requests that queued up behind it; service
+ * time is measured from when it was actually sent and shows what coordinated omission hides.
+ */
+public class StepStats {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+  private final String name;
+  private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+  private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+  private final LongAdder errors = new LongAdder();
+  private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+  public StepStats(String name) {
+    this.name = name;
+  }
+
+  public void record(long intendedStartNanos, long sentNanos, long endNanos, String status,
+      boolean failed) {
+    responseTime.recordValue(micros(endNanos - intendedStartNanos));
+    serviceTime.recordValue(micros(endNanos - sentNanos));
+    statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+  private static long micros(long nanos) {
+    return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), HIGHEST_TRACKABLE_MICROS);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Histogram getResponseTime() {
+    return responseTime;
+  }
+
+  public Histogram getServiceTime() {
+    return serviceTime;
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  public Map<String, Long> getStatuses() {
+    Map<String, Long> counts = new TreeMap<>();
+    statuses.forEach((status, count) -> counts.put(status, count.sum()));
+    return counts;
+  }
+}
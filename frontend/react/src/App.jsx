@@ -1,13 +1,30 @@
 import {Spinner, Text, Wrap, WrapItem} from "@chakra-ui/react";
 import SidebarWithHeader from "./components/shared/SideBar.jsx";
 import {useEffect, useState} from "react";
-import {getCustomers} from "./services/client.js";
+import {
+  collectionVersion,
+  getCustomers,
+  subscribeToCustomerChanges
+} from "./services/client.js";
 import CardWithImage from "./components/Card.jsx";
 import CreateCustomerDrawer from "./components/CreateCustomerDrawer.jsx";
 import {errorNotification} from "./services/notification.js";
 
+const applyCustomerChange = (customers, change) => {
+  if (change.type === "DELETED" || !change.customer) {
+    return customers.filter(customer => customer.id !== change.customerId);
+  }
+  if (!customers.some(customer => customer.id === change.customerId)) {
+    return [...customers, change.customer];
+  }
+  return customers.map(customer =>
+      customer.id === change.customerId ? change.customer : customer
+  );
+}
+
 const App = () => {
   const [customers, setCustomers] = useState([]);
+  const [since, setSince] = useState(null);
   const [loading, setLoading] = useState(false);
   const [err, setError] = useState("");
 
@@ -16,6 +33,7 @@ const App = () => {
     setTimeout(() => {
       getCustomers().then(res => {
         setCustomers(res.data)
+        setSince(collectionVersion(res))
         console.log(res.data)
       }).catch(err => {
         console.log(err)
@@ -34,6 +52,17 @@ const App = () => {
     fetchCustomers();
   }, []);
 
+  useEffect(() => {
+    if (since === null) {
+      return;
+    }
+    const source = subscribeToCustomerChanges(since, {
+      onChange: change => setCustomers(current => applyCustomerChange(current, change)),
+      onReset: fetchCustomers
+    });
+    return () => source.close();
+  }, [since]);
+
   if (loading) {
     return (
         <SidebarWithHeader>
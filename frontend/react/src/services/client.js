@@ -39,4 +39,101 @@ export const deleteCustomer = async (id) => {
   } catch (e) {
     throw e;
   }
-}
\ No newline at end of file
+}
+
+// The list ETag ("c<seq>-<pending>") carries the change feed cursor
+export const collectionVersion = (res) => {
+  const match = /^(?:W\/)?"c(\d+)/.exec(res.headers?.etag ?? "");
+  return match ? Number(match[1]) : null;
+}
+
+const getAuthHeaders = () => {
+  const token = localStorage.getItem("access_token");
+  return token ? {Authorization: `Bearer ${token}`} : {};
+}
+
+// EventSource cannot send the bearer token, so the stream is read with fetch
+// and resumed from the last seen event id on reconnect
+export const subscribeToCustomerChanges = (since, {onChange, onReset}) => {
+  const controller = new AbortController();
+  const query = since != null ? `?since=${since}` : "";
+  const url = `${import.meta.env.VITE_API_BASE_URL}/api/v1/customers/changes${query}`;
+  let lastEventId = null;
+  let retryMs = 1000;
+
+  const dispatch = (event, data) => {
+    if (event === "change") {
+      onChange(JSON.parse(data));
+    } else if (event === "reset") {
+      onReset();
+    }
+  }
+
+  const read = async () => {
+    const headers = {...getAuthHeaders(), Accept: "text/event-stream"};
+    if (lastEventId !== null) {
+      headers["Last-Event-ID"] = lastEventId;
+    }
+    const res = await fetch(url, {headers, signal: controller.signal});
+    if (!res.ok) {
+      throw new Error(`change stream returned ${res.status}`);
+    }
+    retryMs = 1000;
+    const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = "";
+    let event = "message";
+    let data = [];
+    for (;;) {
+      const {value, done} = await reader.read();
+      if (done) {
+        return;
+      }
+      buffer += value;
+      const lines = buffer.split(/\r\n|\r|\n/);
+      buffer = lines.pop();
+      for (const line of lines) {
+        if (line === "") {
+          if (data.length > 0) {
+            dispatch(event, data.join("\n"));
+          }
+          event = "message";
+          data = [];
+          continue;
+        }
+        const colon = line.indexOf(":");
+        if (colon === 0) {
+          continue;
+        }
+        const field = colon < 0 ? line : line.slice(0, colon);
+        const fieldValue = colon < 0 ? "" : line.slice(colon + 1).replace(/^ /, "");
+        if (field === "event") {
+          event = fieldValue;
+        } else if (field === "data") {
+          data.push(fieldValue);
+        } else if (field === "id") {
+          lastEventId = fieldValue;
+        } else if (field === "retry" && /^\d+$/.test(fieldValue)) {
+          retryMs = Number(fieldValue);
+        }
+      }
+    }
+  }
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        await read();
+      } catch (e) {
+        if (controller.signal.aborted) {
+          return;
+        }
+        console.log(e);
+        retryMs = Math.min(retryMs * 2, 30000);
+      }
+      await new Promise(resolve => setTimeout(resolve, retryMs));
+    }
+  }
+
+  connect();
+  return {close: () => controller.abort()};
+}